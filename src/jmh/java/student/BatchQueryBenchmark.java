@@ -0,0 +1,99 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries per second on one core for a report style batch of filters, evaluated together
+ * with shared clauses and column passes, and one filter at a time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class BatchQueryBenchmark {
+    /** Number of queries in a batch; every benchmark counts one operation per query. */
+    private static final int QUERIES = 200;
+    /** The clauses queries are built from, so that batches share clauses as reports do. */
+    private static final String[] CLAUSES = {"minPlayers>=2", "minPlayers>=3", "maxPlayers<=4", "maxPlayers>6",
+        "year>2000", "year>2010", "year<1990", "rating>7", "rating>8", "rating<6", "difficulty<2",
+        "difficulty>=3", "maxPlayTime<=60", "maxPlayTime>120", "minPlayTime>=30", "rank<=1000",
+        "players==4", "players==2", "time==30-60", "name~=game 1"};
+
+    /** Number of games in the catalog. */
+    @Param({"10000", "100000"})
+    private int size;
+
+    /** The catalog being queried. */
+    private GameCatalog catalog;
+    /** The batch of filter strings. */
+    private List<String> filters;
+
+    /**
+     * Builds the catalog, warms its indexes and makes the batch.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new GameCatalog(BenchmarkCatalogs.games(size));
+        catalog.rangeIndex(GameRange.PLAYERS);
+        catalog.rangeIndex(GameRange.TIME);
+        Random random = new Random(2);
+        filters = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            StringBuilder filter = new StringBuilder(CLAUSES[random.nextInt(CLAUSES.length)]);
+            for (int j = random.nextInt(3); j > 0; j--) {
+                filter.append(',').append(CLAUSES[random.nextInt(CLAUSES.length)]);
+            }
+            filters.add(filter.toString());
+        }
+    }
+
+    /**
+     * The whole batch at once.
+     * @return the total number of matches, so nothing is optimised away
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public long batch() {
+        long total = 0;
+        for (BitSet result : new BatchFilter(catalog, catalog.allRows(), filters).evaluate()) {
+            total += result.cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * Each query through its own Planner.filter call, as the report job did.
+     * @return the total number of matches
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public long oneAtATime() {
+        long total = 0;
+        for (String filter : filters) {
+            total += new Planner(catalog).filter(filter).count();
+        }
+        return total;
+    }
+}
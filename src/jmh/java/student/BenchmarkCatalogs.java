@@ -0,0 +1,37 @@
+package student;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds synthetic game collections of a given size for the benchmarks.
+ * The values are random but seeded, so every run of a benchmark sees the same catalog.
+ */
+final class BenchmarkCatalogs {
+    /** Seed used for every generated collection. */
+    private static final long SEED = 5004L;
+
+    /** Private constructor as static class. */
+    private BenchmarkCatalogs() {
+    }
+
+    /**
+     * Generates a collection of random games.
+     * @param size the number of games
+     * @return the games
+     */
+    static Set<BoardGame> games(int size) {
+        Random random = new Random(SEED);
+        Set<BoardGame> games = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            int minPlayers = 1 + random.nextInt(4);
+            int minTime = 10 * (1 + random.nextInt(12));
+            games.add(new BoardGame("Game " + Integer.toString(random.nextInt(size * 10), 36) + " " + i, i,
+                    minPlayers, minPlayers + random.nextInt(6), minTime, minTime + 10 * random.nextInt(10),
+                    1 + 4 * random.nextDouble(), 1 + random.nextInt(size), 5 + 4 * random.nextDouble(),
+                    1950 + random.nextInt(75)));
+        }
+        return games;
+    }
+}
@@ -0,0 +1,104 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link BoardGame#equals} and {@link BoardGame#hashCode} over a whole catalog:
+ * hashing every game, comparing every game with an equal copy and with its neighbour, and
+ * building a hash set of the games as the loader does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardGameBenchmark {
+    /** Number of games in the catalog. */
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    /** The games. */
+    private BoardGame[] games;
+    /** An equal but separate copy of each game. */
+    private BoardGame[] copies;
+
+    /**
+     * Builds the games and their copies.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        games = BenchmarkCatalogs.games(size).toArray(new BoardGame[0]);
+        copies = new BoardGame[size];
+        for (int i = 0; i < size; i++) {
+            BoardGame g = games[i];
+            copies[i] = new BoardGame(new String(g.getName()), g.getId(), g.getMinPlayers(), g.getMaxPlayers(),
+                    g.getMinPlayTime(), g.getMaxPlayTime(), g.getDifficulty(), g.getRank(), g.getRating(),
+                    g.getYearPublished());
+        }
+    }
+
+    /**
+     * Hashes every game.
+     * @return the combined hash
+     */
+    @Benchmark
+    public int hashCodes() {
+        int hash = 0;
+        for (BoardGame game : games) {
+            hash += game.hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Compares every game with its equal copy.
+     * @return the number equal
+     */
+    @Benchmark
+    public int equalsCopy() {
+        int equal = 0;
+        for (int i = 0; i < games.length; i++) {
+            equal += games[i].equals(copies[i]) ? 1 : 0;
+        }
+        return equal;
+    }
+
+    /**
+     * Compares every game with the next game, which differs.
+     * @return the number equal
+     */
+    @Benchmark
+    public int equalsOther() {
+        int equal = 0;
+        for (int i = 1; i < games.length; i++) {
+            equal += games[i].equals(copies[i - 1]) ? 1 : 0;
+        }
+        return equal;
+    }
+
+    /**
+     * Builds a hash set of the copies, hashing each and comparing on collisions.
+     * @return the set
+     */
+    @Benchmark
+    public Set<BoardGame> hashSet() {
+        return new HashSet<>(Arrays.asList(copies));
+    }
+}
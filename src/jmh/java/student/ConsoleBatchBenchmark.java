@@ -0,0 +1,79 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commands per second through the console in batch mode, for a script mixing filters,
+ * list changes and summaries, with the output thrown away.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class ConsoleBatchBenchmark {
+    /** The commands of one round of the script. */
+    private static final String[] ROUND = {"filter year>2000", "filter rating>7 sort:rating desc", "list add 1-20",
+        "list", "stats difficulty", "facets players", "list remove 1-5", "filter maxPlayers<=4",
+        "list add all", "list show", "list clear", "filter clear", "similar Game 1", "random rating"};
+    /** Number of commands in the script, 20 rounds; every benchmark counts one operation per command. */
+    private static final int COMMANDS = 280;
+    /** Number of rounds in the script. */
+    private static final int ROUNDS = COMMANDS / ROUND.length;
+
+    /** Number of games in the catalog. */
+    @Param({"1000", "10000"})
+    private int size;
+
+    /** The catalog the commands run against. */
+    private GameCatalog catalog;
+    /** The script. */
+    private String script;
+
+    /**
+     * Builds the catalog and the script.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new GameCatalog(BenchmarkCatalogs.games(size));
+        catalog.warm();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (String command : ROUND) {
+                lines.append(command).append('\n');
+            }
+        }
+        script = lines.toString();
+    }
+
+    /**
+     * The whole script, through a fresh console and list.
+     * @return the planner's result count at the end, so nothing is optimised away
+     */
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public long script() {
+        Planner planner = new Planner(catalog);
+        new ConsoleApp(new GameList(), planner, new StringReader(script), Writer.nullWriter(), false).start();
+        return planner.filter("").count();
+    }
+}
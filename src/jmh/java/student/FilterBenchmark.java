@@ -0,0 +1,114 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link Planner#filter} for the common shapes of query, each sorted by name,
+ * and of one numeric range sorted on each column. Every call filters from the whole
+ * catalog and reads the whole sorted result, as the console's filter command does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+    /** The numeric range the sort benchmarks filter on. */
+    private static final String RANGE = "year>=2000,year<=2010";
+
+    /** Number of games in the catalog. */
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    /** The planner being queried. */
+    private Planner planner;
+
+    /**
+     * Builds the planner and warms the catalog's indexes, so that is not measured.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        planner = new Planner(BenchmarkCatalogs.games(size));
+        planner.filter("players==4,name~=game", GameData.RATING).count();
+        planner.reset();
+    }
+
+    /**
+     * The shape of query to run.
+     */
+    @State(Scope.Benchmark)
+    public static class Shape {
+        /** The shape: a numeric range, a name search, or several clauses together. */
+        @Param({"range", "contains", "multi"})
+        private String shape;
+
+        /** The filter for the shape. */
+        private String filter;
+
+        /**
+         * Picks the filter for the shape.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            switch (shape) {
+                case "range":
+                    filter = RANGE;
+                    break;
+                case "contains":
+                    filter = "name~=game 1";
+                    break;
+                default:
+                    filter = "minPlayers>=2,maxPlayers<=6,rating>6.5,year>1990";
+                    break;
+            }
+        }
+    }
+
+    /**
+     * The column to sort on.
+     */
+    @State(Scope.Benchmark)
+    public static class Sort {
+        /** The column. */
+        @Param({"NAME", "RATING", "DIFFICULTY", "RANK", "MIN_PLAYERS", "MAX_PLAYERS", "MIN_TIME", "MAX_TIME",
+            "YEAR"})
+        private GameData column;
+    }
+
+    /**
+     * Runs a query of the given shape, sorted by name.
+     * @param shape the query
+     * @param blackhole consumes the games
+     */
+    @Benchmark
+    public void filter(Shape shape, Blackhole blackhole) {
+        planner.filter(shape.filter).forEach(blackhole::consume);
+        planner.reset();
+    }
+
+    /**
+     * Runs the numeric range query sorted on a column, in descending order.
+     * @param sort the column
+     * @param blackhole consumes the games
+     */
+    @Benchmark
+    public void sorted(Sort sort, Blackhole blackhole) {
+        planner.filter(RANGE, sort.column, false).forEach(blackhole::consume);
+        planner.reset();
+    }
+}
@@ -0,0 +1,122 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link GameList#addToList} and {@link GameList#removeFromList} by name, by
+ * range and for every game. Removals work on a copy of a full list, which takes constant
+ * time, so each call starts from the same list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameListBenchmark {
+    /** The range added or removed, as the console would give it. */
+    private static final String RANGE = "1-100";
+
+    /** Number of games in the catalog. */
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    /** The games, in name order as a filter would show them. */
+    private List<BoardGame> games;
+    /** A list holding every game. */
+    private GameList full;
+    /** Picks the game added or removed by name. */
+    private Random random;
+
+    /**
+     * Builds the games and the full list.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        games = new ArrayList<>(BenchmarkCatalogs.games(size));
+        games.sort(Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER));
+        full = new GameList();
+        full.addToList(IGameList.ADD_ALL, games.stream());
+        random = new Random(1);
+    }
+
+    /**
+     * Gets the name of a random game.
+     * @return the name
+     */
+    private String randomName() {
+        return games.get(random.nextInt(size)).getName();
+    }
+
+    /**
+     * Adds every game to an empty list.
+     * @return the list size
+     */
+    @Benchmark
+    public int addAll() {
+        GameList list = new GameList();
+        list.addToList(IGameList.ADD_ALL, games.stream());
+        return list.count();
+    }
+
+    /**
+     * Adds a range of games to an empty list.
+     * @return the list size
+     */
+    @Benchmark
+    public int addRange() {
+        GameList list = new GameList();
+        list.addToList(RANGE, games.stream());
+        return list.count();
+    }
+
+    /**
+     * Adds one game, found by name, to an empty list.
+     * @return the list size
+     */
+    @Benchmark
+    public int addByName() {
+        GameList list = new GameList();
+        list.addToList(randomName(), games.stream());
+        return list.count();
+    }
+
+    /**
+     * Removes a range of games from a full list.
+     * @return the list size
+     */
+    @Benchmark
+    public int removeRange() {
+        GameList list = full.copy();
+        list.removeFromList(RANGE);
+        return list.count();
+    }
+
+    /**
+     * Removes one game, found by name, from a full list.
+     * @return the list size
+     */
+    @Benchmark
+    public int removeByName() {
+        GameList list = full.copy();
+        list.removeFromList(randomName());
+        return list.count();
+    }
+}
@@ -0,0 +1,85 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load a collection: the bundled collection from the class path, and generated
+ * collections of each size parsed from memory, so only parsing is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GamesLoaderBenchmark {
+    /**
+     * A generated collection, written as csv once and held in memory.
+     */
+    @State(Scope.Benchmark)
+    public static class Csv {
+        /** Number of games in the collection. */
+        @Param({"1000", "10000", "100000"})
+        private int size;
+
+        /** The csv file's bytes. */
+        private byte[] bytes;
+
+        /**
+         * Exports a generated collection to a temporary file and reads it back.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            try {
+                Path file = Files.createTempFile("games", ".csv");
+                GameExporter.export(BenchmarkCatalogs.games(size).stream(), file, GameExporter.Format.CSV);
+                bytes = Files.readAllBytes(file);
+                Files.delete(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Loads the collection shipped with the program, as startup does.
+     * @return the games
+     */
+    @Benchmark
+    public Set<BoardGame> bundled() {
+        return GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    /**
+     * Parses a generated collection.
+     * @param csv the collection
+     * @return the games
+     */
+    @Benchmark
+    public Set<BoardGame> parse(Csv csv) {
+        return GamesLoader.loadGames(new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(csv.bytes), StandardCharsets.UTF_8)));
+    }
+}
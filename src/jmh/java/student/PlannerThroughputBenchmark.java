@@ -0,0 +1,103 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of planners sharing one catalog, to check that it scales with threads.
+ * Run with different thread counts, for example
+ * {@code gradle jmh -PjmhInclude=PlannerThroughput -PjmhThreads=8}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlannerThroughputBenchmark {
+    /** Number of games in the catalog. */
+    @Param({"100000"})
+    private int size;
+
+    /** The catalog shared by every thread. */
+    private GameCatalog catalog;
+    /** A planner shared by every thread. */
+    private Planner shared;
+
+    /**
+     * Builds the catalog and warms its indexes, so that is not measured.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new GameCatalog(BenchmarkCatalogs.games(size));
+        shared = new Planner(catalog);
+        shared.filter("players==4", GameData.RATING).count();
+        shared.reset();
+    }
+
+    /**
+     * A planner per thread over the shared catalog, as a worker would have.
+     */
+    @State(Scope.Thread)
+    public static class OwnPlanner {
+        /** The thread's planner. */
+        private Planner planner;
+
+        /**
+         * Creates the thread's planner.
+         * @param benchmark the benchmark state holding the catalog
+         */
+        @Setup(Level.Trial)
+        public void setUp(PlannerThroughputBenchmark benchmark) {
+            planner = new Planner(benchmark.catalog);
+        }
+    }
+
+    /**
+     * Each thread filters, sorts and resets its own planner over the shared catalog.
+     * @param own the thread's planner
+     * @return the number of games shown
+     */
+    @Benchmark
+    public long ownPlanner(OwnPlanner own) {
+        int year = 1990 + ThreadLocalRandom.current().nextInt(30);
+        long shown = own.planner.filter("year>=" + year + ",players==4", GameData.RATING, false).limit(20).count();
+        own.planner.reset();
+        return shown;
+    }
+
+    /**
+     * Every thread reads from one shared planner without changing its filter.
+     * @return the mean rating of the matching games
+     */
+    @Benchmark
+    public double sharedPlannerReads() {
+        int year = 1990 + ThreadLocalRandom.current().nextInt(30);
+        return shared.aggregate("year>=" + year, GameData.RATING).mean();
+    }
+
+    /**
+     * Every thread filters and resets one shared planner, contending on its filter.
+     * @return the number of games shown
+     */
+    @Benchmark
+    public long sharedPlannerFilter() {
+        int year = 1990 + ThreadLocalRandom.current().nextInt(30);
+        long shown = shared.filter("year>=" + year, GameData.RATING, false).limit(20).count();
+        shared.reset();
+        return shown;
+    }
+}
@@ -0,0 +1,94 @@
+package student;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a "games like this one" query against catalog size, with the k-d tree and
+ * with a brute force scan of the catalog for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimilarGamesBenchmark {
+    /** Number of games in the catalog. */
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+    /** Number of similar games to find. */
+    @Param({"10"})
+    private int count;
+
+    /** The catalog being searched. */
+    private GameCatalog catalog;
+    /** The index over the catalog. */
+    private KdTree tree;
+    /** Tree positions of the 2 player games, for the filtered query. */
+    private BitSet twoPlayer;
+    /** The row to find similar games to, changed every invocation. */
+    private int row;
+    /** Picks the query rows. */
+    private Random random;
+
+    /**
+     * Builds the catalog and index.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new GameCatalog(BenchmarkCatalogs.games(size));
+        tree = catalog.similarityIndex();
+        twoPlayer = tree.toPositions(catalog.rangeIndex(GameRange.PLAYERS).overlapping(2, 2));
+        random = new Random(1);
+    }
+
+    /**
+     * Picks a new query game before each call.
+     */
+    @Setup(Level.Invocation)
+    public void pickRow() {
+        row = random.nextInt(size);
+    }
+
+    /**
+     * Nearest games using the k-d tree.
+     * @return the similar rows
+     */
+    @Benchmark
+    public int[] kdTree() {
+        return tree.nearest(row, count, null);
+    }
+
+    /**
+     * Nearest 2 player games, with the filter pushed down into the k-d tree.
+     * @return the similar rows
+     */
+    @Benchmark
+    public int[] kdTreeFiltered() {
+        return tree.nearest(row, count, twoPlayer);
+    }
+
+    /**
+     * Nearest games by scanning every row, as the baseline.
+     * @return the similar rows
+     */
+    @Benchmark
+    public int[] bruteForce() {
+        return tree.scan(row, count, null);
+    }
+}
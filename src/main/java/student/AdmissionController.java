@@ -0,0 +1,187 @@
+package student;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many expensive queries run at once, so they cannot take every worker and hold
+ * up the cheap ones.
+ * <p>
+ * Up to the concurrency limit, queries start straight away. Beyond it they wait in a
+ * first come, first served queue of bounded length, each for no longer than its own
+ * deadline, and stop waiting if cancelled. A finishing query hands its place straight to
+ * the query that has waited longest, and a new arrival only starts at once when nobody is
+ * waiting, so it cannot overtake the queue. Once the queue is full, further queries are
+ * rejected at once with a {@link QueryRejectedException} instead of piling up.
+ */
+public final class AdmissionController {
+    /** How long a queued query waits between looking for a cancellation, in nanoseconds. */
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** The most queries allowed to run at once. */
+    private final int maxConcurrent;
+    /** The most queries allowed to wait. */
+    private final int maxQueued;
+    /** Guards the running count and the queue. */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** The queries waiting, in the order they arrived. */
+    private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+    /** The number of queries rejected so far. */
+    private final LongAdder rejected = new LongAdder();
+    /** The number of queries running. */
+    private int running;
+
+    /**
+     * Creates an admission controller.
+     * @param maxConcurrent the most queries allowed to run at once
+     * @param maxQueued the most queries allowed to wait, 0 to reject whenever all are busy
+     * @throws IllegalArgumentException if maxConcurrent is less than 1 or maxQueued is negative
+     */
+    public AdmissionController(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Invalid limits: " + maxConcurrent + ", " + maxQueued);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Runs a query once there is room for it.
+     * @param context the query's deadline and cancellation token, also honoured while waiting
+     * @param query the query
+     * @param <T> the result type
+     * @return the query's result
+     * @throws QueryRejectedException if the queue is full
+     * @throws QueryCancelledException if the query was cancelled or ran out of time, waiting or running
+     */
+    public <T> T admit(QueryContext context, Supplier<T> query) {
+        enter(context);
+        try {
+            context.check();
+            return query.get();
+        } finally {
+            leave();
+        }
+    }
+
+    /**
+     * Takes a place to run: straight away if one is free and nobody is waiting for it,
+     * otherwise at the back of the queue, until a finishing query hands over its place.
+     * @param context the query's deadline and cancellation token
+     * @throws QueryRejectedException if the queue is full
+     * @throws QueryCancelledException if the query was cancelled or ran out of time
+     */
+    private void enter(QueryContext context) {
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && running < maxConcurrent) {
+                running++;
+                return;
+            }
+            if (waiting.size() >= maxQueued) {
+                rejected.increment();
+                throw new QueryRejectedException("Too many queries, try again later");
+            }
+            waiter = new Waiter(lock.newCondition());
+            waiting.add(waiter);
+            while (!waiter.admitted) {
+                try {
+                    context.check();
+                    waiter.turn.awaitNanos(Math.min(context.remainingNanos(), POLL_NANOS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    giveUp(waiter);
+                    throw new QueryCancelledException("Interrupted while waiting to run", false);
+                } catch (QueryCancelledException e) {
+                    giveUp(waiter);
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Leaves the queue without running. A place handed over in the meantime is passed on.
+     * Called holding the lock.
+     * @param waiter the query giving up
+     */
+    private void giveUp(Waiter waiter) {
+        if (waiter.admitted) {
+            handOver();
+        } else {
+            waiting.remove(waiter);
+        }
+    }
+
+    /**
+     * Gives up a place to run, handing it to the query that has waited longest.
+     */
+    private void leave() {
+        lock.lock();
+        try {
+            handOver();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands a running query's place to the first in the queue, or frees it if the queue is
+     * empty. Called holding the lock.
+     */
+    private void handOver() {
+        Waiter next = waiting.poll();
+        if (next == null) {
+            running--;
+        } else {
+            next.admitted = true;
+            next.turn.signal();
+        }
+    }
+
+    /**
+     * Gets the number of queries waiting to run.
+     * @return the queue length
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of queries rejected so far.
+     * @return the number of rejections
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * A query waiting in the queue.
+     */
+    private static final class Waiter {
+        /** Signalled when the query is handed a place to run. */
+        private final Condition turn;
+        /** True once the query has a place to run. */
+        private boolean admitted;
+
+        /**
+         * Constructor for a waiting query.
+         * @param turn signalled when the query is handed a place to run
+         */
+        private Waiter(Condition turn) {
+            this.turn = turn;
+        }
+    }
+}
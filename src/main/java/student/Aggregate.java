@@ -0,0 +1,148 @@
+package student;
+
+import java.util.Arrays;
+
+/**
+ * Summary statistics of a numeric column over a set of games.
+ * The values are folded in as primitives, so no BoardGame objects are needed to build one.
+ * Percentiles are answered by selection (quickselect) over the collected values rather than
+ * a full sort.
+ */
+public final class Aggregate {
+    /** The column the statistics are for. */
+    private final GameData column;
+    /** The collected values, only the first count are used. Reordered by percentile lookups. */
+    private double[] values;
+    /** The number of values folded in. */
+    private int count;
+    /** The smallest value seen. */
+    private double min = Double.NaN;
+    /** The largest value seen. */
+    private double max = Double.NaN;
+    /** The running sum of the values. */
+    private double sum;
+
+    /**
+     * Creates an empty aggregate.
+     * @param column the column the values come from
+     * @param capacity the expected number of values
+     */
+    Aggregate(GameData column, int capacity) {
+        this.column = column;
+        this.values = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Folds a value into the aggregate.
+     * @param value the value to add
+     */
+    void add(double value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = value;
+        if (count == 1 || value < min) {
+            min = value;
+        }
+        if (count == 1 || value > max) {
+            max = value;
+        }
+        sum += value;
+    }
+
+    /**
+     * Gets the column the statistics are for.
+     * @return the column
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the number of games folded in.
+     * @return the count
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest value.
+     * @return the minimum, or NaN if there are no values
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Gets the largest value.
+     * @return the maximum, or NaN if there are no values
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the values.
+     * @return the mean, or NaN if there are no values
+     */
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Gets a percentile of the values, using the nearest-rank method.
+     * @param percent the percentile, from 0 to 100 (50 is the median)
+     * @return the smallest value that at least that percent of values are less than or equal to,
+     *         or NaN if there are no values
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public double percentile(double percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percent);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(percent / 100 * count);
+        return select(Math.max(rank - 1, 0));
+    }
+
+    /**
+     * Finds the k-th smallest value (0 based) with quickselect, partially reordering the values.
+     * @param k the index of the value in sorted order
+     * @return the k-th smallest value
+     */
+    private double select(int k) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo < hi) {
+            double pivot = values[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+}
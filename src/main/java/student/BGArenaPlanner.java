@@ -1,11 +1,22 @@
 package student;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Main entry point for the program.
  */
 public final class BGArenaPlanner {
     /** Default location of collection - relative to resources. */
     private static final String DEFAULT_COLLECTION = "/collection.csv";
+    /** Rounds of warm-up queries run once the games load in the background. */
+    private static final int WARM_UP_ROUNDS = 10;
 
     /** Private constructor as static class. */
     private BGArenaPlanner() {
@@ -13,13 +24,105 @@ public final class BGArenaPlanner {
 
     /**
      * Main entry point for the program.
-     * @param args command line arguments - not used at this time.
+     * @param args command line arguments - {@code --serve [port]} to run the HTTP server
+     *             instead of the console, or {@code --list <dir>} to keep the game list in a
+     *             journal in that directory, restoring it on the next run, or
+     *             {@code --batch [script]} to run the commands of a script file, or of
+     *             standard input if none is given, without prompts, or {@code --background}
+     *             to show the prompt at once and load the games behind it, or
+     *             {@code --generate <count> <file> [seed]} to write a synthetic catalog of that
+     *             many games modelled on the default collection.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && "--serve".equals(args[0])) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : PlannerServer.DEFAULT_PORT);
+            return;
+        }
+        if (args.length > 2 && "--generate".equals(args[0])) {
+            generate(Long.parseLong(args[1]), Path.of(args[2]), args.length > 3 ? Long.parseLong(args[3]) : 0);
+            return;
+        }
+        if (args.length > 0 && "--background".equals(args[0])) {
+            background();
+            return;
+        }
+        Planner planner = new Planner(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
+        if (args.length > 1 && "--list".equals(args[0])) {
+            try (GameListJournal journal = GameListJournal.open(Path.of(args[1]))) {
+                new ConsoleApp(journal.restore(planner.getCatalog()), planner).start();
+            } catch (IOException e) {
+                System.err.println("Could not open the game list journal: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            batch(planner, args.length > 1 ? Path.of(args[1]) : null);
+            return;
+        }
         IGameList gameList = new GameList();
-        IPlanner planner = new Planner(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
 
         ConsoleApp app = new ConsoleApp(gameList, planner);
         app.start();
     }
+
+    /**
+     * Runs the console commands of a script without prompts, writing only their output.
+     * @param planner the planner to run them against
+     * @param script the script file, or null to read standard input
+     */
+    private static void batch(Planner planner, Path script) {
+        try (Reader input = script == null ? new InputStreamReader(System.in) : Files.newBufferedReader(script)) {
+            new ConsoleApp(new GameList(), planner, input,
+                    new OutputStreamWriter(System.out, System.out.charset()), false).start();
+        } catch (IOException e) {
+            System.err.println("Could not read the script: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a synthetic catalog modelled on the default collection.
+     * @param count the number of games
+     * @param file the file to write
+     * @param seed the seed, so the same catalog can be written again
+     */
+    private static void generate(long count, Path file, long seed) {
+        CatalogGenerator generator = new CatalogGenerator(GamesLoader.loadGamesFile(DEFAULT_COLLECTION), seed);
+        try {
+            long written = generator.write(count, file);
+            System.out.println("Wrote " + written + " games to " + file);
+        } catch (IOException e) {
+            System.err.println("Could not write the catalog: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the console straight away over an empty catalog while the games load on the
+     * registry's builder thread, which also builds the indexes before publishing them. Warm-up
+     * queries then run on another thread so the first real query finds compiled code. The
+     * first command needing the games waits for them.
+     */
+    private static void background() {
+        try (CatalogRegistry registry = new CatalogRegistry(new GameCatalog(List.of()))) {
+            CompletableFuture<Long> loaded = registry.load(() -> GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
+            loaded.thenRunAsync(() -> Planner.warmUp(registry.catalog(), WARM_UP_ROUNDS));
+            ConsoleApp app = new ConsoleApp(new GameList(), new Planner(registry));
+            app.setLoading(loaded);
+            app.start();
+        }
+    }
+
+    /**
+     * Runs the HTTP server over the default collection until the program is stopped.
+     * @param port the port to listen on
+     */
+    private static void serve(int port) {
+        GameCatalog catalog = new GameCatalog(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
+        try {
+            PlannerServer server = new PlannerServer(catalog, port);
+            server.start();
+            System.out.println("Serving " + catalog.size() + " games on http://localhost:" + server.getPort());
+        } catch (IOException e) {
+            System.err.println("Could not start the server: " + e.getMessage());
+        }
+    }
 }
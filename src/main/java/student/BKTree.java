@@ -0,0 +1,245 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A Burkhard-Keller tree over case-folded game names.
+ * Each node stores a name, and its children are keyed by their edit (Levenshtein) distance
+ * to that name. Because the edit distance is a metric, a search for everything within
+ * distance t of a query only has to visit the children whose key is within t of the
+ * distance to the current node, which prunes most of the tree for small tolerances.
+ */
+final class BKTree {
+    /** The root of the tree, null while the tree is empty. */
+    private Node root;
+    /** The number of distinct names stored in the tree. */
+    private int size;
+
+    /**
+     * Builds a tree over the given names. Names are case-folded and duplicates are ignored.
+     * @param names the names to index
+     */
+    BKTree(Collection<String> names) {
+        for (String name : names) {
+            add(name);
+        }
+    }
+
+    /**
+     * Adds a name to the tree, case-folding it first.
+     * @param name the name to add
+     */
+    void add(String name) {
+        String key = name.toLowerCase();
+        if (root == null) {
+            root = new Node(key);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(key, node.name);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(key));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Gets the number of distinct names in the tree.
+     * @return the number of names
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds every stored name within the given edit distance of the query.
+     * @param query the name to search for, case is ignored
+     * @param tolerance the maximum edit distance to accept
+     * @return the matching case-folded names, in no particular order
+     */
+    List<String> search(String query, int tolerance) {
+        return search(query, tolerance, QueryContext.NONE);
+    }
+
+    /**
+     * Finds every stored name within the given edit distance of the query, stopping if the
+     * query is cancelled or runs past its deadline.
+     * @param query the name to search for, case is ignored
+     * @param tolerance the maximum edit distance to accept
+     * @param context the query's deadline and cancellation token, checked as nodes are visited
+     * @return the matching case-folded names, in no particular order
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
+     */
+    List<String> search(String query, int tolerance, QueryContext context) {
+        List<String> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+        String key = query.toLowerCase();
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        int steps = 0;
+        while (!pending.isEmpty()) {
+            if ((++steps & (QueryContext.CHECK_INTERVAL - 1)) == 0) {
+                context.check();
+            }
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distance(key, node.name);
+            if (distance <= tolerance) {
+                matches.add(node.name);
+            }
+            for (int i = 0; i < node.count; i++) {
+                if (Math.abs(node.keys[i] - distance) <= tolerance) {
+                    pending.add(node.children[i]);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the stored name closest to the query, as long as it is within the given distance.
+     * The search tolerance shrinks as closer names are found, so this is cheaper than
+     * a full search at the maximum distance.
+     * @param query the name to search for, case is ignored
+     * @param maxDistance the largest edit distance that still counts as a match
+     * @return the closest case-folded name, or null if nothing is close enough
+     */
+    String closest(String query, int maxDistance) {
+        if (root == null) {
+            return null;
+        }
+        String key = query.toLowerCase();
+        String best = null;
+        int tolerance = maxDistance;
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distance(key, node.name);
+            if (distance <= tolerance) {
+                if (best == null || distance < tolerance || node.name.compareTo(best) < 0) {
+                    best = node.name;
+                }
+                tolerance = distance;
+            }
+            for (int i = 0; i < node.count; i++) {
+                if (Math.abs(node.keys[i] - distance) <= tolerance) {
+                    pending.add(node.children[i]);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the default search tolerance for a query of the given length.
+     * Short queries only allow a single typo, otherwise almost everything would match.
+     * @param length the length of the query
+     * @return the number of edits to allow
+     */
+    static int defaultTolerance(int length) {
+        if (length <= 2) {
+            return 0;
+        } else if (length <= 5) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, using two rolling rows.
+     * @param a the first string
+     * @param b the second string
+     * @return the minimum number of single character insertions, deletions and substitutions
+     */
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String tmp = a;
+            a = b;
+            b = tmp;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + cost);
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * A node in the tree. Children are kept in small parallel arrays rather than a map,
+     * as most nodes only have a handful of children.
+     */
+    private static final class Node {
+        /** The case-folded name stored at this node. */
+        private final String name;
+        /** The distance keys of the children. */
+        private int[] keys = new int[2];
+        /** The children, parallel to keys. */
+        private Node[] children = new Node[2];
+        /** The number of children in use. */
+        private int count;
+
+        /**
+         * Creates a leaf node.
+         * @param name the case-folded name
+         */
+        Node(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the child at the given distance.
+         * @param distance the distance key
+         * @return the child, or null if there is none
+         */
+        Node child(int distance) {
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Adds a child at a distance that is not yet in use.
+         * @param distance the distance key
+         * @param child the child node
+         */
+        void addChild(int distance, Node child) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                children = Arrays.copyOf(children, count * 2);
+            }
+            keys[count] = distance;
+            children[count] = child;
+            count++;
+        }
+    }
+}
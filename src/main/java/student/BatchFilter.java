@@ -0,0 +1,213 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Evaluates many filter strings together over the same starting rows.
+ * <p>
+ * Every query is parsed into its clauses, and equal clauses across queries (compared on
+ * their canonical form, see {@link FilterClause#equals}) are evaluated only once. Range
+ * clauses come from the catalog's interval trees. The other clauses are grouped by
+ * column, and each column is read in a single pass over the starting rows, with every
+ * clause on that column tested against the value while it is at hand, writing straight
+ * into the words of each clause's bitmap. Each query's result is then the AND of its
+ * clauses' bitmaps, so a batch costs one pass per column used rather than one per query.
+ */
+final class BatchFilter {
+    /** The catalog the rows belong to. */
+    private final GameCatalog catalog;
+    /** The rows every query starts from. */
+    private final BitSet start;
+    /** The distinct clauses of the batch, with their result once evaluated. */
+    private final Map<FilterClause, BitSet> clauses = new LinkedHashMap<>();
+    /** The clauses of each query, in batch order. */
+    private final List<List<FilterClause>> queries = new ArrayList<>();
+
+    /**
+     * Parses a batch of queries.
+     * @param catalog the catalog the rows belong to
+     * @param start the rows every query starts from, which are not changed
+     * @param filters the filter strings
+     * @throws IllegalArgumentException if any filter is invalid
+     */
+    BatchFilter(GameCatalog catalog, BitSet start, List<String> filters) {
+        this.catalog = catalog;
+        this.start = start;
+        for (String filter : filters) {
+            List<FilterClause> query = FilterClause.parseAll(filter);
+            for (FilterClause clause : query) {
+                clauses.putIfAbsent(clause, null);
+            }
+            queries.add(query);
+        }
+    }
+
+    /**
+     * Gets the number of distinct clauses in the batch.
+     * @return the number of clauses that are evaluated
+     */
+    int distinctClauses() {
+        return clauses.size();
+    }
+
+    /**
+     * Evaluates every query.
+     * @return the matching rows of each query, in batch order
+     */
+    List<BitSet> evaluate() {
+        Map<GameData, List<FilterClause>> byColumn = new EnumMap<>(GameData.class);
+        for (FilterClause clause : clauses.keySet()) {
+            BitSet indexed = clause.indexedRows(catalog);
+            if (indexed != null) {
+                indexed.and(start);
+                clauses.put(clause, indexed);
+            } else {
+                byColumn.computeIfAbsent(clause.getColumn(), col -> new ArrayList<>()).add(clause);
+            }
+        }
+        for (Map.Entry<GameData, List<FilterClause>> column : byColumn.entrySet()) {
+            List<FilterClause> group = column.getValue();
+            long[][] words;
+            if (column.getKey() == GameData.NAME) {
+                words = scanNames(group);
+            } else if (GameCatalog.isDouble(column.getKey())) {
+                words = scanDoubles(catalog.doubleColumn(column.getKey()), group);
+            } else {
+                words = scanInts(catalog.intColumn(column.getKey()), group);
+            }
+            for (int i = 0; i < group.size(); i++) {
+                clauses.put(group.get(i), BitSet.valueOf(words[i]));
+            }
+        }
+
+        List<BitSet> results = new ArrayList<>(queries.size());
+        for (List<FilterClause> query : queries) {
+            BitSet result = (BitSet) start.clone();
+            for (FilterClause clause : query) {
+                result.and(clauses.get(clause));
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Tests every clause on an int column in one pass over the starting rows.
+     * @param values the column
+     * @param group the clauses on the column
+     * @return the bitmap words of each clause's matches
+     */
+    private long[][] scanInts(int[] values, List<FilterClause> group) {
+        int count = group.size();
+        Operations[] operators = new Operations[count];
+        int[] targets = new int[count];
+        for (int i = 0; i < count; i++) {
+            operators[i] = group.get(i).getOperator();
+            targets[i] = Integer.parseInt(group.get(i).getValue());
+        }
+        long[][] words = new long[count][wordCount()];
+        for (int row = start.nextSetBit(0); row >= 0; row = start.nextSetBit(row + 1)) {
+            int value = values[row];
+            long bit = 1L << row;
+            int word = row >>> 6;
+            for (int i = 0; i < count; i++) {
+                if (matches(operators[i], Integer.compare(value, targets[i]))) {
+                    words[i][word] |= bit;
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Tests every clause on a double column in one pass over the starting rows.
+     * @param values the column
+     * @param group the clauses on the column
+     * @return the bitmap words of each clause's matches
+     */
+    private long[][] scanDoubles(double[] values, List<FilterClause> group) {
+        int count = group.size();
+        Operations[] operators = new Operations[count];
+        double[] targets = new double[count];
+        for (int i = 0; i < count; i++) {
+            operators[i] = group.get(i).getOperator();
+            targets[i] = Double.parseDouble(group.get(i).getValue());
+        }
+        long[][] words = new long[count][wordCount()];
+        for (int row = start.nextSetBit(0); row >= 0; row = start.nextSetBit(row + 1)) {
+            double value = values[row];
+            long bit = 1L << row;
+            int word = row >>> 6;
+            for (int i = 0; i < count; i++) {
+                if (matches(operators[i], Double.compare(value, targets[i]))) {
+                    words[i][word] |= bit;
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Tests every clause on the name column in one pass over the starting rows.
+     * Name clauses compare strings in several ways, so they are bound to predicates.
+     * @param group the clauses on the name column
+     * @return the bitmap words of each clause's matches
+     */
+    private long[][] scanNames(List<FilterClause> group) {
+        int count = group.size();
+        IntPredicate[] predicates = new IntPredicate[count];
+        for (int i = 0; i < count; i++) {
+            predicates[i] = group.get(i).bind(catalog);
+        }
+        long[][] words = new long[count][wordCount()];
+        for (int row = start.nextSetBit(0); row >= 0; row = start.nextSetBit(row + 1)) {
+            long bit = 1L << row;
+            int word = row >>> 6;
+            for (int i = 0; i < count; i++) {
+                if (predicates[i].test(row)) {
+                    words[i][word] |= bit;
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Gets the number of bitmap words needed for the catalog.
+     * @return the number of 64 bit words
+     */
+    private int wordCount() {
+        return (catalog.size() + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Checks a comparison result against an operator.
+     * @param operator the comparison operator
+     * @param comparison the result of comparing the row's value with the clause's value
+     * @return true if the row matches
+     */
+    private static boolean matches(Operations operator, int comparison) {
+        switch (operator) {
+            case GREATER_THAN:
+                return comparison > 0;
+            case LESS_THAN:
+                return comparison < 0;
+            case GREATER_THAN_EQUALS:
+                return comparison >= 0;
+            case LESS_THAN_EQUALS:
+                return comparison <= 0;
+            case EQUALS:
+                return comparison == 0;
+            case NOT_EQUALS:
+                return comparison != 0;
+            default:
+                throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+    }
+}
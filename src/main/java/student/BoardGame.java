@@ -145,28 +145,7 @@ public class BoardGame {
      * @return value of Name (value) pair
      */
     public String toStringWithInfo(GameData col) {
-        switch (col) {
-            case NAME:
-                return name;
-            case RATING:
-                return String.format("%s (%.2f)", name, averageRating);
-            case DIFFICULTY:
-                return String.format("%s (%.2f)", name, difficulty);
-            case RANK:
-                return String.format("%s (%d)", name, rank);
-            case MIN_PLAYERS:
-                return String.format("%s (%d)", name, minPlayers);
-            case MAX_PLAYERS:
-                return String.format("%s (%d)", name, maxPlayers);
-            case MIN_TIME:
-                return String.format("%s (%d)", name, minPlayTime);
-            case MAX_TIME:
-                return String.format("%s (%d)", name, maxPlayTime);
-            case YEAR:
-                return String.format("%s (%d)", name, yearPublished);
-            default:
-                return name;
-        }
+        return GameRows.appendWithInfo(new StringBuilder(), this, col).toString();
     }
 
     /**
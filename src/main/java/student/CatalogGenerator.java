@@ -0,0 +1,412 @@
+package student;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic catalogs of any size that look like a sample collection, for scaling
+ * and stress tests.
+ * <p>
+ * Each game's numbers come from a game of the sample drawn at random and perturbed a little:
+ * the rating and weight are nudged, play times scaled together, the year and rank shifted.
+ * So each column follows the sample's distribution, and the correlations between columns
+ * (heavier games run longer and rate higher, unranked games stay unranked) carry over
+ * without being modelled one by one.
+ * <p>
+ * Names are built from the words of the sample's names, with the sample's word counts, so
+ * their lengths are realistic. Some games, in the proportion the sample has, belong to the
+ * family of an earlier game and share its name as a prefix: an expansion or edition after a
+ * colon, as in "Carcassonne: The River", or a variant in brackets, as in "Chess (Chess960)".
+ * <p>
+ * Every game is a pure function of the seed and its index, drawn from its own random
+ * stream, so the same seed gives the same catalog however many threads generate it and in
+ * whatever order. Writing generates chunks of games on a pool of threads, a few chunks
+ * ahead of the single writer, so a catalog of any size streams to disk in bounded memory.
+ */
+public final class CatalogGenerator {
+    /** Number of games generated by one task when writing. */
+    static final int CHUNK = 8192;
+    /** Salt of the random streams that pick the numbers of a game. */
+    private static final long NUMBER_SALT = 0x6E756D62L;
+    /** Salt of the random streams that pick a game's name and family. */
+    private static final long NAME_SALT = 0x6E616D65L;
+    /** Salt of the random streams that pick a family's base name. */
+    private static final long FAMILY_SALT = 0x66616D69L;
+    /** The kinds of name a game in another game's family can have. */
+    private static final int SUBTITLE = 0;
+    /** An expansion or promo after a colon. */
+    private static final int EXPANSION = 1;
+    /** An edition after a colon. */
+    private static final int EDITION = 2;
+    /** A variant in brackets. */
+    private static final int VARIANT = 3;
+
+    /** The sample games, in id order. */
+    private final BoardGame[] sample;
+    /** The seed. */
+    private final long seed;
+    /** The year of the newest game in the sample, which generated years do not pass. */
+    private final int newestYear;
+    /** The words of the base names in the sample, repeated as often as they occur. */
+    private final String[] baseWords;
+    /** The word counts of the base names in the sample. */
+    private final int[] baseLengths;
+    /** The words of subtitles in the sample. */
+    private final String[] subtitleWords;
+    /** The word counts of subtitles in the sample. */
+    private final int[] subtitleLengths;
+    /** The suffixes of each kind seen in the sample, by kind; subtitles are made up instead. */
+    private final String[][] suffixes = new String[VARIANT + 1][];
+    /** The cumulative share of each kind of family name, among names in a family. */
+    private final double[] kindShares = new double[VARIANT + 1];
+    /** The share of games that belong to an earlier game's family. */
+    private final double familyShare;
+
+    /**
+     * Learns the columns and names of a sample collection.
+     * @param sample the games to imitate, such as the bundled collection
+     * @param seed the seed; the same sample and seed always give the same games
+     * @throws IllegalArgumentException if the sample is empty
+     */
+    public CatalogGenerator(Collection<BoardGame> sample, long seed) {
+        if (sample.isEmpty()) {
+            throw new IllegalArgumentException("The sample has no games");
+        }
+        this.sample = sample.toArray(new BoardGame[0]);
+        Arrays.sort(this.sample, Comparator.comparingInt(BoardGame::getId));
+        this.seed = seed;
+        newestYear = Arrays.stream(this.sample).mapToInt(BoardGame::getYearPublished).max().getAsInt();
+
+        List<String> bases = new ArrayList<>();
+        List<String> subtitles = new ArrayList<>();
+        List<List<String>> kinds = new ArrayList<>();
+        for (int kind = 0; kind <= VARIANT; kind++) {
+            kinds.add(new ArrayList<>());
+        }
+        for (BoardGame game : this.sample) {
+            String name = game.getName().trim();
+            int colon = name.indexOf(": ");
+            int bracket = name.indexOf(" (");
+            if (colon > 0 && (bracket < 0 || colon < bracket)) {
+                bases.add(name.substring(0, colon));
+                String suffix = name.substring(colon + 2).trim();
+                int kind = suffixKind(suffix);
+                kinds.get(kind).add(suffix);
+                if (kind == SUBTITLE) {
+                    subtitles.add(suffix);
+                }
+            } else if (bracket > 0 && name.endsWith(")")) {
+                bases.add(name.substring(0, bracket));
+                kinds.get(VARIANT).add(name.substring(bracket + 2, name.length() - 1));
+            } else {
+                bases.add(name);
+            }
+        }
+        List<String> words = new ArrayList<>();
+        baseLengths = split(bases, words);
+        baseWords = words.toArray(new String[0]);
+        words.clear();
+        subtitleLengths = split(subtitles, words);
+        subtitleWords = words.toArray(new String[0]);
+
+        int derived = 0;
+        for (int kind = 0; kind <= VARIANT; kind++) {
+            suffixes[kind] = kinds.get(kind).toArray(new String[0]);
+            derived += suffixes[kind].length;
+            kindShares[kind] = derived;
+        }
+        for (int kind = 0; kind <= VARIANT; kind++) {
+            kindShares[kind] = derived == 0 ? 1 : kindShares[kind] / derived;
+        }
+        familyShare = (double) derived / this.sample.length;
+    }
+
+    /**
+     * Gets the seed.
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generates one game. Its id is its index plus one.
+     * @param index the index of the game, from zero
+     * @return the game
+     * @throws IllegalArgumentException if the index is negative or too large for an id
+     */
+    public BoardGame game(long index) {
+        if (index < 0 || index >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid game index: " + index);
+        }
+        SplittableRandom random = random(NUMBER_SALT, index);
+        BoardGame like = sample[random.nextInt(sample.length)];
+
+        int minPlayers = like.getMinPlayers();
+        int maxPlayers = Math.max(minPlayers, like.getMaxPlayers() + random.nextInt(-1, 2));
+        double scale = 0.75 + random.nextDouble() / 2;
+        int minTime = roundTime(like.getMinPlayTime() * scale);
+        int maxTime = Math.max(minTime, roundTime(like.getMaxPlayTime() * scale));
+        double difficulty = like.getDifficulty() == 0 ? 0
+                : round(clamp(like.getDifficulty() + random.nextGaussian() * 0.15, 1, 5), 1e4);
+        double rating = like.getRating() == 0 ? 0
+                : round(clamp(like.getRating() + random.nextGaussian() * 0.2, 1, 10), 1e5);
+        int rank = like.getRank() == 0 ? 0
+                : Math.max(1, (int) Math.round(like.getRank() * (1 + random.nextGaussian() * 0.05)));
+        int year = like.getYearPublished();
+        if (year > 1900) {
+            year = Math.min(year + random.nextInt(-3, 4), newestYear);
+        }
+        return new BoardGame(name(index), (int) index + 1, minPlayers, maxPlayers, minTime, maxTime,
+                difficulty, rank, rating, year);
+    }
+
+    /**
+     * Generates games one by one as the stream is read. The stream may be made parallel.
+     * @param count the number of games
+     * @return the games, in index order
+     */
+    public Stream<BoardGame> stream(long count) {
+        return LongStream.range(0, count).mapToObj(this::game);
+    }
+
+    /**
+     * Generates games and writes them to a file, using a thread per processor.
+     * @param count the number of games
+     * @param file the file, written as JSON Lines for .jsonl and .json files and CSV otherwise
+     * @return the number of games written
+     * @throws IOException if the file cannot be written
+     */
+    public long write(long count, Path file) throws IOException {
+        return write(count, file, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generates games on a pool of threads and writes them to a file, in index order.
+     * @param count the number of games
+     * @param file the file, written as JSON Lines for .jsonl and .json files and CSV otherwise
+     * @param threads the number of threads generating games
+     * @return the number of games written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the count is too large for the ids or threads is not positive
+     */
+    public long write(long count, Path file, int threads) throws IOException {
+        if (count < 0 || count >= Integer.MAX_VALUE || threads < 1) {
+            throw new IllegalArgumentException("Invalid count or threads");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "catalog-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<BoardGame[]>> pending = new ArrayDeque<>();
+        try (GameExporter exporter = GameExporter.open(file, GameExporter.Format.forFile(file))) {
+            long next = 0;
+            while (next < count || !pending.isEmpty()) {
+                // keep a few chunks ahead of the writer, so memory stays bounded
+                while (next < count && pending.size() < 2 * threads) {
+                    long start = next;
+                    int size = (int) Math.min(CHUNK, count - next);
+                    pending.add(pool.submit(() -> chunk(start, size)));
+                    next += size;
+                }
+                for (BoardGame game : pending.remove().get()) {
+                    exporter.write(game);
+                }
+            }
+            return exporter.count();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating games", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not generate games", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Generates a run of consecutive games.
+     * @param start the index of the first game
+     * @param size the number of games
+     * @return the games
+     */
+    private BoardGame[] chunk(long start, int size) {
+        BoardGame[] games = new BoardGame[size];
+        for (int i = 0; i < size; i++) {
+            games[i] = game(start + i);
+        }
+        return games;
+    }
+
+    /**
+     * Builds the name of a game: a name of its own, or a name in an earlier game's family.
+     * @param index the index of the game
+     * @return the name
+     */
+    private String name(long index) {
+        SplittableRandom random = random(NAME_SALT, index);
+        if (index == 0 || random.nextDouble() >= familyShare) {
+            return baseName(index);
+        }
+        String base = baseName(family(random.nextLong(index)));
+        double pick = random.nextDouble();
+        int kind = 0;
+        while (kind < VARIANT && pick >= kindShares[kind]) {
+            kind++;
+        }
+        if (kind == VARIANT) {
+            return base + " (" + suffixes[VARIANT][random.nextInt(suffixes[VARIANT].length)] + ")";
+        }
+        if (kind == SUBTITLE) {
+            return base + ": " + words(random, subtitleWords, subtitleLengths);
+        }
+        return base + ": " + suffixes[kind][random.nextInt(suffixes[kind].length)];
+    }
+
+    /**
+     * Finds the game that founded a game's family, following earlier games' families back.
+     * @param index the index of the game
+     * @return the index of the game whose own name is the family's base name
+     */
+    private long family(long index) {
+        while (index > 0) {
+            SplittableRandom random = random(NAME_SALT, index);
+            if (random.nextDouble() >= familyShare) {
+                break;
+            }
+            index = random.nextLong(index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds the base name of a game's family, from the words of the sample's base names.
+     * @param family the index of the game that founded the family
+     * @return the name
+     */
+    private String baseName(long family) {
+        return words(random(FAMILY_SALT, family), baseWords, baseLengths);
+    }
+
+    /**
+     * Joins words drawn at random, as many as a length drawn from the sample.
+     * @param random the random stream
+     * @param words the words to draw from
+     * @param lengths the word counts to draw from
+     * @return the words, separated by spaces
+     */
+    private static String words(SplittableRandom random, String[] words, int[] lengths) {
+        int length = lengths[random.nextInt(lengths.length)];
+        StringBuilder name = new StringBuilder(length * 8);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                name.append(' ');
+            }
+            name.append(words[random.nextInt(words.length)]);
+        }
+        return name.toString();
+    }
+
+    /**
+     * Gets the random stream of one game for one purpose.
+     * @param salt the purpose
+     * @param index the index of the game
+     * @return the random stream
+     */
+    private SplittableRandom random(long salt, long index) {
+        return new SplittableRandom(mix(seed ^ salt) + mix(index));
+    }
+
+    /**
+     * Classifies the part of a name after a colon.
+     * @param suffix the part after the colon
+     * @return the kind of name
+     */
+    private static int suffixKind(String suffix) {
+        String lower = suffix.toLowerCase();
+        if (lower.contains("expansion") || lower.contains("promo")) {
+            return EXPANSION;
+        }
+        return lower.contains("edition") ? EDITION : SUBTITLE;
+    }
+
+    /**
+     * Splits names into words.
+     * @param names the names
+     * @param words receives the words of every name
+     * @return the word count of each name; a single word if there are no names
+     */
+    private static int[] split(List<String> names, List<String> words) {
+        int[] lengths = new int[Math.max(1, names.size())];
+        for (int i = 0; i < names.size(); i++) {
+            for (String word : names.get(i).split(" ")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                    lengths[i]++;
+                }
+            }
+        }
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = Math.max(1, lengths[i]);
+        }
+        if (words.isEmpty()) {
+            words.add("Game");
+        }
+        return lengths;
+    }
+
+    /**
+     * Rounds play time to five minutes, and at least five.
+     * @param minutes the play time
+     * @return the rounded play time
+     */
+    private static int roundTime(double minutes) {
+        return minutes <= 0 ? 0 : Math.max(5, 5 * (int) Math.round(minutes / 5));
+    }
+
+    /**
+     * Keeps a value within bounds.
+     * @param value the value
+     * @param min the lower bound
+     * @param max the upper bound
+     * @return the value, clamped
+     */
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Rounds a value to a number of decimal places, as the sample's values are.
+     * @param value the value
+     * @param scale ten to the number of places
+     * @return the rounded value
+     */
+    private static double round(double value, double scale) {
+        return Math.round(value * scale) / scale;
+    }
+
+    /**
+     * Scrambles the bits of a number, as SplittableRandom does its seeds.
+     * @param z the number
+     * @return the scrambled number
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,250 @@
+package student;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current generation of the catalog, and swaps in new ones while queries run.
+ * <p>
+ * Each generation is an immutable catalog with a version number, published through an
+ * atomic reference (read-copy-update): a new catalog is built and its indexes warmed off to
+ * the side, then the reference is swapped in one step. Readers never wait on a swap, and
+ * as the new generation's indexes are already built, the first queries against it cost no
+ * more than any other.
+ * <p>
+ * A reader takes a {@link Lease} on the current generation for the length of its query,
+ * so a query that started before a swap finishes on the old data while new queries see
+ * only the new. Each generation counts its leases, plus one held by the registry while
+ * the generation is current. Once a generation has been replaced and its last lease is
+ * closed it is reclaimed: the registry lets go of it, and nothing is kept alive for
+ * queries that have finished.
+ */
+public final class CatalogRegistry implements AutoCloseable {
+    /** The current generation. */
+    private final AtomicReference<Generation> current;
+    /** Generations that have been replaced but are still leased. */
+    private final Set<Generation> retired = ConcurrentHashMap.newKeySet();
+    /** The number of generations reclaimed so far. */
+    private final AtomicLong reclaimed = new AtomicLong();
+    /** The background thread that builds new generations, or null if none has been loaded. */
+    private ExecutorService builder;
+
+    /**
+     * Creates a registry whose first generation, version 1, is the given catalog.
+     * @param catalog the first catalog
+     */
+    public CatalogRegistry(GameCatalog catalog) {
+        this.current = new AtomicReference<>(new Generation(1, catalog));
+    }
+
+    /**
+     * Leases the current generation. The lease must be closed once the query is done,
+     * best with try-with-resources.
+     * @return the lease
+     */
+    public Lease acquire() {
+        while (true) {
+            Generation generation = current.get();
+            // fails only if the generation was replaced and reclaimed since it was read
+            if (generation.retain()) {
+                return new Lease(generation);
+            }
+        }
+    }
+
+    /**
+     * Gets the version of the current generation.
+     * @return the version, starting at 1 and going up by one with each swap
+     */
+    public long version() {
+        return current.get().version;
+    }
+
+    /**
+     * Gets the current catalog without leasing it, for a quick look such as its size.
+     * @return the current catalog
+     */
+    public GameCatalog catalog() {
+        return current.get().catalog;
+    }
+
+    /**
+     * Builds a catalog from a source of games on a background thread, warms its indexes, and
+     * then swaps it in. Queries carry on against the current generation in the meantime.
+     * @param source supplies the games, for example by loading a file
+     * @return the version of the new generation, once it is current
+     */
+    public CompletableFuture<Long> load(Supplier<? extends Collection<BoardGame>> source) {
+        return CompletableFuture.supplyAsync(() -> publish(new GameCatalog(source.get())), builder());
+    }
+
+    /**
+     * Warms a catalog's indexes on the calling thread, and then swaps it in as the current
+     * generation.
+     * @param catalog the new catalog
+     * @return the version of the new generation
+     */
+    public long publish(GameCatalog catalog) {
+        catalog.warm();
+        return swap(catalog);
+    }
+
+    /**
+     * Makes a catalog the current generation, and retires the one it replaces.
+     * Swaps are serialised, so versions go up in publish order.
+     * @param catalog the new catalog, already warmed
+     * @return the version of the new generation
+     */
+    private synchronized long swap(GameCatalog catalog) {
+        Generation previous = current.get();
+        Generation next = new Generation(previous.version + 1, catalog);
+        current.set(next);
+        retired.add(previous);
+        release(previous);
+        return next.version;
+    }
+
+    /**
+     * Drops a reference to a generation, reclaiming it if that was the last.
+     * @param generation the generation
+     */
+    private void release(Generation generation) {
+        if (generation.refs.decrementAndGet() == 0) {
+            retired.remove(generation);
+            reclaimed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of generations that have been replaced but are still leased.
+     * @return the number of generations waiting to be reclaimed
+     */
+    public int retiredCount() {
+        return retired.size();
+    }
+
+    /**
+     * Gets the number of generations reclaimed so far.
+     * @return the number of reclaimed generations
+     */
+    public long reclaimedCount() {
+        return reclaimed.get();
+    }
+
+    /**
+     * Gets the background builder, starting it on first use.
+     * @return the builder
+     */
+    private synchronized ExecutorService builder() {
+        if (builder == null) {
+            builder = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "catalog-builder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return builder;
+    }
+
+    /**
+     * Stops the background builder. Loads already started are abandoned.
+     */
+    @Override
+    public synchronized void close() {
+        if (builder != null) {
+            builder.shutdownNow();
+            builder = null;
+        }
+    }
+
+    /**
+     * One immutable catalog and its version, with a count of who holds it.
+     */
+    private static final class Generation {
+        /** The version number. */
+        private final long version;
+        /** The catalog. */
+        private final GameCatalog catalog;
+        /** The leases held, plus one while the generation is current; 0 once reclaimed. */
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        /**
+         * Constructor for a current generation.
+         * @param version the version number
+         * @param catalog the catalog
+         */
+        Generation(long version, GameCatalog catalog) {
+            this.version = version;
+            this.catalog = catalog;
+        }
+
+        /**
+         * Adds a reference, unless the generation has already been reclaimed.
+         * @return true if the reference was added
+         */
+        boolean retain() {
+            int count = refs.get();
+            while (count > 0) {
+                if (refs.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+                count = refs.get();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A reader's hold on one generation. The generation is not reclaimed while the lease is
+     * open. Leases are meant for one thread; closing one more than once has no effect.
+     */
+    public final class Lease implements AutoCloseable {
+        /** The leased generation. */
+        private final Generation generation;
+        /** True once closed. */
+        private boolean closed;
+
+        /**
+         * Constructor for a lease on a generation already retained for it.
+         * @param generation the generation
+         */
+        private Lease(Generation generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * Gets the leased catalog.
+         * @return the catalog
+         */
+        public GameCatalog catalog() {
+            return generation.catalog;
+        }
+
+        /**
+         * Gets the version of the leased generation.
+         * @return the version
+         */
+        public long version() {
+            return generation.version;
+        }
+
+        /**
+         * Releases the generation.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(generation);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package student;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * An immutable, compressed set of catalog rows, for keeping many filters in memory at once.
+ * Each set is stored in whichever of three forms is smallest:
+ * <ul>
+ *     <li>all rows, which needs no data at all (the state of a fresh or reset filter);</li>
+ *     <li>run lengths, alternating gaps and runs of set rows as variable length integers,
+ *     which suits sparse filters and the long runs that name and range filters give;</li>
+ *     <li>the plain bitmap, one bit per row up to the last set row, which bounds the worst
+ *     case for scattered, dense filters.</li>
+ * </ul>
+ */
+final class CompactRows {
+    /** Form holding every row of the catalog. */
+    private static final byte ALL = 0;
+    /** Form holding alternating gap and run lengths. */
+    private static final byte RUNS = 1;
+    /** Form holding the bitmap bytes. */
+    private static final byte BITS = 2;
+    /** The set of every row, shared as it needs no data. */
+    private static final CompactRows ALL_ROWS = new CompactRows(ALL, new byte[0]);
+
+    /** Which form the data is in. */
+    private final byte form;
+    /** The encoded rows. */
+    private final byte[] data;
+
+    /**
+     * Constructor for a compressed set.
+     * @param form which form the data is in
+     * @param data the encoded rows
+     */
+    private CompactRows(byte form, byte[] data) {
+        this.form = form;
+        this.data = data;
+    }
+
+    /**
+     * Compresses a set of rows.
+     * @param rows the rows
+     * @param size the number of rows in the catalog
+     * @return the compressed set
+     */
+    static CompactRows of(BitSet rows, int size) {
+        if (rows.cardinality() == size) {
+            return ALL_ROWS;
+        }
+        byte[] bits = rows.toByteArray();
+        byte[] runs = new byte[Math.min(bits.length, 16)];
+        int length = 0;
+        int previousEnd = 0;
+        for (int start = rows.nextSetBit(0); start >= 0; start = rows.nextSetBit(previousEnd)) {
+            int end = rows.nextClearBit(start);
+            // each varint is at most 5 bytes; give up once the runs are no smaller than the bits
+            if (length + 10 > runs.length) {
+                if (length + 10 > bits.length) {
+                    return new CompactRows(BITS, bits);
+                }
+                runs = Arrays.copyOf(runs, Math.min(Math.max(runs.length * 2, length + 10), bits.length));
+            }
+            length = writeVarInt(runs, length, start - previousEnd);
+            length = writeVarInt(runs, length, end - start);
+            previousEnd = end;
+        }
+        return new CompactRows(RUNS, Arrays.copyOf(runs, length));
+    }
+
+    /**
+     * Gets the set of every row.
+     * @return the set of every row
+     */
+    static CompactRows all() {
+        return ALL_ROWS;
+    }
+
+    /**
+     * Expands the set.
+     * @param size the number of rows in the catalog
+     * @return a new BitSet of the rows
+     */
+    BitSet toBitSet(int size) {
+        switch (form) {
+            case ALL:
+                BitSet all = new BitSet(size);
+                all.set(0, size);
+                return all;
+            case BITS:
+                return BitSet.valueOf(data);
+            default:
+                BitSet rows = new BitSet(size);
+                int[] cursor = {0};
+                int pos = 0;
+                while (cursor[0] < data.length) {
+                    int start = pos + readVarInt(data, cursor);
+                    pos = start + readVarInt(data, cursor);
+                    rows.set(start, pos);
+                }
+                return rows;
+        }
+    }
+
+    /**
+     * Gets the number of bytes of encoded data, not counting the fixed object overhead.
+     * @return the encoded size
+     */
+    int encodedSize() {
+        return data.length;
+    }
+
+    /**
+     * Writes the set to a stream.
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeByte(form);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    /**
+     * Reads a set written by {@link #write}.
+     * @param in the stream
+     * @return the set
+     * @throws IOException if the stream fails or does not hold a set
+     */
+    static CompactRows read(DataInput in) throws IOException {
+        byte form = in.readByte();
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        if (form == ALL) {
+            return ALL_ROWS;
+        }
+        if (form != RUNS && form != BITS) {
+            throw new IOException("Invalid row set form: " + form);
+        }
+        return new CompactRows(form, data);
+    }
+
+    /**
+     * Writes a non-negative int as a variable length integer, 7 bits per byte.
+     * @param buffer the buffer, with at least 5 bytes free
+     * @param pos where to write
+     * @param value the value
+     * @return the position after the written bytes
+     */
+    private static int writeVarInt(byte[] buffer, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Reads a variable length integer.
+     * @param buffer the buffer
+     * @param cursor a one element array holding the position, advanced past the integer
+     * @return the value
+     */
+    private static int readVarInt(byte[] buffer, int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -1,6 +1,20 @@
 package student;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 
 /**
@@ -9,29 +23,92 @@ import java.util.stream.Stream;
  * and for a client to build a list of games they want to play, and
  * save out that list. Most of the features are focused on
  * providing a progressive filter to find games, and then add them to the list.
+ * <p>
+ * Run interactively, it prompts for each command. Run in batch mode, over a script or
+ * piped input, it runs the commands without the welcome text or prompts, to the end of
+ * the input or an exit command. Either way output goes through one large buffered
+ * writer, flushed only before waiting for input and at the end, and command lines are
+ * split into words in place rather than by a Scanner per command.
  */
 public class ConsoleApp {
-    /** Interaction with the system terminal/command line. */
-    private static final Scanner IN = new Scanner(System.in);
+    /** Size of the output buffer, in chars. */
+    private static final int OUTPUT_BUFFER = 1 << 16;
+    /** Number of rows shown per page when interactive. */
+    static final int PAGE_SIZE = 20;
+    /** How often a progress dot is shown while waiting for the games to load, in milliseconds. */
+    private static final long PROGRESS_INTERVAL_MS = 250;
+    /** The line separator, appended to rows built by hand. */
+    private static final String NEWLINE = System.lineSeparator();
     /** Default name to save the game list to. */
     private static final String DEFAULT_FILENAME = "games_list.txt";
+    /** Default name to export games to. */
+    private static final String DEFAULT_EXPORT_FILENAME = "games_export.csv";
+    /** Number of games to show for the similar command. */
+    private static final int SIMILAR_COUNT = 10;
     /** Random number generator only needs to be built once. */
     private static final Random RND = new Random();
-    /** Scanner to help with processing the command string. */
-    private Scanner current;
-    /** The game list to manage. */
-    private final IGameList gameList;
+    /** The commands being read. */
+    private final BufferedReader in;
+    /** Where output is written. */
+    private final PrintWriter out;
+    /** True to show the welcome text and prompt for each command. */
+    private final boolean interactive;
+    /** The words of the command being processed. */
+    private Words current;
+    /** The row being rendered, reused for every row. */
+    private final StringBuilder row = new StringBuilder(128);
+    /** The chars of the rendered row, reused for every row. */
+    private char[] rowChars = new char[128];
+    /** The games still loading in the background, or null once they are loaded. */
+    private Future<?> loading;
+    /** The game list to manage, the current one of the named lists if there are any. */
+    private IGameList gameList;
+    /** The named lists, or null if the game list given is not a GameList. */
+    private final GameLists lists;
     /** The planner to help filter games. */
-    private final IPlanner planner;
+    private final Planner planner;
 
     /**
      * Constructor for the console app.
+     * If the game list is a GameList, it becomes the default of the user's named lists.
      * @param gameList the game list to manage.
      * @param planner the planner to help filter games.
      */
-    public ConsoleApp(IGameList gameList, IPlanner planner) {
+    public ConsoleApp(IGameList gameList, Planner planner) {
+        this(gameList, planner, new InputStreamReader(System.in),
+                new OutputStreamWriter(System.out, System.out.charset()), true);
+    }
+
+    /**
+     * Constructor for the console app reading commands from, and writing output to, given streams.
+     * If the game list is a GameList, it becomes the default of the user's named lists.
+     * @param gameList the game list to manage.
+     * @param planner the planner to help filter games.
+     * @param input where commands are read from.
+     * @param output where output is written; it is flushed but not closed.
+     * @param interactive true to show the welcome text and prompts, false for batch mode.
+     */
+    public ConsoleApp(IGameList gameList, Planner planner, Reader input, Writer output, boolean interactive) {
         this.gameList = gameList;
         this.planner = planner;
+        if (gameList instanceof GameList list) {
+            list.setNameIndex(() -> planner.getCatalog().nameIndex());
+            this.lists = new GameLists(list);
+        } else {
+            this.lists = null;
+        }
+        this.in = new BufferedReader(input);
+        this.out = new PrintWriter(new BufferedWriter(output, OUTPUT_BUFFER));
+        this.interactive = interactive;
+    }
+
+    /**
+     * Sets games that are loading in the background. The prompt is shown straight away,
+     * and the first command that needs the games waits for them, showing progress.
+     * @param loading completes when the planner's games are loaded.
+     */
+    public void setLoading(Future<?> loading) {
+        this.loading = loading;
     }
 
     /**
@@ -39,11 +116,16 @@ public class ConsoleApp {
      * Processes the main menu commands and redirects.
      */
     public void start() {
-        printOutput("%s%n", ConsoleText.WELCOME);
+        if (interactive) {
+            printLine(ConsoleText.WELCOME);
+        }
 
         ConsoleText ct = nextCommand();
 
         while (ct != ConsoleText.CMD_EXIT) {
+            if (ct != ConsoleText.CMD_HELP && ct != ConsoleText.CMD_QUESTION && ct != ConsoleText.INVALID) {
+                awaitLoading();
+            }
             switch (ct) {
                 case CMD_HELP:
                 case CMD_QUESTION:
@@ -55,23 +137,72 @@ public class ConsoleApp {
                 case CMD_FILTER:
                     processFilter();
                     break;
-                case CMD_EASTER_EGG:
-                    System.out.println("randomNumber()");
-//                    randomNumber();
+                case CMD_STATS:
+                    processStats();
+                    break;
+                case CMD_FACETS:
+                    processFacets();
+                    break;
+                case CMD_SIMILAR:
+                    processSimilar();
+                    break;
+                case CMD_SKYLINE:
+                    processSkyline();
+                    break;
+                case CMD_RANDOM:
+                    processRandom();
+                    break;
+                case CMD_EXPORT:
+                    export(planner.filter(""));
                     break;
                 case INVALID:
                 default:
-                    printOutput("%s%n", ConsoleText.INVALID);
+                    printLine(ConsoleText.INVALID);
             }
 
-            // Clean up scanner
-            current.close();
+            // Drop anything left of the command line
             current = null;
             // Get the next prompt
             ct = nextCommand();
         }
 
-        printOutput("%s%n", ConsoleText.GOODBYE);
+        if (interactive) {
+            printLine(ConsoleText.GOODBYE);
+        }
+        out.flush();
+    }
+
+    /**
+     * Waits for games loading in the background, printing a dot every so often while
+     * interactive so the user can see something is happening.
+     */
+    private void awaitLoading() {
+        if (loading == null) {
+            return;
+        }
+        boolean shown = false;
+        while (true) {
+            try {
+                loading.get(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException e) {
+                if (interactive) {
+                    out.print(shown ? "." : ConsoleText.LOADING);
+                    out.flush();
+                    shown = true;
+                }
+            } catch (ExecutionException e) {
+                printLine(ConsoleText.LOAD_FAILED);
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (shown) {
+            out.println();
+        }
+        loading = null;
     }
 
     /**
@@ -79,35 +210,84 @@ public class ConsoleApp {
      * @param format the format string to print.
      * @param output the output to print (array to match the format).
      */
-    private static void printOutput(String format, Object... output) {
-        System.out.printf(format, output);
+    private void printOutput(String format, Object... output) {
+        out.printf(format, output);
+    }
+
+    /**
+     * Prints a line of text to the client, without parsing a format.
+     * @param text the text.
+     */
+    private void printLine(Object text) {
+        out.println(text);
+    }
+
+    /**
+     * Prints a numbered row to the client, as "number: text", without parsing a format.
+     * @param number the row number.
+     * @param text the text.
+     */
+    private void printRow(int number, String text) {
+        row.setLength(0);
+        row.append(number).append(": ").append(text);
+        writeRow();
+    }
+
+    /**
+     * Prints a numbered game to the client, as "number: name (value of a column)".
+     * @param number the row number.
+     * @param game the game.
+     * @param sortOn the column whose value is shown.
+     */
+    private void printRow(int number, BoardGame game, GameData sortOn) {
+        row.setLength(0);
+        GameRows.appendWithInfo(row.append(number).append(": "), game, sortOn);
+        writeRow();
     }
 
     /**
-     * Get the next command from the user.
+     * Writes the rendered row and a line separator, through the reused char buffer.
+     */
+    private void writeRow() {
+        row.append(NEWLINE);
+        if (rowChars.length < row.length()) {
+            rowChars = new char[Math.max(row.length(), rowChars.length * 2)];
+        }
+        row.getChars(0, row.length(), rowChars, 0);
+        out.write(rowChars, 0, row.length());
+    }
+
+    /**
+     * Get the next command from the user, skipping blank lines. The end of the input is
+     * taken as the exit command.
      * @return the next command.
      */
     private ConsoleText nextCommand() {
-        if (current == null || !current.hasNext()) {
-            String line = getInput("%s", ConsoleText.PROMPT);
-            current = new Scanner(line.trim());
+        while (current == null || !current.hasNext()) {
+            String line = getInput();
+            if (line == null) {
+                return ConsoleText.CMD_EXIT;
+            }
+            current = new Words(line);
         }
 
         return ConsoleText.fromString(current.next());
     }
 
     /**
-     * Gets input from the client.
-     * @param format the format string to print.
-     * @param args the arguments to the format string.
-     * @return the input from the client as a string, one line at a time.
+     * Gets input from the client, prompting for it first when interactive.
+     * @return the next line of input, or null at the end of the input.
      */
-    private static String getInput(String format, Object... args) {
-        System.out.printf(format, args);
-        if (!IN.hasNextLine()) {
-            return "";
+    private String getInput() {
+        if (interactive) {
+            out.print(ConsoleText.PROMPT);
+        }
+        out.flush();
+        try {
+            return in.readLine();
+        } catch (IOException e) {
+            return null;
         }
-        return IN.nextLine();
     }
 
     /**
@@ -120,13 +300,13 @@ public class ConsoleApp {
         }
         switch (ct) {
             case CMD_FILTER:
-                printOutput("%s%n", ConsoleText.FILTER_HELP);
+                printLine(ConsoleText.FILTER_HELP);
                 break;
             case CMD_LIST:
-                printOutput("%s%n", ConsoleText.LIST_HELP);
+                printLine(ConsoleText.LIST_HELP);
                 break;
             default:
-                printOutput("%s%n", ConsoleText.HELP);
+                printLine(ConsoleText.HELP);
         }
     }
 
@@ -149,6 +329,11 @@ public class ConsoleApp {
                     }
                     try {
                         gameList.addToList(toAdd, planner.filter(""));
+                    } catch (GameNotFoundException e) {
+                        printOutput("%s %s%n", ConsoleText.INVALID_LIST, toAdd);
+                        if (e.getSuggestion() != null) {
+                            printOutput("%s %s?%n", ConsoleText.DID_YOU_MEAN, e.getSuggestion());
+                        }
                     } catch (IllegalArgumentException e) {
                         printOutput("%s %s%n", ConsoleText.INVALID_LIST, toAdd);
                     }
@@ -172,21 +357,100 @@ public class ConsoleApp {
                     if (filename.isEmpty()) {
                         filename = DEFAULT_FILENAME;
                     }
+                    // saveGame reports to System.out itself, so keep the output in order
+                    out.flush();
                     gameList.saveGame(filename);
                     break;
+                case CMD_EXPORT:
+                    if (gameList instanceof GameList list) {
+                        export(list.getGames().stream());
+                    } else {
+                        printLine(ConsoleText.INVALID);
+                    }
+                    break;
+                case CMD_NAMES:
+                case CMD_USE:
+                case CMD_COPY:
+                case CMD_DELETE:
+                case CMD_UNION:
+                case CMD_INTERSECT:
+                case CMD_DIFF:
+                    processNamedList(ct);
+                    break;
                 case CMD_HELP:
                 case CMD_QUESTION:
-                    printOutput("%s%n", ConsoleText.LIST_HELP);
+                    printLine(ConsoleText.LIST_HELP);
                     break;
                 default:
-                    printOutput("%s%n", ConsoleText.INVALID);
-                    printOutput("%s%n", ConsoleText.LIST_HELP);
+                    printLine(ConsoleText.INVALID);
+                    printLine(ConsoleText.LIST_HELP);
             }
         } else {
             printCurrentList();
         }
     }
 
+    /**
+     * Process the commands that work on the named lists.
+     * @param ct the command.
+     */
+    private void processNamedList(ConsoleText ct) {
+        if (lists == null) {
+            printLine(ConsoleText.NO_NAMED_LISTS);
+            return;
+        }
+        String name = remainder();
+        try {
+            switch (ct) {
+                case CMD_NAMES:
+                    for (String listName : lists.names()) {
+                        printOutput("%s %s: %d%n", listName.equals(lists.currentName()) ? "*" : " ", listName,
+                                lists.get(listName).count());
+                    }
+                    break;
+                case CMD_USE:
+                    gameList = lists.use(name);
+                    printOutput("%s %s%n", ConsoleText.LIST_CURRENT, lists.currentName());
+                    break;
+                case CMD_COPY:
+                    lists.copy(name);
+                    break;
+                case CMD_DELETE:
+                    lists.delete(name);
+                    break;
+                case CMD_UNION:
+                    lists.union(name);
+                    break;
+                case CMD_INTERSECT:
+                    lists.intersect(name);
+                    break;
+                default:
+                    lists.difference(name);
+            }
+        } catch (IllegalArgumentException e) {
+            printOutput("%s %s%n", ConsoleText.INVALID_LIST, name);
+        }
+    }
+
+    /**
+     * Exports games with every column to the file named by the rest of the command, as JSON
+     * Lines if it ends in .jsonl or .json, else as CSV.
+     * @param games the games to export.
+     */
+    private void export(Stream<BoardGame> games) {
+        String filename = remainder();
+        if (filename.isEmpty()) {
+            filename = DEFAULT_EXPORT_FILENAME;
+        }
+        try {
+            Path file = Path.of(filename);
+            long count = GameExporter.export(games, file, GameExporter.Format.forFile(file));
+            printOutput("%s %s: %d%n", ConsoleText.EXPORTED, filename, count);
+        } catch (IOException | InvalidPathException e) {
+            printOutput("%s %s%n", ConsoleText.EXPORT_FAILED, filename);
+        }
+    }
+
     /**
      * Print the current list of games.
      */
@@ -194,10 +458,10 @@ public class ConsoleApp {
         if (gameList.count() > 0) {
             int counter = 1;
             for (String game : gameList.getGameNames()) {
-                printOutput("%d: %s%n", counter++, game);
+                printRow(counter++, game);
             }
         } else {
-            printOutput("%s%n", ConsoleText.NO_GAMES_LIST);
+            printLine(ConsoleText.NO_GAMES_LIST);
         }
     }
 
@@ -221,13 +485,13 @@ public class ConsoleApp {
             filter = filter.trim().toLowerCase();
 
             if (filter.equalsIgnoreCase(ConsoleText.CMD_QUESTION.toString())) {
-                printOutput("%s%n", ConsoleText.FILTER_HELP);
+                printLine(ConsoleText.FILTER_HELP);
                 return;
             }
 
             if (filter.equalsIgnoreCase(ConsoleText.CMD_CLEAR.toString())) {
                 planner.reset();
-                printOutput("%s%n", ConsoleText.FILTERED_CLEAR);
+                printLine(ConsoleText.FILTERED_CLEAR);
                 return;
             }
 
@@ -248,7 +512,7 @@ public class ConsoleApp {
                     try {
                         sortOn = GameData.fromString(sort.trim());
                     } catch (IllegalArgumentException e) {
-                        printOutput("%s%n", ConsoleText.INVALID);
+                        printLine(ConsoleText.INVALID);
                         return;
                     }
                 }
@@ -266,7 +530,7 @@ public class ConsoleApp {
                 }
             }
         } else {
-            printOutput("%s%n", ConsoleText.NO_FILTER);
+            printLine(ConsoleText.NO_FILTER);
             try {
                 result = planner.filter("");
             } catch (IllegalArgumentException e) {
@@ -277,28 +541,207 @@ public class ConsoleApp {
         printFilterStream(result, sortOn);
     }
 
+    /**
+     * Process the stats command, which summarises a numeric column over the current filter,
+     * optionally narrowed by a further filter that is not kept.
+     */
+    private void processStats() {
+        if (!current.hasNext()) {
+            printLine(ConsoleText.STATS_HELP);
+            return;
+        }
+        String column = current.next();
+        String filter = remainder().toLowerCase();
+        Aggregate stats;
+        try {
+            stats = planner.aggregate(filter, GameData.fromString(column));
+        } catch (IllegalArgumentException e) {
+            printLine(ConsoleText.INVALID);
+            printLine(ConsoleText.STATS_HELP);
+            return;
+        }
+        printOutput("%s %d%n", ConsoleText.STATS_COUNT, stats.count());
+        if (stats.count() > 0) {
+            printOutput("%s %.2f / %.2f / %.2f%n", ConsoleText.STATS_RANGE,
+                    stats.min(), stats.mean(), stats.max());
+            printOutput("%s %.2f / %.2f / %.2f / %.2f%n", ConsoleText.STATS_PERCENTILES,
+                    stats.percentile(25), stats.percentile(50), stats.percentile(75), stats.percentile(90));
+        }
+    }
+
+    /**
+     * Process the facets command, which shows how many games in the current filter fall into
+     * each bucket of the requested facets (all facets if none are named).
+     */
+    private void processFacets() {
+        List<Facet> facets = new ArrayList<>();
+        try {
+            while (current.hasNext()) {
+                facets.add(Facet.fromString(current.next()));
+            }
+        } catch (IllegalArgumentException e) {
+            printLine(ConsoleText.INVALID);
+            printLine(ConsoleText.FACETS_HELP);
+            return;
+        }
+        if (facets.isEmpty()) {
+            facets = Arrays.asList(Facet.values());
+        }
+        FacetCounts counts = planner.facets("", facets.toArray(new Facet[0]));
+        for (Facet facet : facets) {
+            StringBuilder line = new StringBuilder();
+            for (Map.Entry<String, Integer> bucket : counts.get(facet).entrySet()) {
+                if (line.length() > 0) {
+                    line.append(", ");
+                }
+                line.append(bucket.getKey()).append(": ").append(bucket.getValue());
+            }
+            printOutput("%s - %s%n", facet.name().toLowerCase(), line);
+        }
+    }
+
+    /**
+     * Process the similar command, which shows the games in the current filter that are
+     * most like the named game.
+     */
+    private void processSimilar() {
+        String name = remainder();
+        if (name.isEmpty()) {
+            printLine(ConsoleText.SIMILAR_HELP);
+            return;
+        }
+        try {
+            printFilterStream(planner.similar(name, SIMILAR_COUNT, ""), GameData.NAME);
+        } catch (IllegalArgumentException e) {
+            System.err.println("An error occurred while finding similar games: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Process the skyline command, which shows the games in the current filter that no other
+     * game beats on rating, difficulty and play time all at once.
+     */
+    private void processSkyline() {
+        String filter = remainder().toLowerCase();
+        try {
+            printFilterStream(planner.skyline(filter), GameData.RATING);
+        } catch (IllegalArgumentException e) {
+            printLine(ConsoleText.INVALID);
+            printLine(ConsoleText.SKYLINE_HELP);
+        }
+    }
+
     /**
      * Print the filtered stream of games.
+     * Games are taken from the stream only as they are printed. When interactive, they are
+     * shown a page at a time, and the next page is only fetched and rendered if the user
+     * asks for it by pressing enter; anything else stops the listing.
      * @param games the stream of games to print.
      * @param sortOn also is the column used for 'extra info' based on the sort
      *               type.
      */
-    private static void printFilterStream(Stream<BoardGame> games, GameData sortOn) {
+    private void printFilterStream(Stream<BoardGame> games, GameData sortOn) {
+        if (games == null) {
+            return;
+        }
+        Iterator<BoardGame> it = games.iterator();
         int counter = 1;
-        List<BoardGame> gameList = games != null ? games.toList() : Collections.emptyList();
-        for (BoardGame game : gameList) {
-            printOutput("%d: %s%n", counter++, game.toStringWithInfo(sortOn));
+        while (it.hasNext()) {
+            if (interactive && counter > 1 && counter % PAGE_SIZE == 1) {
+                out.print(ConsoleText.MORE);
+                out.flush();
+                String answer;
+                try {
+                    answer = in.readLine();
+                } catch (IOException e) {
+                    answer = null;
+                }
+                if (answer == null || !answer.isBlank()) {
+                    return;
+                }
+            }
+            printRow(counter++, it.next(), sortOn);
+        }
+    }
+
+    /**
+     * Process the random command, which picks a random game from the current filter,
+     * optionally weighted by rating or rank.
+     */
+    private void processRandom() {
+        Optional<BoardGame> game;
+        try {
+            GameData weightOn = current.hasNext() ? GameData.fromString(current.next()) : null;
+            game = planner.pickRandom(weightOn, RND);
+        } catch (IllegalArgumentException e) {
+            printLine(ConsoleText.INVALID);
+            printLine(ConsoleText.RANDOM_HELP);
+            return;
+        }
+        if (game.isEmpty()) {
+            printLine(ConsoleText.RANDOM_NONE);
+        } else {
+            printOutput("%s %s%n", ConsoleText.RANDOM_GAME, game.get().toStringWithInfo(GameData.RATING));
         }
     }
 
     /**
-     * Generate a random number base on the current filter.
+     * The words of a command line, split on whitespace as they are read, in place.
      */
-    private void randomNumber() {
-        int max = (int) planner.filter("").count();
-        if (max > 0) {
-            int random = RND.nextInt(max) + 1;
-            printOutput("%s %d%n", ConsoleText.EASTER_EGG, random);
+    private static final class Words {
+        /** The line. */
+        private final String line;
+        /** The position of the next word. */
+        private int pos;
+
+        /**
+         * Constructor for the words of a line.
+         * @param line the line.
+         */
+        Words(String line) {
+            this.line = line;
+            skipSpace();
+        }
+
+        /**
+         * Checks whether there is another word.
+         * @return true if there is another word.
+         */
+        boolean hasNext() {
+            return pos < line.length();
+        }
+
+        /**
+         * Gets the next word.
+         * @return the word, or an empty string if there are no more.
+         */
+        String next() {
+            int start = pos;
+            while (pos < line.length() && !Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+            String word = line.substring(start, pos);
+            skipSpace();
+            return word;
+        }
+
+        /**
+         * Gets the rest of the line.
+         * @return the rest of the line, from the next word.
+         */
+        String nextLine() {
+            String rest = line.substring(pos);
+            pos = line.length();
+            return rest;
+        }
+
+        /**
+         * Moves past any whitespace.
+         */
+        private void skipSpace() {
+            while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
         }
     }
 
@@ -317,11 +760,23 @@ public class ConsoleApp {
         /** Various commands and text. */
         WELCOME, HELP, INVALID, GOODBYE, PROMPT, NO_FILTER, NO_GAMES_LIST, FILTERED_CLEAR, LIST_HELP, FILTER_HELP,
         /** Commands continued. */
-        INVALID_LIST, EASTER_EGG, CMD_EASTER_EGG,
+        INVALID_LIST, DID_YOU_MEAN, CMD_RANDOM, RANDOM_HELP, RANDOM_GAME, RANDOM_NONE,
+        /** Stats command and output. */
+        CMD_STATS, STATS_HELP, STATS_COUNT, STATS_RANGE, STATS_PERCENTILES, CMD_FACETS, FACETS_HELP,
+        /** Similar games and skyline commands. */
+        CMD_SIMILAR, SIMILAR_HELP, CMD_SKYLINE, SKYLINE_HELP,
+        /** Export command. */
+        CMD_EXPORT, EXPORTED, EXPORT_FAILED,
+        /** Paging of long output. */
+        MORE,
+        /** Loading the games in the background. */
+        LOADING, LOAD_FAILED,
         /** Commands general. */
         CMD_EXIT, CMD_HELP, CMD_QUESTION, CMD_FILTER, CMD_LIST,
         /** Commands specific to lists and filters. */
         CMD_SHOW, CMD_ADD, CMD_REMOVE, CMD_CLEAR, CMD_SAVE,
+        /** Commands on named lists. */
+        CMD_NAMES, CMD_USE, CMD_COPY, CMD_DELETE, CMD_UNION, CMD_INTERSECT, CMD_DIFF, LIST_CURRENT, NO_NAMED_LISTS,
         /** More options on commands. */
         CMD_OPTION_ALL, CMD_SORT_OPTION, CMD_SORT_OPTION_DIRECTION_ASC, CMD_SORT_OPTION_DIRECTION_DESC;
 
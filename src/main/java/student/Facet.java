@@ -0,0 +1,112 @@
+package student;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * The facets that matching games can be counted by, each with a fixed list of buckets.
+ * A facet is bound to a catalog and an array of counts, giving a row consumer that reads
+ * the primitive columns directly, so any number of facets can be filled in the same scan.
+ */
+public enum Facet {
+    /**
+     * Player counts a game supports. A game counts towards every player count in its range,
+     * and towards "9+" once its range reaches 9, wherever the range starts.
+     */
+    PLAYERS(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9+")) {
+        @Override
+        IntConsumer bind(GameCatalog catalog, int[] counts) {
+            int[] minPlayers = catalog.intColumn(GameData.MIN_PLAYERS);
+            int[] maxPlayers = catalog.intColumn(GameData.MAX_PLAYERS);
+            int last = counts.length;
+            return row -> {
+                int max = Math.min(maxPlayers[row], last);
+                for (int players = Math.clamp(minPlayers[row], 1, last); players <= max; players++) {
+                    counts[players - 1]++;
+                }
+            };
+        }
+    },
+    /** Decade the game was published in. */
+    YEAR(List.of("before 1970", "1970s", "1980s", "1990s", "2000s", "2010s", "2020s")) {
+        @Override
+        IntConsumer bind(GameCatalog catalog, int[] counts) {
+            int[] years = catalog.intColumn(GameData.YEAR);
+            int last = counts.length - 1;
+            return row -> counts[Math.max(0, Math.min((years[row] - 1960) / 10, last))]++;
+        }
+    },
+    /** Difficulty (weight) band, in whole points. */
+    DIFFICULTY(List.of("under 1", "1-2", "2-3", "3-4", "4-5")) {
+        @Override
+        IntConsumer bind(GameCatalog catalog, int[] counts) {
+            double[] difficulty = catalog.doubleColumn(GameData.DIFFICULTY);
+            int last = counts.length - 1;
+            return row -> counts[Math.max(0, Math.min((int) difficulty[row], last))]++;
+        }
+    },
+    /** Play time band, based on the maximum play time in minutes. */
+    PLAY_TIME(List.of("up to 30", "31-60", "61-120", "121-240", "over 240")) {
+        @Override
+        IntConsumer bind(GameCatalog catalog, int[] counts) {
+            int[] maxTime = catalog.intColumn(GameData.MAX_TIME);
+            return row -> {
+                int time = maxTime[row];
+                if (time <= 30) {
+                    counts[0]++;
+                } else if (time <= 60) {
+                    counts[1]++;
+                } else if (time <= 120) {
+                    counts[2]++;
+                } else if (time <= 240) {
+                    counts[3]++;
+                } else {
+                    counts[4]++;
+                }
+            };
+        }
+    };
+
+    /** The labels of the buckets, in display order. */
+    private final List<String> buckets;
+
+    /**
+     * Constructor for the facets.
+     * @param buckets the labels of the buckets, in display order
+     */
+    Facet(List<String> buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Gets the labels of the buckets, in display order.
+     * @return the bucket labels
+     */
+    public List<String> getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Binds the facet to a catalog, giving a consumer that counts a row into its buckets.
+     * @param catalog the catalog the rows belong to
+     * @param counts the counts to increment, one per bucket
+     * @return the row consumer
+     */
+    abstract IntConsumer bind(GameCatalog catalog, int[] counts);
+
+    /**
+     * Get the facet from its name, ignoring case. Underscores may be left out, so both
+     * play_time and playtime work.
+     * @param name the name of the facet
+     * @return the facet that matches the name
+     * @throws IllegalArgumentException if no facet matches
+     */
+    public static Facet fromString(String name) {
+        for (Facet facet : Facet.values()) {
+            if (facet.name().equalsIgnoreCase(name) || facet.name().replace("_", "").equalsIgnoreCase(name)) {
+                return facet;
+            }
+        }
+        throw new IllegalArgumentException("No facet with name " + name);
+    }
+}
@@ -0,0 +1,89 @@
+package student;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Histograms of the games matching a filter, one per requested facet.
+ * All the histograms are filled together in a single scan of the matching rows.
+ */
+public final class FacetCounts {
+    /** The number of games that were counted. */
+    private final int total;
+    /** The bucket counts for each facet, parallel to the facet's bucket labels. */
+    private final Map<Facet, int[]> counts;
+
+    /**
+     * Creates the result of a facet scan.
+     * @param total the number of games that were counted
+     * @param counts the bucket counts for each facet
+     */
+    private FacetCounts(int total, Map<Facet, int[]> counts) {
+        this.total = total;
+        this.counts = counts;
+    }
+
+    /**
+     * Counts the given rows into every requested facet in one pass.
+     * @param catalog the catalog the rows belong to
+     * @param rows the rows to count, in ascending order
+     * @param facets the facets to compute
+     * @return the counts
+     */
+    static FacetCounts count(GameCatalog catalog, BitSet rows, List<Facet> facets) {
+        Map<Facet, int[]> counts = new EnumMap<>(Facet.class);
+        IntConsumer consumer = row -> { };
+        for (Facet facet : facets) {
+            if (!counts.containsKey(facet)) {
+                int[] buckets = new int[facet.getBuckets().size()];
+                counts.put(facet, buckets);
+                consumer = consumer.andThen(facet.bind(catalog, buckets));
+            }
+        }
+        int total = 0;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            consumer.accept(row);
+            total++;
+        }
+        return new FacetCounts(total, counts);
+    }
+
+    /**
+     * Gets the number of games that were counted.
+     * @return the number of matching games
+     */
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Gets the facets that were computed.
+     * @return the facets
+     */
+    public Set<Facet> facets() {
+        return counts.keySet();
+    }
+
+    /**
+     * Gets the histogram of a facet.
+     * @param facet the facet
+     * @return the count of games per bucket label, in the facet's bucket order
+     * @throws IllegalArgumentException if the facet was not computed
+     */
+    public Map<String, Integer> get(Facet facet) {
+        int[] buckets = counts.get(facet);
+        if (buckets == null) {
+            throw new IllegalArgumentException("Facet not computed: " + facet);
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            result.put(facet.getBuckets().get(i), buckets[i]);
+        }
+        return result;
+    }
+}
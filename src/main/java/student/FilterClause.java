@@ -0,0 +1,426 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * A single parsed filter clause, such as {@code minPlayers>4}.
+ * A clause is parsed once from the filter text, and then bound to a GameCatalog to give
+ * a predicate over row numbers that reads the primitive columns directly.
+ * Clauses on a GameRange, such as {@code players==5}, are instead answered from the
+ * catalog's interval tree for that range.
+ */
+final class FilterClause {
+    /** The column the clause filters on, null for a range clause. */
+    private final GameData column;
+    /** The range the clause filters on, null for a column clause. */
+    private final GameRange range;
+    /** The comparison operator. */
+    private final Operations operator;
+    /** The value to compare against, case-folded for the name column. */
+    private final String value;
+    /** The clause with its value in canonical form, so equal clauses written differently match. */
+    private final String key;
+
+    /**
+     * Constructor for a clause. Use {@link #parse(String)} to build one from filter text.
+     * @param column the column to filter on, null for a range clause
+     * @param range the range to filter on, null for a column clause
+     * @param operator the comparison operator
+     * @param value the value to compare against
+     */
+    private FilterClause(GameData column, GameRange range, Operations operator, String value) {
+        this.column = column;
+        this.range = range;
+        this.operator = operator;
+        this.value = value;
+        this.key = (range != null ? range.name() : column.name()) + operator.getOperator() + canonicalValue();
+    }
+
+    /**
+     * Gets the value in canonical form: numbers are reparsed, so 7, 07 and 7.0 on a double
+     * column are the same, and windows are written as from-to.
+     * @return the canonical value
+     */
+    private String canonicalValue() {
+        if (range != null) {
+            int[] window = parseWindow(value);
+            return window[0] + "-" + window[1];
+        } else if (column == GameData.NAME) {
+            return value;
+        } else if (GameCatalog.isDouble(column)) {
+            return Double.toString(Double.parseDouble(value));
+        } else {
+            return Integer.toString(Integer.parseInt(value));
+        }
+    }
+
+    /**
+     * Parses a full filter string, where clauses are separated by commas.
+     * @param filter the filter string, empty for no clauses
+     * @return the parsed clauses, in order
+     * @throws IllegalArgumentException if any clause is invalid
+     */
+    static List<FilterClause> parseAll(String filter) {
+        List<FilterClause> clauses = new ArrayList<>();
+        if (filter.isEmpty()) {
+            return clauses;
+        }
+        for (String singleFilter : filter.split(",")) {
+            clauses.add(parse(singleFilter));
+        }
+        return clauses;
+    }
+
+    /**
+     * Gets the canonical form of a full filter string: its distinct clauses in canonical
+     * form, sorted. Filters that differ only in spacing, number format, clause order or
+     * repeated clauses have the same canonical form, as they match the same games.
+     * @param filter the filter string, empty for no clauses
+     * @return the canonical form
+     * @throws IllegalArgumentException if any clause is invalid
+     */
+    static String normalize(String filter) {
+        Set<String> keys = new TreeSet<>();
+        for (FilterClause clause : parseAll(filter)) {
+            keys.add(clause.key);
+        }
+        return String.join(",", keys);
+    }
+
+    /**
+     * Checks whether a filter string has a clause that tests each row's name as a string,
+     * a contains or fuzzy match, which costs far more per row than a number comparison.
+     * @param filter the filter string
+     * @return true if the filter has such a clause
+     * @throws IllegalArgumentException if any clause is invalid
+     */
+    static boolean isExpensive(String filter) {
+        for (FilterClause clause : parseAll(filter)) {
+            if (clause.operator == Operations.CONTAINS || clause.operator == Operations.FUZZY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a single clause, such as {@code rating >= 7.5}.
+     * @param singleFilter the clause text
+     * @return the parsed clause
+     * @throws IllegalArgumentException if the clause, operator, column or value is invalid
+     */
+    static FilterClause parse(String singleFilter) {
+        String[] parts = singleFilter.split("(?<=[a-zA-Z])\\s*(?=[><=!~%])");
+
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid filter: " + singleFilter);
+        }
+
+        String columnName = parts[0].trim();
+        String operatorAndValue = parts[1].trim();
+
+        String operatorString;
+        String value;
+        if (operatorAndValue.contains(">=") || operatorAndValue.contains("<=")
+                || operatorAndValue.contains("==") || operatorAndValue.contains("!=")
+                || operatorAndValue.contains("~=") || operatorAndValue.contains("%=")) {
+            operatorString = operatorAndValue.substring(0, 2);
+            value = operatorAndValue.substring(2).trim();
+        } else {
+            operatorString = operatorAndValue.substring(0, 1);
+            value = operatorAndValue.substring(1).trim();
+        }
+
+        Operations operator = Operations.getOperatorFromStr(operatorString);
+        if (operator == null) {
+            throw new IllegalArgumentException("Invalid operator: " + operatorString);
+        }
+
+        GameRange range = GameRange.fromFilterName(columnName);
+        if (range != null) {
+            if (operator != Operations.EQUALS) {
+                throw new IllegalArgumentException(
+                        "Only the == operator can be applied to the " + range.getFilterName() + " field."
+                );
+            }
+            parseWindow(value);
+            return new FilterClause(null, range, operator, value);
+        }
+
+        GameData col = GameData.fromString(columnName);
+
+        switch (operator) {
+            case CONTAINS:
+            case FUZZY:
+                if (col != GameData.NAME) {
+                    throw new IllegalArgumentException(
+                            "The " + operator.getOperator() + " operator can only be applied to the name field."
+                    );
+                }
+                break;
+            default:
+                if (col == GameData.ID) {
+                    throw new IllegalArgumentException("Invalid column: " + col);
+                } else if (GameCatalog.isDouble(col)) {
+                    Double.parseDouble(value);
+                } else if (col != GameData.NAME) {
+                    Integer.parseInt(value);
+                }
+        }
+
+        return new FilterClause(col, null, operator, col == GameData.NAME ? value.toLowerCase() : value);
+    }
+
+    /**
+     * Parses the value of a range clause, either a single number or a window such as 45-90.
+     * @param value the value text
+     * @return the start and end of the window
+     * @throws IllegalArgumentException if the value is not a number or window
+     */
+    private static int[] parseWindow(String value) {
+        if (!value.matches("\\d+(\\s*-\\s*\\d+)?")) {
+            throw new IllegalArgumentException("Invalid range: " + value);
+        }
+        String[] parts = value.split("-");
+        int from = Integer.parseInt(parts[0].trim());
+        int to = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : from;
+        if (from > to) {
+            throw new IllegalArgumentException("Invalid range: " + value);
+        }
+        return new int[] {from, to};
+    }
+
+    /**
+     * Gets the column the clause filters on.
+     * @return the column, or null for a range clause
+     */
+    GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the range the clause filters on.
+     * @return the range, or null for a column clause
+     */
+    GameRange getRange() {
+        return range;
+    }
+
+    /**
+     * Gets the comparison operator of the clause.
+     * @return the operator
+     */
+    Operations getOperator() {
+        return operator;
+    }
+
+    /**
+     * Gets the value the clause compares against.
+     * @return the value, case-folded for the name column
+     */
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Binds the clause to a catalog, giving a predicate over its row numbers.
+     * @param catalog the catalog the rows belong to
+     * @return a predicate that is true for the rows matching the clause
+     */
+    IntPredicate bind(GameCatalog catalog) {
+        return bind(catalog, QueryContext.NONE);
+    }
+
+    /**
+     * Binds the clause to a catalog for a query with a deadline, giving a predicate over its
+     * row numbers. Binding a fuzzy clause searches the name index, which checks the context.
+     * @param catalog the catalog the rows belong to
+     * @param context the query's deadline and cancellation token
+     * @return a predicate that is true for the rows matching the clause
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
+     */
+    IntPredicate bind(GameCatalog catalog, QueryContext context) {
+        if (range != null) {
+            BitSet rows = indexedRows(catalog);
+            return rows::get;
+        } else if (column == GameData.NAME) {
+            return bindName(catalog, context);
+        } else if (GameCatalog.isDouble(column)) {
+            return bindDouble(catalog.doubleColumn(column), Double.parseDouble(value));
+        } else {
+            return bindInt(catalog.intColumn(column), Integer.parseInt(value));
+        }
+    }
+
+    /**
+     * Looks up the rows matching the clause in a catalog index, for clauses that have one.
+     * This avoids testing every candidate row, as the index only visits the matches.
+     * @param catalog the catalog the rows belong to
+     * @return the matching rows, or null if the clause has no index and must be tested row by row
+     */
+    BitSet indexedRows(GameCatalog catalog) {
+        if (range == null) {
+            return null;
+        }
+        int[] window = parseWindow(value);
+        return catalog.rangeIndex(range).overlapping(window[0], window[1]);
+    }
+
+    /**
+     * Binds all clauses to a catalog, giving a single predicate that is true only
+     * when every clause matches (the clauses are ANDed together).
+     * @param clauses the clauses to bind
+     * @param catalog the catalog the rows belong to
+     * @return the combined predicate, always true when there are no clauses
+     */
+    static IntPredicate bindAll(List<FilterClause> clauses, GameCatalog catalog) {
+        return bindAll(clauses, catalog, QueryContext.NONE);
+    }
+
+    /**
+     * Binds all clauses to a catalog for a query with a deadline, giving a single predicate
+     * that is true only when every clause matches.
+     * @param clauses the clauses to bind
+     * @param catalog the catalog the rows belong to
+     * @param context the query's deadline and cancellation token
+     * @return the combined predicate, always true when there are no clauses
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
+     */
+    static IntPredicate bindAll(List<FilterClause> clauses, GameCatalog catalog, QueryContext context) {
+        IntPredicate predicate = row -> true;
+        for (FilterClause clause : clauses) {
+            predicate = predicate.and(clause.bind(catalog, context));
+        }
+        return predicate;
+    }
+
+    /**
+     * Binds a clause on the case-folded names column.
+     * @param catalog the catalog the rows belong to
+     * @param context the query's deadline and cancellation token
+     * @return the row predicate
+     */
+    private IntPredicate bindName(GameCatalog catalog, QueryContext context) {
+        String[] names = catalog.names();
+        switch (operator) {
+            case GREATER_THAN:
+                return row -> names[row].compareToIgnoreCase(value) > 0;
+            case LESS_THAN:
+                return row -> names[row].compareToIgnoreCase(value) < 0;
+            case GREATER_THAN_EQUALS:
+                return row -> names[row].compareToIgnoreCase(value) >= 0;
+            case LESS_THAN_EQUALS:
+                return row -> names[row].compareToIgnoreCase(value) <= 0;
+            case EQUALS:
+                return row -> names[row].compareToIgnoreCase(value) == 0;
+            case NOT_EQUALS:
+                return row -> names[row].compareToIgnoreCase(value) != 0;
+            case CONTAINS:
+                return row -> names[row].contains(value);
+            case FUZZY:
+                return bindFuzzy(catalog, context);
+            default:
+                throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+    }
+
+    /**
+     * Binds a fuzzy name clause. The close names are looked up in the catalog's name index
+     * once, so each row only needs a set lookup rather than an edit distance computation.
+     * @param catalog the catalog the rows belong to
+     * @param context the query's deadline and cancellation token, checked during the lookup
+     * @return the row predicate
+     */
+    private IntPredicate bindFuzzy(GameCatalog catalog, QueryContext context) {
+        String[] names = catalog.names();
+        Set<String> matches = new HashSet<>(catalog.nameIndex()
+                .search(value, BKTree.defaultTolerance(value.length()), context));
+        return row -> matches.contains(names[row]);
+    }
+
+    /**
+     * Binds a clause on a double column.
+     * @param values the column values, indexed by row
+     * @param target the value to compare against
+     * @return the row predicate
+     */
+    private IntPredicate bindDouble(double[] values, double target) {
+        switch (operator) {
+            case GREATER_THAN:
+                return row -> Double.compare(values[row], target) > 0;
+            case LESS_THAN:
+                return row -> Double.compare(values[row], target) < 0;
+            case GREATER_THAN_EQUALS:
+                return row -> Double.compare(values[row], target) >= 0;
+            case LESS_THAN_EQUALS:
+                return row -> Double.compare(values[row], target) <= 0;
+            case EQUALS:
+                return row -> Double.compare(values[row], target) == 0;
+            case NOT_EQUALS:
+                return row -> Double.compare(values[row], target) != 0;
+            default:
+                throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+    }
+
+    /**
+     * Binds a clause on an int column.
+     * @param values the column values, indexed by row
+     * @param target the value to compare against
+     * @return the row predicate
+     */
+    private IntPredicate bindInt(int[] values, int target) {
+        switch (operator) {
+            case GREATER_THAN:
+                return row -> values[row] > target;
+            case LESS_THAN:
+                return row -> values[row] < target;
+            case GREATER_THAN_EQUALS:
+                return row -> values[row] >= target;
+            case LESS_THAN_EQUALS:
+                return row -> values[row] <= target;
+            case EQUALS:
+                return row -> values[row] == target;
+            case NOT_EQUALS:
+                return row -> values[row] != target;
+            default:
+                throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+    }
+
+    /**
+     * Checks whether another clause matches exactly the same games, as far as can be told
+     * from the text: the same column or range, operator and canonical value.
+     * @param obj the other object
+     * @return true if the clauses are the same
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof FilterClause && key.equals(((FilterClause) obj).key);
+    }
+
+    /**
+     * Gets a hash code consistent with equals.
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    /**
+     * Gets the clause as filter text.
+     * @return the clause, such as {@code minplayers>4}
+     */
+    @Override
+    public String toString() {
+        String field = range != null ? range.getFilterName() : column.getColumnName();
+        return field + operator.getOperator() + value;
+    }
+}
@@ -0,0 +1,305 @@
+package student;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable, column oriented snapshot of a board game collection.
+ * Every game is given a row number, and each numeric column is stored as a primitive array
+ * indexed by row. Filters and aggregates can then run over the arrays directly, and
+ * a set of matching games can be represented as a BitSet of rows.
+ * Rows are ordered by name (ignoring case, then by id), so walking a set of rows in order
+ * already gives the default name sort.
+ */
+public final class GameCatalog {
+    /** The games, indexed by row. */
+    private final BoardGame[] games;
+    /** The case-folded names, indexed by row. */
+    private final String[] names;
+    /** The integer columns, indexed by row. */
+    private final Map<GameData, int[]> intColumns = new EnumMap<>(GameData.class);
+    /** The double columns, indexed by row. */
+    private final Map<GameData, double[]> doubleColumns = new EnumMap<>(GameData.class);
+    /** Rows in ascending order of each column (by ordinal), built the first time a column is sorted on. */
+    private final AtomicReferenceArray<int[]> orders = new AtomicReferenceArray<>(GameData.values().length);
+    /** Index over the case-folded names, built on the first fuzzy lookup. */
+    private volatile BKTree nameIndex;
+    /** Index over the game features, built on the first similarity search. */
+    private volatile KdTree similarityIndex;
+    /** Each id shifted into the high half with its row in the low half, sorted, built on the first id lookup. */
+    private volatile long[] idIndex;
+    /** Interval trees over each range (by ordinal), built on the first range filter. */
+    private final AtomicReferenceArray<IntervalTree> rangeIndexes =
+            new AtomicReferenceArray<>(GameRange.values().length);
+
+    /**
+     * Builds a catalog from a collection of games.
+     * @param games the games to store
+     */
+    public GameCatalog(Collection<BoardGame> games) {
+        this.games = games.stream()
+                .sorted(Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparingInt(BoardGame::getId))
+                .toArray(BoardGame[]::new);
+        int size = this.games.length;
+        names = new String[size];
+        for (GameData col : GameData.values()) {
+            if (isDouble(col)) {
+                doubleColumns.put(col, new double[size]);
+            } else if (col != GameData.NAME) {
+                intColumns.put(col, new int[size]);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            BoardGame game = this.games[row];
+            names[row] = game.getName().toLowerCase();
+            intColumns.get(GameData.ID)[row] = game.getId();
+            for (Map.Entry<GameData, int[]> column : intColumns.entrySet()) {
+                if (column.getKey() != GameData.ID) {
+                    column.getValue()[row] = game.getNumericValueInt(column.getKey());
+                }
+            }
+            for (Map.Entry<GameData, double[]> column : doubleColumns.entrySet()) {
+                column.getValue()[row] = game.getNumericValueDouble(column.getKey());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of games in the catalog.
+     * @return the number of rows
+     */
+    public int size() {
+        return games.length;
+    }
+
+    /**
+     * Gets the game stored at a row.
+     * @param row the row number
+     * @return the game at that row
+     */
+    public BoardGame game(int row) {
+        return games[row];
+    }
+
+    /**
+     * Gets a new BitSet with every row of the catalog set.
+     * @return a BitSet of all rows
+     */
+    public BitSet allRows() {
+        BitSet rows = new BitSet(games.length);
+        rows.set(0, games.length);
+        return rows;
+    }
+
+    /**
+     * Finds the row of a game by name, ignoring case.
+     * Rows are in name order, so this is a binary search.
+     * @param name the name of the game
+     * @return the first row with that name, or -1 if there is none
+     */
+    public int rowOf(String name) {
+        int lo = 0;
+        int hi = games.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(games[mid].getName(), name) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < games.length && games[lo].getName().equalsIgnoreCase(name) ? lo : -1;
+    }
+
+    /**
+     * Finds the row of a game by id.
+     * The first call builds a sorted index of the ids, and each lookup is a binary search.
+     * As with the name index, concurrent first calls may build the same index twice.
+     * @param id the id of the game
+     * @return the row with that id, or -1 if there is none
+     */
+    public int rowOfId(int id) {
+        long[] index = idIndex;
+        if (index == null) {
+            int[] ids = intColumn(GameData.ID);
+            index = new long[ids.length];
+            for (int row = 0; row < ids.length; row++) {
+                index[row] = ((long) ids[row] << 32) | row;
+            }
+            Arrays.sort(index);
+            idIndex = index;
+        }
+        int pos = Arrays.binarySearch(index, (long) id << 32);
+        if (pos < 0) {
+            pos = -pos - 1;
+        }
+        return pos < index.length && (int) (index[pos] >> 32) == id ? (int) index[pos] : -1;
+    }
+
+    /**
+     * Checks whether a column holds double values (as opposed to ints or the name).
+     * @param col the column
+     * @return true for rating and difficulty
+     */
+    static boolean isDouble(GameData col) {
+        return col == GameData.RATING || col == GameData.DIFFICULTY;
+    }
+
+    /**
+     * Gets the case-folded names column. The array is shared, and must not be modified.
+     * @return the names, indexed by row
+     */
+    String[] names() {
+        return names;
+    }
+
+    /**
+     * Gets an integer column. The array is shared, and must not be modified.
+     * @param col the column, anything other than name, rating or difficulty
+     * @return the values, indexed by row
+     * @throws IllegalArgumentException if the column is not an integer column
+     */
+    int[] intColumn(GameData col) {
+        int[] column = intColumns.get(col);
+        if (column == null) {
+            throw new IllegalArgumentException("Invalid column: " + col);
+        }
+        return column;
+    }
+
+    /**
+     * Gets a double column. The array is shared, and must not be modified.
+     * @param col the column, rating or difficulty
+     * @return the values, indexed by row
+     * @throws IllegalArgumentException if the column is not a double column
+     */
+    double[] doubleColumn(GameData col) {
+        double[] column = doubleColumns.get(col);
+        if (column == null) {
+            throw new IllegalArgumentException("Invalid column: " + col);
+        }
+        return column;
+    }
+
+    /**
+     * Gets the value of any numeric column at a row, widened to a double.
+     * @param col the numeric column
+     * @param row the row number
+     * @return the value
+     */
+    double numericValue(GameData col, int row) {
+        return isDouble(col) ? doubleColumn(col)[row] : intColumn(col)[row];
+    }
+
+    /**
+     * Gets the index over the case-folded names, building it on first use.
+     * Concurrent first calls may each build an index, but they are identical and
+     * only one is kept.
+     * @return the name index
+     */
+    BKTree nameIndex() {
+        BKTree index = nameIndex;
+        if (index == null) {
+            index = new BKTree(Arrays.asList(names));
+            nameIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the k-d tree over the game features, building it on first use.
+     * As with the name index, concurrent first calls may build the same tree twice.
+     * @return the similarity index
+     */
+    KdTree similarityIndex() {
+        KdTree index = similarityIndex;
+        if (index == null) {
+            index = new KdTree(this);
+            similarityIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the interval tree over a range, building it on first use.
+     * As with the name index, concurrent first calls may build the same tree twice.
+     * @param range the range
+     * @return the interval tree over that range's columns
+     */
+    IntervalTree rangeIndex(GameRange range) {
+        IntervalTree index = rangeIndexes.get(range.ordinal());
+        if (index == null) {
+            index = IntervalTree.of(this, range);
+            rangeIndexes.set(range.ordinal(), index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds every lazy index now rather than on first use: the column orders, the range
+     * trees, the name and similarity indexes and the id index. Warming a catalog before it
+     * is published means the first queries against it do not pay for the builds.
+     */
+    void warm() {
+        for (GameData col : GameData.values()) {
+            if (col != GameData.ID) {
+                order(col);
+            }
+        }
+        for (GameRange range : GameRange.values()) {
+            rangeIndex(range);
+        }
+        nameIndex();
+        similarityIndex();
+        rowOfId(0);
+    }
+
+    /**
+     * Gets the rows in ascending order of a column, computing the order on first use.
+     * Ties keep their name order, as the sort is stable over the rows.
+     * As with the name index, concurrent first calls may compute the same order twice.
+     * The array is shared, and must not be modified.
+     * @param col the column to order by
+     * @return the row numbers in ascending order of the column
+     * @throws IllegalArgumentException if the column cannot be sorted on
+     */
+    int[] order(GameData col) {
+        if (col == GameData.ID) {
+            throw new IllegalArgumentException("Invalid column: " + col);
+        }
+        int[] order = orders.get(col.ordinal());
+        if (order == null) {
+            order = computeOrder(col);
+            orders.set(col.ordinal(), order);
+        }
+        return order;
+    }
+
+    /**
+     * Computes the ascending order of the rows on a column.
+     * @param col the column to order by
+     * @return the row numbers in ascending order
+     */
+    private int[] computeOrder(GameData col) {
+        if (col == GameData.NAME) {
+            return IntStream.range(0, games.length).toArray();
+        }
+        Comparator<Integer> comparator;
+        if (isDouble(col)) {
+            double[] values = doubleColumn(col);
+            comparator = (r1, r2) -> Double.compare(values[r1], values[r2]);
+        } else {
+            int[] values = intColumn(col);
+            comparator = (r1, r2) -> Integer.compare(values[r1], values[r2]);
+        }
+        return IntStream.range(0, games.length).boxed().sorted(comparator)
+                .mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,227 @@
+package student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes games with every column to a file, as CSV or as JSON Lines (one JSON object per
+ * line), encoded as UTF-8.
+ * <p>
+ * Export is streaming, so a result of any size is written without holding it in memory.
+ * Each row is appended to one reused StringBuilder, whose number appends write digits in
+ * place, and is then encoded by hand straight into a large direct buffer. The buffer is
+ * written to the file channel only when full, so each write hands the disk a big block and
+ * nothing per row is allocated beyond the builder's own storage.
+ * <p>
+ * The CSV header uses the column names of the collection file ({@link GameData}), in enum
+ * order, and names holding a comma, quote or line break are quoted. JSON Lines rows have
+ * the same fields as the server's JSON ({@link Json#game}).
+ */
+public final class GameExporter implements AutoCloseable {
+    /** Size of the output buffer. */
+    static final int BUFFER_SIZE = 1 << 20;
+    /** The columns, in the order written; {@link #csv} follows the same order. */
+    private static final GameData[] COLUMNS = GameData.values();
+
+    /** The output formats. */
+    public enum Format {
+        /** Comma separated values with a header row. */
+        CSV,
+        /** One JSON object per line. */
+        JSON_LINES;
+
+        /**
+         * Picks the format from a file name: JSON Lines for .jsonl and .json files, CSV otherwise.
+         * @param file the file
+         * @return the format
+         */
+        public static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".jsonl") || name.endsWith(".json") ? JSON_LINES : CSV;
+        }
+    }
+
+    /** The file being written. */
+    private final FileChannel channel;
+    /** The output format. */
+    private final Format format;
+    /** The encoded bytes waiting to be written. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /** The row being built. */
+    private final StringBuilder row = new StringBuilder(256);
+    /** The number of games written. */
+    private long count;
+
+    /**
+     * Constructor for an exporter writing to an open file.
+     * @param channel the file
+     * @param format the output format
+     */
+    private GameExporter(FileChannel channel, Format format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    /**
+     * Opens a file for export, replacing it if it exists, and writes the CSV header if needed.
+     * @param file the file
+     * @param format the output format
+     * @return the exporter
+     * @throws IOException if the file cannot be opened or written
+     */
+    public static GameExporter open(Path file, Format format) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        GameExporter exporter = new GameExporter(channel, format);
+        if (format == Format.CSV) {
+            for (GameData column : COLUMNS) {
+                exporter.row.append(column.getColumnName()).append(',');
+            }
+            exporter.row.setLength(exporter.row.length() - 1);
+            exporter.endRow();
+        }
+        return exporter;
+    }
+
+    /**
+     * Exports games to a file, replacing it if it exists.
+     * @param games the games, in the order to write them
+     * @param file the file
+     * @param format the output format
+     * @return the number of games written
+     * @throws IOException if the file cannot be written
+     */
+    public static long export(Stream<BoardGame> games, Path file, Format format) throws IOException {
+        try (GameExporter exporter = open(file, format)) {
+            Iterator<BoardGame> it = games.iterator();
+            while (it.hasNext()) {
+                exporter.write(it.next());
+            }
+            return exporter.count();
+        }
+    }
+
+    /**
+     * Writes one game.
+     * @param game the game
+     * @throws IOException if the file cannot be written
+     */
+    public void write(BoardGame game) throws IOException {
+        if (format == Format.JSON_LINES) {
+            Json.game(row, game);
+        } else {
+            csv(game);
+        }
+        endRow();
+        count++;
+    }
+
+    /**
+     * Gets the number of games written so far.
+     * @return the count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Writes out whatever is buffered and closes the file.
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            drain();
+        }
+    }
+
+    /**
+     * Appends a game to the row as CSV, in the column order of the header.
+     * @param game the game
+     */
+    private void csv(BoardGame game) {
+        quoted(game.getName());
+        row.append(',').append(game.getId())
+                .append(',').append(game.getRating())
+                .append(',').append(game.getDifficulty())
+                .append(',').append(game.getRank())
+                .append(',').append(game.getMinPlayers())
+                .append(',').append(game.getMaxPlayers())
+                .append(',').append(game.getMinPlayTime())
+                .append(',').append(game.getMaxPlayTime())
+                .append(',').append(game.getYearPublished());
+    }
+
+    /**
+     * Appends a CSV field, in quotes with quotes doubled if it holds a comma, quote or line break.
+     * @param value the field
+     */
+    private void quoted(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /**
+     * Ends the row with a newline, encodes it as UTF-8 into the buffer, and empties it.
+     * @throws IOException if the buffer fills and cannot be written
+     */
+    private void endRow() throws IOException {
+        row.append('\n');
+        for (int i = 0; i < row.length(); i++) {
+            if (buffer.remaining() < 4) {
+                drain();
+            }
+            char c = row.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < row.length()
+                    && Character.isLowSurrogate(row.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, row.charAt(++i));
+                buffer.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                        .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // an unpaired surrogate, as the standard encoder replaces it
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F))
+                        .put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        row.setLength(0);
+    }
+
+    /**
+     * Writes the buffered bytes to the file.
+     * @throws IOException if the file cannot be written
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
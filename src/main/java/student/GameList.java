@@ -3,9 +3,12 @@ package student;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -13,18 +16,89 @@ import java.util.stream.Stream;
  * Implementation of the IGameList interface.
  * This class manages a list of BoardGame objects and provides various methods to manipulate
  * and query the list.
+ * <p>
+ * The games are kept permanently sorted by name, ignoring case, in an order-statistic tree
+ * ({@link OrderedGames}), so showing the list is a walk rather than a sort, and removing by
+ * number or range acts on the same sorted numbering the user sees, in O(log n). A hash trie
+ * of the games' ids ({@link IdTrie}) sits alongside, so checking whether a game is already
+ * on the list is a primitive lookup rather than a walk down the tree comparing names. Games
+ * are the same game when their ids are equal.
+ * <p>
+ * The tree and the trie are both persistent, so {@link #copy()} takes constant time, and
+ * the copies share their games and ids until one of them changes, and then only the changed
+ * paths are copied. Union, intersection and difference with another list reuse the parts
+ * of either tree they leave alone rather than copying whole lists, and the games they add
+ * or remove are picked out during the tree operation, so keeping the ids and the journal
+ * up to date costs no more than the number of games that changed.
+ * <p>
+ * A list restored from a {@link GameListJournal} records every change to it there.
  */
 public class GameList implements IGameList {
 
-    /** The list of BoardGame objects being managed. */
-    private List<BoardGame> games;
+    /** The BoardGame objects being managed, in sorted order. */
+    private final OrderedGames games;
+    /** The ids of the games in the list. */
+    private final IdTrie ids;
+    /** The journal changes are recorded to, or null if the list is not persisted. */
+    private GameListJournal journal;
+    /** Gets the name index of the catalog the games come from, or null if none was given. */
+    private Supplier<BKTree> nameIndex;
+    /** The names offered to the list, indexed on the first miss when there is no catalog index. */
+    private BKTree offeredIndex;
+    /** The case-folded names in offeredIndex, so each name is only indexed once. */
+    private Set<String> offeredNames;
 
     /**
      * Constructor for the GameList.
      * Initializes an empty list of BoardGame objects.
      */
     public GameList() {
-        this.games = new ArrayList<>();
+        this.games = new OrderedGames();
+        this.ids = new IdTrie();
+    }
+
+    /**
+     * Constructor for a GameList holding some games already.
+     * @param games the games to start with.
+     */
+    GameList(List<BoardGame> games) {
+        this();
+        addAll(games.stream());
+    }
+
+    /**
+     * Constructor for a GameList over a tree of games and their ids.
+     * @param games the games.
+     * @param ids the ids of the games.
+     */
+    private GameList(OrderedGames games, IdTrie ids) {
+        this.games = games;
+        this.ids = ids;
+    }
+
+    /**
+     * Attaches a journal, which every later change to the list is recorded to.
+     * @param journal the journal.
+     */
+    void setJournal(GameListJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets where to find the name index of the catalog the list's games come from, which is
+     * searched to suggest a name when one is not found. Copies of the list use it too.
+     * @param nameIndex gets the catalog's current name index.
+     */
+    void setNameIndex(Supplier<BKTree> nameIndex) {
+        this.nameIndex = nameIndex;
+    }
+
+    /**
+     * Gets where to find the name index of the catalog the list's games come from.
+     * @return the name index source, or null if none was set.
+     */
+    Supplier<BKTree> getNameIndex() {
+        return nameIndex;
     }
 
     /**
@@ -33,11 +107,8 @@ public class GameList implements IGameList {
      */
     @Override
     public List<String> getGameNames() {
-        List<String> gameNames = new ArrayList<>();
-        for (BoardGame game : games) {
-            gameNames.add(game.getName());
-        }
-        gameNames.sort(String.CASE_INSENSITIVE_ORDER);
+        List<String> gameNames = new ArrayList<>(games.size());
+        games.forEach(game -> gameNames.add(game.getName()));
         return gameNames;
     }
 
@@ -55,57 +126,145 @@ public class GameList implements IGameList {
             throw new IllegalArgumentException("Invalid game name");
         }
 
+        if (str.equalsIgnoreCase(IGameList.ADD_ALL)) {
+            addAll(filtered);
+            return;
+        }
+
         List<BoardGame> filteredGames = filtered.collect(Collectors.toList());
 
-        if (str.equalsIgnoreCase(IGameList.ADD_ALL)) {
-            for (BoardGame game : filteredGames) {
-                if (!games.contains(game)) {
-                    games.add(game);
-                }
-            }
-        } else if (str.matches("\\d+-\\d+")) {
+        if (str.matches("\\d+-\\d+")) {
             String[] parts = str.split("-");
             int start = Integer.parseInt(parts[0]) - 1;
             int end = Integer.parseInt(parts[1]) - 1;
             if (start < 0 || end >= filteredGames.size() || start > end) {
                 throw new IllegalArgumentException("Invalid range");
             }
-            for (int i = start; i <= end; i++) {
-                BoardGame game = filteredGames.get(i);
-                if (!games.contains(game)) {
-                    games.add(game);
-                }
-            }
+            List<BoardGame> range = filteredGames.subList(start, end + 1);
+            addAll(range.stream());
         } else if (str.matches("\\d+")) {
             int index = Integer.parseInt(str) - 1;
             if (index < 0 || index >= filteredGames.size()) {
                 throw new IllegalArgumentException("Invalid index");
             }
-            BoardGame game = filteredGames.get(index);
-            if (!games.contains(game)) {
-                games.add(game);
-            }
+            add(filteredGames.get(index));
         } else {
             boolean found = false;
             for (BoardGame game : filteredGames) {
                 if (game.getName().equalsIgnoreCase(str.trim())) {
-                    if (!games.contains(game)) {
-                        games.add(game);
-                    }
+                    add(game);
                     found = true;
                     break;
                 }
             }
             if (!found) {
-                throw new IllegalArgumentException("Game not found in the filtered list: " + str);
+                throw new GameNotFoundException("Game not found in the filtered list: " + str,
+                        suggest(str.trim(), filteredGames));
+            }
+        }
+    }
+
+    /**
+     * Adds a game unless a game with the same id is already on the list.
+     * @param game the game to add.
+     */
+    private void add(BoardGame game) {
+        if (ids.contains(game.getId())) {
+            return;
+        }
+        games.add(game);
+        ids.add(game.getId());
+        if (journal != null) {
+            journal.added(List.of(game));
+        }
+    }
+
+    /**
+     * Merges games into the list, skipping those already on it. The games are gathered in
+     * one pass and merged into the sorted tree together.
+     * @param source the games to add.
+     */
+    private void addAll(Stream<BoardGame> source) {
+        List<BoardGame> fresh = new ArrayList<>();
+        source.forEachOrdered(game -> {
+            if (ids.add(game.getId())) {
+                fresh.add(game);
             }
+        });
+        games.addAbsent(fresh);
+        if (journal != null) {
+            journal.added(fresh);
         }
     }
 
+    /**
+     * Removes a range of positions in the sorted order.
+     * @param from the first position to remove.
+     * @param to one past the last position to remove.
+     */
+    private void removeRange(int from, int to) {
+        forget(games.removeRange(from, to));
+    }
+
+    /**
+     * Finds the name of the game closest to a name that was not found, for a "did you mean" prompt.
+     * Only the few names a name index finds within the tolerance are measured, and the
+     * closest of them that is among the candidates wins. The index is the catalog's if the
+     * list has one, and otherwise the list's own index of the names it has been offered.
+     * @param name the name that was not found.
+     * @param candidates the games that could have been meant.
+     * @return the original (not case-folded) name of the closest game, or null if none is close.
+     */
+    private String suggest(String name, List<BoardGame> candidates) {
+        int tolerance = BKTree.defaultTolerance(name.length());
+        String query = name.toLowerCase();
+        String closest = null;
+        int best = tolerance + 1;
+        BKTree index = nameIndex != null ? nameIndex.get() : offeredIndex(candidates);
+        List<String> hits = index.search(query, tolerance);
+        if (hits.isEmpty()) {
+            return null;
+        }
+        int[] distances = new int[hits.size()];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = BKTree.distance(query, hits.get(i));
+        }
+        for (BoardGame game : candidates) {
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] < best && game.getName().equalsIgnoreCase(hits.get(i))) {
+                    best = distances[i];
+                    closest = game.getName();
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Gets the list's own index of the names it has been offered, adding any candidates not
+     * indexed yet. Each name is measured against the tree once, the first time it is offered,
+     * so later misses over the same games only pay for set lookups.
+     * @param candidates the games that could have been meant.
+     * @return the index.
+     */
+    private BKTree offeredIndex(List<BoardGame> candidates) {
+        if (offeredIndex == null) {
+            offeredIndex = new BKTree(List.of());
+            offeredNames = new HashSet<>();
+        }
+        for (BoardGame game : candidates) {
+            String folded = game.getName().toLowerCase();
+            if (offeredNames.add(folded)) {
+                offeredIndex.add(folded);
+            }
+        }
+        return offeredIndex;
+    }
+
     /**
      * Removes games from the list based on the specified criteria.
-     * The criteria can be a game name, a number indicating the position in the list,
-     * a range of numbers, or "all" to remove all games.
+     * The criteria can be a game name, a number indicating the position in the list as
+     * shown by getGameNames, a range of such numbers, or "all" to remove all games.
      * @param str the criteria for removing games.
      * @throws IllegalArgumentException if the criteria is invalid or the game is not found.
      */
@@ -116,7 +275,7 @@ public class GameList implements IGameList {
         }
 
         if (str.equalsIgnoreCase(IGameList.ADD_ALL)) {
-            games.clear();
+            clear();
         } else if (str.matches("\\d+-\\d+")) {
             String[] parts = str.split("-");
             int start = Integer.parseInt(parts[0]) - 1;
@@ -124,28 +283,19 @@ public class GameList implements IGameList {
             if (start < 0 || end >= games.size() || start > end) {
                 throw new IllegalArgumentException("Invalid range");
             }
-            for (int i = end; i >= start; i--) {
-                games.remove(i);
-            }
+            removeRange(start, end + 1);
         } else if (str.matches("\\d+")) {
             int index = Integer.parseInt(str) - 1;
             if (index < 0 || index >= games.size()) {
                 throw new IllegalArgumentException("Invalid index");
             }
-            games.remove(index);
+            removeRange(index, index + 1);
         } else {
-            boolean found = false;
-            for (Iterator<BoardGame> iterator = games.iterator(); iterator.hasNext();) {
-                BoardGame game = iterator.next();
-                if (game.getName().equalsIgnoreCase(str.trim())) {
-                    iterator.remove();
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
+            int index = games.indexOfName(str.trim());
+            if (index < 0) {
                 throw new IllegalArgumentException("Game not found in the list: " + str);
             }
+            removeRange(index, index + 1);
         }
     }
 
@@ -155,18 +305,77 @@ public class GameList implements IGameList {
     @Override
     public void clear() {
         games.clear();
+        ids.clear();
+        if (journal != null) {
+            journal.cleared();
+        }
+    }
+
+    /**
+     * Makes a copy of the list in constant time. The copy is independent: changing either
+     * list leaves the other as it was. The copy is not recorded to this list's journal.
+     * @return the copy.
+     */
+    public GameList copy() {
+        GameList copy = new GameList(games.copy(), ids.copy());
+        copy.nameIndex = nameIndex;
+        return copy;
+    }
+
+    /**
+     * Adds every game on another list that is not already on this one.
+     * @param other the other list, which is not changed.
+     */
+    public void union(GameList other) {
+        List<BoardGame> added = games.union(other.games);
+        for (BoardGame game : added) {
+            ids.add(game.getId());
+        }
+        if (journal != null) {
+            journal.added(added);
+        }
+    }
+
+    /**
+     * Keeps only the games that are also on another list.
+     * @param other the other list, which is not changed.
+     */
+    public void intersect(GameList other) {
+        forget(games.intersect(other.games));
+    }
+
+    /**
+     * Removes every game that is on another list.
+     * @param other the other list, which is not changed.
+     */
+    public void difference(GameList other) {
+        forget(games.difference(other.games));
+    }
+
+    /**
+     * Takes the ids of games removed from the tree out of the id trie, and records the
+     * removal to the journal.
+     * @param removed the games removed.
+     */
+    private void forget(List<BoardGame> removed) {
+        for (BoardGame game : removed) {
+            ids.remove(game.getId());
+        }
+        if (journal != null) {
+            journal.removed(removed);
+        }
     }
 
     /**
      * Saves the list of games to a file.
      * The contents of the file will be each game name on a new line. It will
-     * overwrite the file if it already exists.
+     * overwrite the file if it already exists. The file is written as UTF-8.
      * Saves them in the same order as getGameNames.
      * @param filename The name of the file to save the list to.
      */
     @Override
     public void saveGame(String filename) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename, StandardCharsets.UTF_8))) {
             List<String> gameNames = getGameNames();
             for (String name : gameNames) {
                 writer.write(name);
@@ -188,11 +397,11 @@ public class GameList implements IGameList {
     }
 
     /**
-     * Returns a copy of the list of BoardGames.
+     * Returns a copy of the list of BoardGames, in the same order as getGameNames.
      * This method is primarily for testing purposes.
      * @return a copy of the list of BoardGames.
      */
     List<BoardGame> getGames() {
-        return new ArrayList<>(games);
+        return games.toList();
     }
 }
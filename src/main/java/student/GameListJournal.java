@@ -0,0 +1,403 @@
+package student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Crash safe persistence for a GameList: a snapshot of game ids plus an append-only
+ * journal of the changes made since.
+ * <p>
+ * Every add, remove and clear is appended to the journal as one record, checksummed with
+ * CRC32C, and forced to disk before the call returns. When the journal grows past twice
+ * the size of the snapshot it is compacted: the current ids are written to a new snapshot
+ * file, forced, and renamed over the old one atomically, and the journal starts again
+ * empty. Both files carry a generation number, so a journal left over from a crash part
+ * way through compaction is recognised as already included in the snapshot and skipped.
+ * <p>
+ * On reload the snapshot is read in one go, and the journal is replayed up to its last
+ * complete record; a record torn by a crash fails its checksum, and is cut off.
+ * <p>
+ * Files in the directory:
+ * <ul>
+ *     <li>{@code list.snapshot} - magic, format version, generation, id count, the ids,
+ *     and a checksum of all of it.</li>
+ *     <li>{@code list.journal} - magic, format version and generation, then records of
+ *     payload length, type (add, remove or clear), the ids, and a checksum of type and ids.</li>
+ * </ul>
+ */
+public final class GameListJournal implements AutoCloseable {
+    /** Snapshot file name. */
+    static final String SNAPSHOT_FILE = "list.snapshot";
+    /** Journal file name. */
+    static final String JOURNAL_FILE = "list.journal";
+    /** Marks a snapshot file. */
+    private static final int SNAPSHOT_MAGIC = 0x42474C53;
+    /** Marks a journal file. */
+    private static final int JOURNAL_MAGIC = 0x42474C4A;
+    /** Format version of both files. */
+    private static final int FORMAT_VERSION = 1;
+    /** Bytes in the snapshot header: magic, version, generation and id count. */
+    private static final int SNAPSHOT_HEADER = 20;
+    /** Bytes in the journal header: magic, version and generation. */
+    private static final int JOURNAL_HEADER = 16;
+    /** Journal size below which there is no point compacting. */
+    private static final long MIN_COMPACT_BYTES = 64 * 1024;
+    /** Record type: games added. */
+    private static final byte ADD = 1;
+    /** Record type: games removed. */
+    private static final byte REMOVE = 2;
+    /** Record type: the list cleared. */
+    private static final byte CLEAR = 3;
+
+    /** The directory holding the files. */
+    private final Path dir;
+    /** The ids on the list, kept in step with the records written. */
+    private final IdSet ids;
+    /** The open journal. */
+    private FileChannel journal;
+    /** The generation of the snapshot and journal. */
+    private long generation;
+    /** The size of the last snapshot written or read, in bytes. */
+    private long snapshotBytes;
+    /** True once a list has been restored from the journal. */
+    private boolean attached;
+
+    /**
+     * Constructor for an opened journal.
+     * @param dir the directory holding the files
+     * @param ids the recovered ids
+     * @param journal the open journal, positioned at its end
+     * @param generation the generation
+     * @param snapshotBytes the size of the snapshot
+     */
+    private GameListJournal(Path dir, IdSet ids, FileChannel journal, long generation, long snapshotBytes) {
+        this.dir = dir;
+        this.ids = ids;
+        this.journal = journal;
+        this.generation = generation;
+        this.snapshotBytes = snapshotBytes;
+    }
+
+    /**
+     * Opens the journal in a directory, creating the directory and files if needed, and
+     * recovers the ids on the list from the snapshot and journal.
+     * @param dir the directory
+     * @return the journal
+     * @throws IOException if the files cannot be read or written, or the snapshot is corrupt
+     */
+    public static GameListJournal open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        IdSet ids = new IdSet();
+        long generation = 0;
+        long snapshotBytes = 0;
+        Path snapshot = dir.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            snapshotBytes = buffer.capacity();
+            generation = readSnapshot(buffer, ids);
+        }
+
+        Path journalPath = dir.resolve(JOURNAL_FILE);
+        FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean current = false;
+        if (journal.size() >= JOURNAL_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER);
+            journal.read(header, 0);
+            header.flip();
+            current = header.getInt() == JOURNAL_MAGIC && header.getInt() == FORMAT_VERSION
+                    && header.getLong() == generation;
+        }
+        if (current) {
+            ByteBuffer records = ByteBuffer.allocate((int) (journal.size() - JOURNAL_HEADER));
+            while (records.hasRemaining() && journal.read(records, JOURNAL_HEADER + records.position()) >= 0) {
+                continue;
+            }
+            records.flip();
+            long end = JOURNAL_HEADER + replay(records, ids);
+            if (end < journal.size()) {
+                journal.truncate(end);
+                journal.force(true);
+            }
+        } else {
+            // missing, torn or stale (already compacted into the snapshot): start afresh
+            journal.truncate(0);
+            journal.write(journalHeader(generation), 0);
+            journal.force(true);
+        }
+        journal.position(journal.size());
+        return new GameListJournal(dir, ids, journal, generation, snapshotBytes);
+    }
+
+    /**
+     * Builds the recovered list over a catalog, and attaches the journal to it so that every
+     * change to the list is recorded. Ids no longer in the catalog are dropped.
+     * @param catalog the catalog to find the games in
+     * @return the list
+     * @throws IllegalStateException if a list has already been restored from this journal
+     */
+    public GameList restore(GameCatalog catalog) {
+        if (attached) {
+            throw new IllegalStateException("Journal already attached to a list");
+        }
+        List<BoardGame> games = new ArrayList<>(ids.size());
+        for (int id : ids.toArray()) {
+            int row = catalog.rowOfId(id);
+            if (row >= 0) {
+                games.add(catalog.game(row));
+            } else {
+                ids.remove(id);
+            }
+        }
+        GameList list = new GameList(games);
+        list.setJournal(this);
+        attached = true;
+        return list;
+    }
+
+    /**
+     * Gets the number of ids on the list.
+     * @return the number of games
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Gets the size of the journal file.
+     * @return the size in bytes
+     * @throws IOException if the file cannot be read
+     */
+    public long journalSize() throws IOException {
+        return journal.size();
+    }
+
+    /**
+     * Records games added to the list.
+     * @param games the games, none of which were on the list
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    void added(Collection<BoardGame> games) {
+        if (!games.isEmpty()) {
+            int[] batch = new int[games.size()];
+            int i = 0;
+            for (BoardGame game : games) {
+                batch[i++] = game.getId();
+                ids.add(game.getId());
+            }
+            append(ADD, batch);
+        }
+    }
+
+    /**
+     * Records games removed from the list.
+     * @param games the games, all of which were on the list
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    void removed(Collection<BoardGame> games) {
+        if (!games.isEmpty()) {
+            int[] batch = new int[games.size()];
+            int i = 0;
+            for (BoardGame game : games) {
+                batch[i++] = game.getId();
+                ids.remove(game.getId());
+            }
+            append(REMOVE, batch);
+        }
+    }
+
+    /**
+     * Records the list being cleared.
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    void cleared() {
+        ids.clear();
+        append(CLEAR, new int[0]);
+    }
+
+    /**
+     * Appends a record, forces it to disk, and compacts if the journal has grown large.
+     * @param type the record type
+     * @param batch the ids
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    private void append(byte type, int[] batch) {
+        ByteBuffer record = ByteBuffer.allocate(4 + 1 + batch.length * 4 + 4);
+        record.putInt(1 + batch.length * 4).put(type);
+        record.asIntBuffer().put(batch);
+        record.position(record.position() + batch.length * 4);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 4, 1 + batch.length * 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                journal.write(record);
+            }
+            journal.force(false);
+            if (journal.size() > MIN_COMPACT_BYTES && journal.size() > 2 * snapshotBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the list journal", e);
+        }
+    }
+
+    /**
+     * Writes the current ids to a new snapshot and starts an empty journal. Each file is
+     * written to a temporary file, forced, and renamed into place atomically, so a crash
+     * at any point leaves a readable snapshot and journal.
+     * @throws IOException if the files cannot be written
+     */
+    public void compact() throws IOException {
+        long next = generation + 1;
+        int[] current = ids.toArray();
+        ByteBuffer snapshot = ByteBuffer.allocate(SNAPSHOT_HEADER + current.length * 4 + 4);
+        snapshot.putInt(SNAPSHOT_MAGIC).putInt(FORMAT_VERSION).putLong(next).putInt(current.length);
+        snapshot.asIntBuffer().put(current);
+        snapshot.position(snapshot.position() + current.length * 4);
+        CRC32C crc = new CRC32C();
+        crc.update(snapshot.array(), 0, snapshot.position());
+        snapshot.putInt((int) crc.getValue());
+        snapshot.flip();
+        replaceFile(SNAPSHOT_FILE, snapshot);
+
+        // the old journal is now stale, as its generation no longer matches the snapshot
+        replaceFile(JOURNAL_FILE, journalHeader(next));
+        journal.close();
+        journal = FileChannel.open(dir.resolve(JOURNAL_FILE), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        journal.position(journal.size());
+        generation = next;
+        snapshotBytes = snapshot.capacity();
+    }
+
+    /**
+     * Closes the journal file. The list keeps working, but further changes fail.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    /**
+     * Writes a file through a temporary file, forcing it and renaming it into place.
+     * @param name the file name
+     * @param contents the contents
+     * @throws IOException if the file cannot be written
+     */
+    private void replaceFile(String name, ByteBuffer contents) throws IOException {
+        Path temp = dir.resolve(name + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (contents.hasRemaining()) {
+                out.write(contents);
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(temp, dir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory();
+    }
+
+    /**
+     * Forces the directory entry changes of a rename to disk, where the platform allows it.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every platform can open a directory; the rename is still atomic there
+        }
+    }
+
+    /**
+     * Builds a journal header.
+     * @param generation the generation
+     * @return the header, ready to write
+     */
+    private static ByteBuffer journalHeader(long generation) {
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER);
+        header.putInt(JOURNAL_MAGIC).putInt(FORMAT_VERSION).putLong(generation);
+        return header.flip();
+    }
+
+    /**
+     * Reads a snapshot.
+     * @param buffer the snapshot file contents
+     * @param ids receives the ids
+     * @return the generation
+     * @throws IOException if the snapshot is corrupt
+     */
+    private static long readSnapshot(ByteBuffer buffer, IdSet ids) throws IOException {
+        if (buffer.remaining() < SNAPSHOT_HEADER + 4 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException("Not a game list snapshot");
+        }
+        long generation = buffer.getLong();
+        int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() != count * 4L + 4) {
+            throw new IOException("Truncated game list snapshot");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, SNAPSHOT_HEADER + count * 4);
+        if (buffer.getInt(SNAPSHOT_HEADER + count * 4) != (int) crc.getValue()) {
+            throw new IOException("Corrupt game list snapshot");
+        }
+        ids.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(buffer.getInt());
+        }
+        return generation;
+    }
+
+    /**
+     * Replays journal records up to the first incomplete or corrupt one.
+     * @param records the records
+     * @param ids the ids to apply them to
+     * @return the number of bytes of good records
+     */
+    private static long replay(ByteBuffer records, IdSet ids) {
+        CRC32C crc = new CRC32C();
+        while (records.remaining() >= 4) {
+            int start = records.position();
+            int length = records.getInt();
+            if (length < 1 || (length - 1) % 4 != 0 || records.remaining() < length + 4L) {
+                return start;
+            }
+            crc.reset();
+            crc.update(records.array(), start + 4, length);
+            if (records.getInt(start + 4 + length) != (int) crc.getValue()) {
+                return start;
+            }
+            byte type = records.get();
+            int count = (length - 1) / 4;
+            if (type == CLEAR) {
+                ids.clear();
+            }
+            for (int i = 0; i < count; i++) {
+                int id = records.getInt();
+                if (type == ADD) {
+                    ids.add(id);
+                } else if (type == REMOVE) {
+                    ids.remove(id);
+                }
+            }
+            records.getInt();
+        }
+        return records.position();
+    }
+}
@@ -0,0 +1,172 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * One user's named game lists, such as "2-player nights", "party" and "learn next", with
+ * one of them current.
+ * <p>
+ * Lists are {@link GameList}s, whose games are held in a persistent tree, so copying a
+ * list to start another takes constant time, and combining two lists with union,
+ * intersection or difference shares the untouched parts of both instead of copying them.
+ * Names are matched ignoring case. This class is not thread safe.
+ */
+public final class GameLists {
+    /** The name of the list a user starts with. */
+    public static final String DEFAULT_NAME = "default";
+
+    /** The lists, by name. */
+    private final TreeMap<String, GameList> lists = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    /** The name of the current list, as first given. */
+    private String current;
+
+    /**
+     * Creates a set of lists holding one empty list, named default.
+     */
+    public GameLists() {
+        this(new GameList());
+    }
+
+    /**
+     * Creates a set of lists holding one existing list, named default.
+     * @param first the list
+     */
+    public GameLists(GameList first) {
+        lists.put(DEFAULT_NAME, first);
+        current = DEFAULT_NAME;
+    }
+
+    /**
+     * Gets the current list.
+     * @return the list
+     */
+    public GameList current() {
+        return lists.get(current);
+    }
+
+    /**
+     * Gets the name of the current list.
+     * @return the name
+     */
+    public String currentName() {
+        return current;
+    }
+
+    /**
+     * Gets the names of every list.
+     * @return the names, in ascending order ignoring case
+     */
+    public List<String> names() {
+        return new ArrayList<>(lists.keySet());
+    }
+
+    /**
+     * Gets a list by name.
+     * @param name the name
+     * @return the list
+     * @throws IllegalArgumentException if there is no list with that name
+     */
+    public GameList get(String name) {
+        GameList list = lists.get(checkName(name));
+        if (list == null) {
+            throw new IllegalArgumentException("No list named " + name);
+        }
+        return list;
+    }
+
+    /**
+     * Makes a list current, creating it empty if there is no list with that name.
+     * @param name the name
+     * @return the list
+     * @throws IllegalArgumentException if the name is blank
+     */
+    public GameList use(String name) {
+        GameList list = lists.computeIfAbsent(checkName(name), key -> {
+            GameList created = new GameList();
+            created.setNameIndex(current().getNameIndex());
+            return created;
+        });
+        current = canonical(name);
+        return list;
+    }
+
+    /**
+     * Starts a new list as a copy of the current one, in constant time. The current list
+     * stays current.
+     * @param name the name of the new list
+     * @return the new list
+     * @throws IllegalArgumentException if the name is blank or already taken
+     */
+    public GameList copy(String name) {
+        if (lists.containsKey(checkName(name))) {
+            throw new IllegalArgumentException("A list named " + name + " already exists");
+        }
+        GameList copy = current().copy();
+        lists.put(name.trim(), copy);
+        return copy;
+    }
+
+    /**
+     * Deletes a list.
+     * @param name the name
+     * @throws IllegalArgumentException if there is no list with that name, or it is current
+     */
+    public void delete(String name) {
+        get(name);
+        if (canonical(name).equals(current)) {
+            throw new IllegalArgumentException("Cannot delete the current list");
+        }
+        lists.remove(name.trim());
+    }
+
+    /**
+     * Adds the games of a list to the current list.
+     * @param name the name of the list to add
+     * @throws IllegalArgumentException if there is no list with that name
+     */
+    public void union(String name) {
+        current().union(get(name));
+    }
+
+    /**
+     * Keeps only the games of the current list that are also on another list.
+     * @param name the name of the other list
+     * @throws IllegalArgumentException if there is no list with that name
+     */
+    public void intersect(String name) {
+        current().intersect(get(name));
+    }
+
+    /**
+     * Removes the games of a list from the current list.
+     * @param name the name of the list to remove
+     * @throws IllegalArgumentException if there is no list with that name
+     */
+    public void difference(String name) {
+        current().difference(get(name));
+    }
+
+    /**
+     * Gets the name a list is stored under, which keeps the case it was first given in.
+     * @param name the name, in any case
+     * @return the stored name
+     */
+    private String canonical(String name) {
+        return lists.ceilingKey(name.trim());
+    }
+
+    /**
+     * Checks a list name is not blank.
+     * @param name the name
+     * @return the name, trimmed
+     * @throws IllegalArgumentException if the name is null or blank
+     */
+    private static String checkName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Invalid list name");
+        }
+        return name.trim();
+    }
+}
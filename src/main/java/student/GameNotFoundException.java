@@ -0,0 +1,31 @@
+package student;
+
+/**
+ * Thrown when a game is looked up by name and is not in the list being searched.
+ * When a similarly named game exists, it is carried along as a suggestion so the
+ * client can offer a "did you mean" prompt.
+ */
+public class GameNotFoundException extends IllegalArgumentException {
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+    /** The name of a close match, or null if there was none. */
+    private final String suggestion;
+
+    /**
+     * Constructor for the exception.
+     * @param message the detail message
+     * @param suggestion the name of a close match, or null if there was none
+     */
+    public GameNotFoundException(String message, String suggestion) {
+        super(message);
+        this.suggestion = suggestion;
+    }
+
+    /**
+     * Gets the name of a close match to the name that was not found.
+     * @return the suggested name, or null if there was none
+     */
+    public String getSuggestion() {
+        return suggestion;
+    }
+}
@@ -0,0 +1,206 @@
+package student;
+
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Publishes the games matching a filter in sorted order, only as fast as the subscriber
+ * asks for them.
+ * <p>
+ * Nothing is collected up front. Each subscription keeps a cursor into a row order and
+ * tests rows against the filter only when there is demand, so the first game is sent as
+ * soon as it is found and a slow subscriber never makes the results pile up in memory.
+ * For a name sort the cursor walks the candidate rows directly, as rows are already in
+ * name order; for any other column it walks the catalog's precomputed order of that column.
+ * <p>
+ * The publisher is cold: every subscriber gets its own cursor and all of the results.
+ * Games are sent on the thread that calls {@link Flow.Subscription#request}, which may be
+ * the subscriber's own onNext.
+ */
+final class GamePublisher implements Flow.Publisher<BoardGame> {
+    /** The catalog the rows belong to. */
+    private final GameCatalog catalog;
+    /** The rows that may match, which are not changed. */
+    private final BitSet candidates;
+    /** The test a candidate row must also pass to match. */
+    private final IntPredicate predicate;
+    /** The column to sort on. */
+    private final GameData sortOn;
+    /** True for ascending order. */
+    private final boolean ascending;
+
+    /**
+     * Creates a publisher.
+     * @param catalog the catalog the rows belong to
+     * @param candidates the rows that may match, which must not be changed afterwards
+     * @param predicate the test a candidate row must also pass to match
+     * @param sortOn the column to sort on, anything but ID
+     * @param ascending true for ascending order
+     */
+    GamePublisher(GameCatalog catalog, BitSet candidates, IntPredicate predicate, GameData sortOn, boolean ascending) {
+        this.catalog = catalog;
+        this.candidates = candidates;
+        this.predicate = predicate;
+        this.sortOn = sortOn;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Subscribes to the results. The subscriber is sent onSubscribe straight away, and then
+     * games as it requests them, followed by onComplete once there are no more.
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super BoardGame> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new Cursor(subscriber));
+    }
+
+    /**
+     * One subscriber's position in the results.
+     */
+    private final class Cursor implements Flow.Subscription {
+        /** Not yet looked for the next row. */
+        private static final int UNKNOWN = -2;
+        /** No rows left. */
+        private static final int END = -1;
+
+        /** The subscriber. */
+        private final Flow.Subscriber<? super BoardGame> subscriber;
+        /** The order being walked, or null to walk the candidates directly (the name order). */
+        private final int[] order;
+        /** Games requested but not yet sent. Long.MAX_VALUE means unbounded. */
+        private final AtomicLong demand = new AtomicLong();
+        /** Calls waiting to send, so only one thread sends at a time. */
+        private final AtomicInteger pending = new AtomicInteger();
+        /** True once cancelled, completed or failed. */
+        private volatile boolean done;
+        /** An invalid request, to be sent to the subscriber by the sending thread. */
+        private volatile IllegalArgumentException invalidRequest;
+        /** Where the walk carries on from: a row, or a position in order. */
+        private int position;
+        /** The next matching row, once found. */
+        private int next = UNKNOWN;
+
+        /**
+         * Constructor for a cursor at the start of the results.
+         * @param subscriber the subscriber
+         */
+        Cursor(Flow.Subscriber<? super BoardGame> subscriber) {
+            this.subscriber = subscriber;
+            this.order = sortOn == GameData.NAME ? null : catalog.order(sortOn);
+            int length = order == null ? catalog.size() : order.length;
+            this.position = ascending ? 0 : length - 1;
+        }
+
+        /**
+         * Asks for more games.
+         * @param n the number of games, which must be positive
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, more) -> current + more < 0 ? Long.MAX_VALUE : current + more);
+            }
+            drain();
+        }
+
+        /**
+         * Stops sending games.
+         */
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        /**
+         * Sends games while there is demand. A request made while another thread, or the
+         * subscriber's own onNext, is already sending is picked up by that sender instead.
+         */
+        private void drain() {
+            if (pending.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (invalidRequest != null && !done) {
+                    done = true;
+                    subscriber.onError(invalidRequest);
+                }
+                long requested = demand.get();
+                long sent = 0;
+                while (sent != requested && !done) {
+                    int row = peek();
+                    if (row == END) {
+                        break;
+                    }
+                    next = UNKNOWN;
+                    subscriber.onNext(catalog.game(row));
+                    sent++;
+                }
+                if (!done && peek() == END) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+                if (done) {
+                    return;
+                }
+                if (sent != 0 && requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-sent);
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Finds the next matching row without consuming it.
+         * @return the row, or END if there are none left
+         */
+        private int peek() {
+            if (next == UNKNOWN) {
+                next = order == null ? nextInNameOrder() : nextInOrder();
+            }
+            return next;
+        }
+
+        /**
+         * Walks the candidates, which are in name order.
+         * @return the next matching row, or END
+         */
+        private int nextInNameOrder() {
+            while (position >= 0) {
+                int row = ascending ? candidates.nextSetBit(position) : candidates.previousSetBit(position);
+                if (row < 0) {
+                    break;
+                }
+                position = ascending ? row + 1 : row - 1;
+                if (predicate.test(row)) {
+                    return row;
+                }
+            }
+            position = -1;
+            return END;
+        }
+
+        /**
+         * Walks the precomputed order of the sort column.
+         * @return the next matching row, or END
+         */
+        private int nextInOrder() {
+            while (position >= 0 && position < order.length) {
+                int row = order[position];
+                position += ascending ? 1 : -1;
+                if (candidates.get(row) && predicate.test(row)) {
+                    return row;
+                }
+            }
+            return END;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package student;
+
+/**
+ * Ranges stored as a pair of columns on each game, such as the minimum and maximum players.
+ * Filters on a range ask which games overlap a value or window, for example
+ * {@code players==5} for games that can be played with 5 players, or {@code time==45-90}
+ * for games whose play time overlaps 45 to 90 minutes. They are answered from an
+ * IntervalTree rather than two scans of the separate columns.
+ */
+enum GameRange {
+    /** The range of player counts a game supports. */
+    PLAYERS("players", GameData.MIN_PLAYERS, GameData.MAX_PLAYERS),
+    /** The range of play times of a game, in minutes. */
+    TIME("time", GameData.MIN_TIME, GameData.MAX_TIME);
+
+    /** The name used for the range in filters. */
+    private final String filterName;
+    /** The column holding the low end of the range. */
+    private final GameData low;
+    /** The column holding the high end of the range. */
+    private final GameData high;
+
+    /**
+     * Constructor for the ranges.
+     * @param filterName the name used for the range in filters
+     * @param low the column holding the low end of the range
+     * @param high the column holding the high end of the range
+     */
+    GameRange(String filterName, GameData low, GameData high) {
+        this.filterName = filterName;
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Gets the name used for the range in filters.
+     * @return the filter name
+     */
+    String getFilterName() {
+        return filterName;
+    }
+
+    /**
+     * Gets the column holding the low end of the range.
+     * @return the low column
+     */
+    GameData getLow() {
+        return low;
+    }
+
+    /**
+     * Gets the column holding the high end of the range.
+     * @return the high column
+     */
+    GameData getHigh() {
+        return high;
+    }
+
+    /**
+     * Gets the range from its filter name, ignoring case. playtime is accepted for time.
+     * @param name the name used in the filter
+     * @return the matching range, or null if the name is not a range
+     */
+    static GameRange fromFilterName(String name) {
+        for (GameRange range : GameRange.values()) {
+            if (range.filterName.equalsIgnoreCase(name)) {
+                return range;
+            }
+        }
+        return "playtime".equalsIgnoreCase(name) ? TIME : null;
+    }
+}
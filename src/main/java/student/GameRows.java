@@ -0,0 +1,87 @@
+package student;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Formats games for display by appending to a StringBuilder, without String.format.
+ * <p>
+ * The output is exactly what {@code String.format} gives for the same {@code %d} and
+ * {@code %.2f} patterns. Whole numbers are appended directly. Two decimal places are found
+ * by scaling to hundredths and rounding half up; only when a value lies within a hair of
+ * a half hundredth, where the rounding of the scaled double could differ from the decimal
+ * rounding Formatter does, is the exact decimal rounding used instead.
+ */
+final class GameRows {
+    /** How close to a half hundredth a scaled value must be to need exact rounding. */
+    private static final double TIE_MARGIN = 1e-6;
+    /** Largest value rounded the quick way, so hundredths fit easily in a long. */
+    private static final double QUICK_LIMIT = 1e12;
+
+    /** Private constructor as static class. */
+    private GameRows() {
+    }
+
+    /**
+     * Appends a game's name with the value of a column in brackets, as
+     * {@link BoardGame#toStringWithInfo} shows it.
+     * @param out the buffer to append to
+     * @param game the game
+     * @param col the column, with the name alone for NAME and ID
+     * @return the buffer
+     */
+    static StringBuilder appendWithInfo(StringBuilder out, BoardGame game, GameData col) {
+        out.append(game.getName());
+        switch (col) {
+            case RATING:
+                return appendFixed2(out.append(" ("), game.getRating()).append(')');
+            case DIFFICULTY:
+                return appendFixed2(out.append(" ("), game.getDifficulty()).append(')');
+            case RANK:
+                return out.append(" (").append(game.getRank()).append(')');
+            case MIN_PLAYERS:
+                return out.append(" (").append(game.getMinPlayers()).append(')');
+            case MAX_PLAYERS:
+                return out.append(" (").append(game.getMaxPlayers()).append(')');
+            case MIN_TIME:
+                return out.append(" (").append(game.getMinPlayTime()).append(')');
+            case MAX_TIME:
+                return out.append(" (").append(game.getMaxPlayTime()).append(')');
+            case YEAR:
+                return out.append(" (").append(game.getYearPublished()).append(')');
+            default:
+                return out;
+        }
+    }
+
+    /**
+     * Appends a number with two decimal places, as {@code %.2f} formats it.
+     * @param out the buffer to append to
+     * @param value the number
+     * @return the buffer
+     */
+    static StringBuilder appendFixed2(StringBuilder out, double value) {
+        if (!Double.isFinite(value)) {
+            return out.append(value);
+        }
+        if (value < 0 || value == 0 && 1 / value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        long cents;
+        double scaled = value * 100;
+        double floor = Math.floor(scaled);
+        if (value < QUICK_LIMIT && Math.abs(scaled - floor - 0.5) > TIE_MARGIN) {
+            cents = (long) floor + (scaled - floor > 0.5 ? 1 : 0);
+        } else {
+            BigDecimal exact = new BigDecimal(Double.toString(value)).setScale(2, RoundingMode.HALF_UP);
+            if (value >= QUICK_LIMIT) {
+                return out.append(exact.toPlainString());
+            }
+            cents = exact.unscaledValue().longValue();
+        }
+        long fraction = cents % 100;
+        return out.append(cents / 100).append('.').append((char) ('0' + fraction / 10))
+                .append((char) ('0' + fraction % 10));
+    }
+}
@@ -28,15 +28,29 @@ public final class GamesLoader {
      * @return a set of BoardGame objects
      */
     public static Set<BoardGame> loadGamesFile(String fileName) {
+        BufferedReader reader;
+        try {
+            // This is so we can store the files in the resources folder
+            InputStream is = GamesLoader.class.getResourceAsStream(fileName);
+            reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return new HashSet<>();
+        }
+        return loadGames(reader);
+    }
+
+    /**
+     * Loads games in the csv format from a reader, such as a file already in memory.
+     * @param reader the csv, starting with its header line
+     * @return a set of BoardGame objects
+     */
+    static Set<BoardGame> loadGames(BufferedReader reader) {
         Set<BoardGame> games = new HashSet<>();
 
         List<String> lines;
 
         try {
-            // This is so we can store the files in the resources folder
-            InputStream is = GamesLoader.class.getResourceAsStream(fileName);
-            InputStreamReader isr = new InputStreamReader(is, StandardCharsets.UTF_8);
-            BufferedReader reader = new BufferedReader(isr);
             lines = reader.lines().collect(Collectors.toList());
         } catch (Exception e) {
             System.err.println("Error reading file: " + e.getMessage());
@@ -0,0 +1,193 @@
+package student;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of primitive int ids, for constant time membership tests without boxing.
+ * <p>
+ * Ids are kept in one open addressed table with linear probing, kept at most half full so
+ * probes stay short. Removal shifts the following entries of the probe run back instead of
+ * leaving tombstones, so the table never fills up with deleted slots. The slot value 0 marks
+ * an empty slot, so the id 0 itself is tracked by a separate flag.
+ */
+final class IdSet {
+    /** The smallest table size. */
+    private static final int MIN_CAPACITY = 16;
+
+    /** The table of ids, 0 for an empty slot; its length is a power of two. */
+    private int[] slots;
+    /** True if the id 0 is in the set. */
+    private boolean hasZero;
+    /** The number of ids in the set. */
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    IdSet() {
+        this.slots = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Gets the number of ids in the set.
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether an id is in the set.
+     * @param id the id
+     * @return true if it is in the set
+     */
+    boolean contains(int id) {
+        if (id == 0) {
+            return hasZero;
+        }
+        int mask = slots.length - 1;
+        for (int i = slot(id, mask); slots[i] != 0; i = (i + 1) & mask) {
+            if (slots[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds an id to the set.
+     * @param id the id
+     * @return true if it was added, false if it was already in the set
+     */
+    boolean add(int id) {
+        if (id == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = slot(id, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == id) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = id;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes an id from the set.
+     * @param id the id
+     * @return true if it was removed, false if it was not in the set
+     */
+    boolean remove(int id) {
+        if (id == 0) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = slot(id, mask);
+        while (slots[i] != id) {
+            if (slots[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // shift back any later entry of the run that may sit in the freed slot
+        int gap = i;
+        for (int j = (gap + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = slot(slots[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        slots[gap] = 0;
+        size--;
+        return true;
+    }
+
+    /**
+     * Grows the table ahead of adding many ids, so it is resized at most once.
+     * @param expected the number of ids the set is expected to hold
+     */
+    void ensureCapacity(int expected) {
+        int needed = MIN_CAPACITY;
+        while (needed < expected * 2L && needed < (1 << 30)) {
+            needed <<= 1;
+        }
+        if (needed > slots.length) {
+            rehash(needed);
+        }
+    }
+
+    /**
+     * Copies the ids out, in no particular order.
+     * @return the ids
+     */
+    int[] toArray() {
+        int[] result = new int[size];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (int id : slots) {
+            if (id != 0) {
+                result[i++] = id;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes every id.
+     */
+    void clear() {
+        Arrays.fill(slots, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Moves the ids into a table of a new size.
+     * @param capacity the new table size, a power of two
+     */
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id : old) {
+            if (id != 0) {
+                int i = slot(id, mask);
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = id;
+            }
+        }
+    }
+
+    /**
+     * Gets the home slot of an id, mixing its bits so nearby ids spread over the table.
+     * @param id the id
+     * @param mask the table size less one
+     * @return the slot
+     */
+    private static int slot(int id, int mask) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
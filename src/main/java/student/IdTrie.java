@@ -0,0 +1,343 @@
+package student;
+
+import java.util.Arrays;
+
+/**
+ * A persistent set of primitive int ids, in a compressed hash array mapped trie.
+ * <p>
+ * Each level of the trie takes five more bits of the id's hash and has up to 32 entries,
+ * held in two dense arrays, one of ids and one of child nodes, with a bitmap each saying
+ * which hash fragments are present. An id is stored inline at the first level where no
+ * other id shares its hash fragment, so the trie is about log32(n) levels deep and a lookup
+ * is a handful of array reads. The hash mixes the id bijectively, so two ids always part
+ * within the 32 bits of the hash and no collision lists are needed.
+ * <p>
+ * Nodes are never changed once made: adding or removing an id copies the few nodes on its
+ * path and shares the rest. So {@link #copy()} takes constant time, and the two copies share
+ * every node until either changes, and then only the changed paths differ. A node left with
+ * a single id is folded into its parent, so equal sets always have the same shape.
+ */
+final class IdTrie {
+    /** The number of hash bits used by each level. */
+    private static final int BITS = 5;
+    /** Masks one level's hash fragment. */
+    private static final int MASK = (1 << BITS) - 1;
+    /** No ids. */
+    private static final int[] NO_IDS = new int[0];
+    /** No child nodes. */
+    private static final Node[] NO_NODES = new Node[0];
+    /** The root of an empty trie. */
+    private static final Node EMPTY = new Node(0, 0, NO_IDS, NO_NODES);
+
+    /** The root node. */
+    private Node root;
+    /** The number of ids in the set. */
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    IdTrie() {
+        this(EMPTY, 0);
+    }
+
+    /**
+     * Constructor for a set over an existing trie.
+     * @param root the root node
+     * @param size the number of ids under it
+     */
+    private IdTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of ids in the set.
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether an id is in the set.
+     * @param id the id
+     * @return true if it is in the set
+     */
+    boolean contains(int id) {
+        int hash = hash(id);
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = bit(hash, shift);
+            if ((node.idMap & bit) != 0) {
+                return node.ids[index(node.idMap, bit)] == id;
+            }
+            if ((node.nodeMap & bit) == 0) {
+                return false;
+            }
+            node = node.nodes[index(node.nodeMap, bit)];
+        }
+    }
+
+    /**
+     * Adds an id to the set.
+     * @param id the id
+     * @return true if it was added, false if it was already in the set
+     */
+    boolean add(int id) {
+        Node updated = add(root, id, hash(id), 0);
+        if (updated == root) {
+            return false;
+        }
+        root = updated;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an id from the set.
+     * @param id the id
+     * @return true if it was removed, false if it was not in the set
+     */
+    boolean remove(int id) {
+        Node updated = remove(root, id, hash(id), 0);
+        if (updated == root) {
+            return false;
+        }
+        root = updated;
+        size--;
+        return true;
+    }
+
+    /**
+     * Makes an independent copy in constant time, sharing every node.
+     * @return the copy
+     */
+    IdTrie copy() {
+        return new IdTrie(root, size);
+    }
+
+    /**
+     * Removes every id.
+     */
+    void clear() {
+        root = EMPTY;
+        size = 0;
+    }
+
+    /**
+     * Adds an id under a node, copying the nodes on its path.
+     * @param node the node
+     * @param id the id
+     * @param hash the id's hash
+     * @param shift the position of the node's hash fragment
+     * @return the node with the id, or the node itself if the id was already there
+     */
+    private static Node add(Node node, int id, int hash, int shift) {
+        int bit = bit(hash, shift);
+        if ((node.idMap & bit) != 0) {
+            int i = index(node.idMap, bit);
+            int existing = node.ids[i];
+            if (existing == id) {
+                return node;
+            }
+            Node child = pair(existing, hash(existing), id, hash, shift + BITS);
+            return new Node(node.idMap ^ bit, node.nodeMap | bit, removeAt(node.ids, i),
+                    insertAt(node.nodes, index(node.nodeMap, bit), child));
+        }
+        if ((node.nodeMap & bit) != 0) {
+            int j = index(node.nodeMap, bit);
+            Node child = add(node.nodes[j], id, hash, shift + BITS);
+            return child == node.nodes[j] ? node : node.withChild(j, child);
+        }
+        return new Node(node.idMap | bit, node.nodeMap, insertAt(node.ids, index(node.idMap, bit), id), node.nodes);
+    }
+
+    /**
+     * Removes an id under a node, copying the nodes on its path, and folding a child left
+     * with a single id into the node.
+     * @param node the node
+     * @param id the id
+     * @param hash the id's hash
+     * @param shift the position of the node's hash fragment
+     * @return the node without the id, or the node itself if the id was not there
+     */
+    private static Node remove(Node node, int id, int hash, int shift) {
+        int bit = bit(hash, shift);
+        if ((node.idMap & bit) != 0) {
+            int i = index(node.idMap, bit);
+            if (node.ids[i] != id) {
+                return node;
+            }
+            return new Node(node.idMap ^ bit, node.nodeMap, removeAt(node.ids, i), node.nodes);
+        }
+        if ((node.nodeMap & bit) == 0) {
+            return node;
+        }
+        int j = index(node.nodeMap, bit);
+        Node child = remove(node.nodes[j], id, hash, shift + BITS);
+        if (child == node.nodes[j]) {
+            return node;
+        }
+        if (child.nodeMap == 0 && child.ids.length == 1) {
+            return new Node(node.idMap | bit, node.nodeMap ^ bit,
+                    insertAt(node.ids, index(node.idMap, bit), child.ids[0]), removeAt(node.nodes, j));
+        }
+        return node.withChild(j, child);
+    }
+
+    /**
+     * Makes the node holding two ids whose hashes agree up to a level, nesting it as deep as
+     * the hashes keep agreeing.
+     * @param first one id
+     * @param firstHash its hash
+     * @param second the other id
+     * @param secondHash its hash
+     * @param shift the position of the new node's hash fragment
+     * @return the node
+     */
+    private static Node pair(int first, int firstHash, int second, int secondHash, int shift) {
+        int firstBit = bit(firstHash, shift);
+        int secondBit = bit(secondHash, shift);
+        if (firstBit == secondBit) {
+            return new Node(0, firstBit, NO_IDS,
+                    new Node[] {pair(first, firstHash, second, secondHash, shift + BITS)});
+        }
+        int[] ids = Integer.compareUnsigned(firstBit, secondBit) < 0
+                ? new int[] {first, second} : new int[] {second, first};
+        return new Node(firstBit | secondBit, 0, ids, NO_NODES);
+    }
+
+    /**
+     * Mixes the bits of an id, so nearby ids spread over the trie. The mix is a bijection,
+     * so different ids always have different hashes.
+     * @param id the id
+     * @return the hash
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Gets the bitmap bit of a hash fragment.
+     * @param hash the hash
+     * @param shift the position of the fragment
+     * @return the bit
+     */
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Gets the position in a dense array of the entry for a bit.
+     * @param map the bitmap of the entries present
+     * @param bit the entry's bit
+     * @return the number of entries before it
+     */
+    private static int index(int map, int bit) {
+        return Integer.bitCount(map & (bit - 1));
+    }
+
+    /**
+     * Copies an array with an id inserted.
+     * @param ids the array
+     * @param i where to insert
+     * @param id the id
+     * @return the new array
+     */
+    private static int[] insertAt(int[] ids, int i, int id) {
+        int[] result = new int[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, i);
+        result[i] = id;
+        System.arraycopy(ids, i, result, i + 1, ids.length - i);
+        return result;
+    }
+
+    /**
+     * Copies an array with an entry left out.
+     * @param ids the array
+     * @param i the entry to leave out
+     * @return the new array
+     */
+    private static int[] removeAt(int[] ids, int i) {
+        if (ids.length == 1) {
+            return NO_IDS;
+        }
+        int[] result = new int[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, i);
+        System.arraycopy(ids, i + 1, result, i, result.length - i);
+        return result;
+    }
+
+    /**
+     * Copies an array with a node inserted.
+     * @param nodes the array
+     * @param i where to insert
+     * @param node the node
+     * @return the new array
+     */
+    private static Node[] insertAt(Node[] nodes, int i, Node node) {
+        Node[] result = new Node[nodes.length + 1];
+        System.arraycopy(nodes, 0, result, 0, i);
+        result[i] = node;
+        System.arraycopy(nodes, i, result, i + 1, nodes.length - i);
+        return result;
+    }
+
+    /**
+     * Copies an array with an entry left out.
+     * @param nodes the array
+     * @param i the entry to leave out
+     * @return the new array
+     */
+    private static Node[] removeAt(Node[] nodes, int i) {
+        if (nodes.length == 1) {
+            return NO_NODES;
+        }
+        Node[] result = new Node[nodes.length - 1];
+        System.arraycopy(nodes, 0, result, 0, i);
+        System.arraycopy(nodes, i + 1, result, i, result.length - i);
+        return result;
+    }
+
+    /**
+     * One level of the trie. Nodes are never changed once made.
+     */
+    private static final class Node {
+        /** The hash fragments with an id stored here. */
+        private final int idMap;
+        /** The hash fragments with a child node. */
+        private final int nodeMap;
+        /** The ids stored here, in hash fragment order. */
+        private final int[] ids;
+        /** The child nodes, in hash fragment order. */
+        private final Node[] nodes;
+
+        /**
+         * Constructor for a node.
+         * @param idMap the hash fragments with an id stored here
+         * @param nodeMap the hash fragments with a child node
+         * @param ids the ids, in hash fragment order
+         * @param nodes the child nodes, in hash fragment order
+         */
+        Node(int idMap, int nodeMap, int[] ids, Node[] nodes) {
+            this.idMap = idMap;
+            this.nodeMap = nodeMap;
+            this.ids = ids;
+            this.nodes = nodes;
+        }
+
+        /**
+         * Gets a copy of the node with one child replaced.
+         * @param j the position of the child
+         * @param child the new child
+         * @return the new node
+         */
+        Node withChild(int j, Node child) {
+            Node[] copy = Arrays.copyOf(nodes, nodes.length);
+            copy[j] = child;
+            return new Node(idMap, nodeMap, ids, copy);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package student;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A centered interval tree over one closed interval per catalog row.
+ * Each node holds a center point and the intervals that contain it, kept both in ascending
+ * order of their low end and descending order of their high end. Intervals entirely below
+ * the center go to the left subtree and those entirely above go to the right. Finding every
+ * interval that overlaps a query window then takes O(log n + k) for k results, as each node
+ * on the search path only scans the intervals it reports.
+ */
+final class IntervalTree {
+    /** The low end of each row's interval. */
+    private final int[] lows;
+    /** The high end of each row's interval. */
+    private final int[] highs;
+    /** The root of the tree, null when there are no rows. */
+    private final Node root;
+
+    /**
+     * Builds a tree over the intervals [lows[row], highs[row]]. Reversed intervals are
+     * treated as if their ends were swapped.
+     * @param lows the low end of each row's interval
+     * @param highs the high end of each row's interval
+     */
+    IntervalTree(int[] lows, int[] highs) {
+        this.lows = new int[lows.length];
+        this.highs = new int[highs.length];
+        for (int row = 0; row < lows.length; row++) {
+            this.lows[row] = Math.min(lows[row], highs[row]);
+            this.highs[row] = Math.max(lows[row], highs[row]);
+        }
+        int[] rows = new int[lows.length];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = row;
+        }
+        root = build(rows);
+    }
+
+    /**
+     * Builds the range tree for a catalog's pair of range columns.
+     * @param catalog the catalog
+     * @param range the range to index
+     * @return the tree
+     */
+    static IntervalTree of(GameCatalog catalog, GameRange range) {
+        return new IntervalTree(catalog.intColumn(range.getLow()), catalog.intColumn(range.getHigh()));
+    }
+
+    /**
+     * Recursively builds a subtree over a set of rows.
+     * @param rows the rows to place in the subtree
+     * @return the subtree, or null if there are no rows
+     */
+    private Node build(int[] rows) {
+        if (rows.length == 0) {
+            return null;
+        }
+        int[] ends = new int[rows.length * 2];
+        for (int i = 0; i < rows.length; i++) {
+            ends[2 * i] = lows[rows[i]];
+            ends[2 * i + 1] = highs[rows[i]];
+        }
+        Arrays.sort(ends);
+        int center = ends[rows.length];
+
+        int left = 0;
+        int right = 0;
+        for (int row : rows) {
+            if (highs[row] < center) {
+                left++;
+            } else if (lows[row] > center) {
+                right++;
+            }
+        }
+        int[] leftRows = new int[left];
+        int[] rightRows = new int[right];
+        int[] here = new int[rows.length - left - right];
+        int l = 0;
+        int r = 0;
+        int h = 0;
+        for (int row : rows) {
+            if (highs[row] < center) {
+                leftRows[l++] = row;
+            } else if (lows[row] > center) {
+                rightRows[r++] = row;
+            } else {
+                here[h++] = row;
+            }
+        }
+        return new Node(center, sortedBy(here, lows, false), sortedBy(here, highs, true),
+                build(leftRows), build(rightRows));
+    }
+
+    /**
+     * Orders rows on one end of their intervals.
+     * @param rows the rows to order
+     * @param ends the end to order on
+     * @param descending true to order from largest to smallest
+     * @return the rows in order
+     */
+    private static int[] sortedBy(int[] rows, int[] ends, boolean descending) {
+        long[] keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            long end = descending ? -(long) ends[rows[i]] : ends[rows[i]];
+            keys[i] = (end << 32) | rows[i];
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    /**
+     * Finds every row whose interval overlaps the closed window [from, to].
+     * A single value is the window [value, value].
+     * @param from the start of the window
+     * @param to the end of the window
+     * @return the matching rows
+     */
+    BitSet overlapping(int from, int to) {
+        BitSet result = new BitSet(lows.length);
+        Node node = root;
+        while (node != null) {
+            if (to < node.center) {
+                for (int row : node.byLow) {
+                    if (lows[row] > to) {
+                        break;
+                    }
+                    result.set(row);
+                }
+                node = node.left;
+            } else if (from > node.center) {
+                for (int row : node.byHigh) {
+                    if (highs[row] < from) {
+                        break;
+                    }
+                    result.set(row);
+                }
+                node = node.right;
+            } else {
+                for (int row : node.byLow) {
+                    result.set(row);
+                }
+                collectOverlapping(node.left, from, to, result);
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the overlapping rows of a subtree, used once the search path has split.
+     * Every interval in such a subtree is already known to start at or before the end of
+     * the window, so only the high ends need checking.
+     * @param node the subtree
+     * @param from the start of the window
+     * @param to the end of the window
+     * @param result the rows found so far
+     */
+    private void collectOverlapping(Node node, int from, int to, BitSet result) {
+        while (node != null) {
+            if (from > node.center) {
+                for (int row : node.byHigh) {
+                    if (highs[row] < from) {
+                        break;
+                    }
+                    result.set(row);
+                }
+                node = node.right;
+            } else {
+                for (int row : node.byLow) {
+                    result.set(row);
+                }
+                collectOverlapping(node.right, from, to, result);
+                node = node.left;
+            }
+        }
+    }
+
+    /**
+     * A node of the tree.
+     */
+    private static final class Node {
+        /** The center point, contained by every interval stored at this node. */
+        private final int center;
+        /** The rows at this node, in ascending order of their low end. */
+        private final int[] byLow;
+        /** The rows at this node, in descending order of their high end. */
+        private final int[] byHigh;
+        /** The subtree of intervals entirely below the center. */
+        private final Node left;
+        /** The subtree of intervals entirely above the center. */
+        private final Node right;
+
+        /**
+         * Constructor for a node.
+         * @param center the center point
+         * @param byLow the rows in ascending order of their low end
+         * @param byHigh the rows in descending order of their high end
+         * @param left the subtree below the center
+         * @param right the subtree above the center
+         */
+        Node(int center, int[] byLow, int[] byHigh, Node left, Node right) {
+            this.center = center;
+            this.byLow = byLow;
+            this.byHigh = byHigh;
+            this.left = left;
+            this.right = right;
+        }
+    }
+}
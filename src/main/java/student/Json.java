@@ -0,0 +1,119 @@
+package student;
+
+import java.util.List;
+
+/**
+ * Small helpers for writing JSON by hand, so the program needs no JSON library.
+ * Everything appends to a StringBuilder, so a whole response is built in one buffer.
+ */
+final class Json {
+
+    /** Private constructor as static class. */
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a quoted, escaped JSON string.
+     * @param out the buffer to append to
+     * @param value the string, or null for a JSON null
+     * @return the buffer
+     */
+    static StringBuilder string(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Appends a number, writing null for values JSON cannot represent.
+     * @param out the buffer to append to
+     * @param value the number
+     * @return the buffer
+     */
+    static StringBuilder number(StringBuilder out, double value) {
+        return Double.isFinite(value) ? out.append(value) : out.append("null");
+    }
+
+    /**
+     * Appends a game as a JSON object with one field per column.
+     * @param out the buffer to append to
+     * @param game the game
+     * @return the buffer
+     */
+    static StringBuilder game(StringBuilder out, BoardGame game) {
+        out.append("{\"name\":");
+        string(out, game.getName());
+        out.append(",\"id\":").append(game.getId())
+                .append(",\"minPlayers\":").append(game.getMinPlayers())
+                .append(",\"maxPlayers\":").append(game.getMaxPlayers())
+                .append(",\"minPlayTime\":").append(game.getMinPlayTime())
+                .append(",\"maxPlayTime\":").append(game.getMaxPlayTime())
+                .append(",\"difficulty\":");
+        number(out, game.getDifficulty());
+        out.append(",\"rank\":").append(game.getRank()).append(",\"rating\":");
+        number(out, game.getRating());
+        return out.append(",\"year\":").append(game.getYearPublished()).append('}');
+    }
+
+    /**
+     * Appends a list of games as a JSON array of objects.
+     * @param out the buffer to append to
+     * @param games the games
+     * @return the buffer
+     */
+    static StringBuilder games(StringBuilder out, List<BoardGame> games) {
+        out.append('[');
+        for (int i = 0; i < games.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            game(out, games.get(i));
+        }
+        return out.append(']');
+    }
+
+    /**
+     * Appends a list of strings as a JSON array.
+     * @param out the buffer to append to
+     * @param values the strings
+     * @return the buffer
+     */
+    static StringBuilder strings(StringBuilder out, List<String> values) {
+        out.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            string(out, values.get(i));
+        }
+        return out.append(']');
+    }
+}
@@ -0,0 +1,372 @@
+package student;
+
+import java.util.BitSet;
+
+/**
+ * A k-d tree over normalized numeric features of every game in a catalog, used to find
+ * the games most similar to a given one.
+ * The tree is implicit: the rows are permuted so that each subtree covers a contiguous
+ * range of positions with its splitting point in the middle, and the split dimension
+ * cycles with depth. Because subtrees are contiguous ranges, a filter can be pushed down
+ * as a BitSet over tree positions, and any subtree with no allowed games is skipped with
+ * a single {@link BitSet#nextSetBit(int)} call.
+ */
+final class KdTree {
+    /** The number of features per game. */
+    static final int DIMENSIONS = 7;
+    /** The catalog rows in tree order. */
+    private final int[] rows;
+    /** The tree position of each catalog row. */
+    private final int[] positions;
+    /** The normalized features in tree order, DIMENSIONS values per position. */
+    private final double[] points;
+
+    /**
+     * Builds a tree over every game in a catalog.
+     * @param catalog the catalog
+     */
+    KdTree(GameCatalog catalog) {
+        int size = catalog.size();
+        double[] features = features(catalog);
+        rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[row] = row;
+        }
+        build(features, 0, size, 0);
+        positions = new int[size];
+        points = new double[size * DIMENSIONS];
+        for (int pos = 0; pos < size; pos++) {
+            positions[rows[pos]] = pos;
+            System.arraycopy(features, rows[pos] * DIMENSIONS, points, pos * DIMENSIONS, DIMENSIONS);
+        }
+    }
+
+    /**
+     * Computes the features of every row, each scaled to the range 0 to 1 over the catalog.
+     * The features are rating, difficulty, min and max players, min and max play time, and
+     * year. Players and play times are log scaled first, so that a handful of very long or
+     * very large games do not squash everything else together.
+     * @param catalog the catalog
+     * @return the features, DIMENSIONS values per row
+     */
+    private static double[] features(GameCatalog catalog) {
+        GameData[] columns = {GameData.RATING, GameData.DIFFICULTY, GameData.MIN_PLAYERS,
+            GameData.MAX_PLAYERS, GameData.MIN_TIME, GameData.MAX_TIME, GameData.YEAR};
+        int size = catalog.size();
+        double[] features = new double[size * DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            GameData col = columns[d];
+            boolean logScale = col != GameData.RATING && col != GameData.DIFFICULTY && col != GameData.YEAR;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int row = 0; row < size; row++) {
+                double value = catalog.numericValue(col, row);
+                if (logScale) {
+                    value = Math.log1p(Math.max(value, 0));
+                }
+                features[row * DIMENSIONS + d] = value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            double span = max > min ? max - min : 1;
+            for (int row = 0; row < size; row++) {
+                features[row * DIMENSIONS + d] = (features[row * DIMENSIONS + d] - min) / span;
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Recursively arranges rows[lo, hi) so the median on the split dimension is in the middle,
+     * with smaller values before it and larger values after.
+     * @param features the features of every row
+     * @param lo the start of the range
+     * @param hi the end of the range (exclusive)
+     * @param depth the depth of the subtree, which picks the split dimension
+     */
+    private void build(double[] features, int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(features, lo, hi - 1, mid, depth % DIMENSIONS);
+        build(features, lo, mid, depth + 1);
+        build(features, mid + 1, hi, depth + 1);
+    }
+
+    /**
+     * Quickselect over rows[lo, hi] so the k-th position holds the row that belongs there
+     * in order of one feature.
+     * @param features the features of every row
+     * @param lo the start of the range
+     * @param hi the end of the range (inclusive)
+     * @param k the position to fill
+     * @param dim the feature to order on
+     */
+    private void select(double[] features, int lo, int hi, int k, int dim) {
+        while (lo < hi) {
+            double pivot = features[rows[(lo + hi) >>> 1] * DIMENSIONS + dim];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (features[rows[i] * DIMENSIONS + dim] < pivot) {
+                    i++;
+                }
+                while (features[rows[j] * DIMENSIONS + dim] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = rows[i];
+                    rows[i] = rows[j];
+                    rows[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Converts a set of catalog rows into the same set over tree positions, for pushdown.
+     * @param allowedRows the catalog rows
+     * @return the tree positions of those rows
+     */
+    BitSet toPositions(BitSet allowedRows) {
+        BitSet allowed = new BitSet(rows.length);
+        for (int row = allowedRows.nextSetBit(0); row >= 0; row = allowedRows.nextSetBit(row + 1)) {
+            allowed.set(positions[row]);
+        }
+        return allowed;
+    }
+
+    /**
+     * Finds the rows nearest to a row, by Euclidean distance over the normalized features.
+     * The row itself is never part of the result.
+     * @param row the catalog row to find neighbours of
+     * @param k the maximum number of neighbours
+     * @param allowed the tree positions that may be returned (see {@link #toPositions}),
+     *                or null to allow every row
+     * @return the catalog rows of the neighbours, nearest first
+     */
+    int[] nearest(int row, int k, BitSet allowed) {
+        double[] query = new double[DIMENSIONS];
+        System.arraycopy(points, positions[row] * DIMENSIONS, query, 0, DIMENSIONS);
+        Neighbours best = new Neighbours(k);
+        if (k > 0) {
+            search(query, positions[row], allowed, 0, rows.length, 0, new double[DIMENSIONS], 0, best);
+        }
+        int[] result = new int[best.size];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = rows[best.pollFarthest()];
+        }
+        return result;
+    }
+
+    /**
+     * Finds the nearest rows by checking the distance to every allowed row, without using
+     * the tree structure. This is the reference that tests and benchmarks compare against.
+     * @param row the catalog row to find neighbours of
+     * @param k the maximum number of neighbours
+     * @param allowed the allowed tree positions, or null to allow every row
+     * @return the catalog rows of the neighbours, nearest first
+     */
+    int[] scan(int row, int k, BitSet allowed) {
+        double[] query = new double[DIMENSIONS];
+        System.arraycopy(points, positions[row] * DIMENSIONS, query, 0, DIMENSIONS);
+        Neighbours best = new Neighbours(k);
+        for (int pos = 0; pos < rows.length && k > 0; pos++) {
+            if (pos != positions[row] && (allowed == null || allowed.get(pos))) {
+                best.offer(pos, distance(query, pos));
+            }
+        }
+        int[] result = new int[best.size];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = rows[best.pollFarthest()];
+        }
+        return result;
+    }
+
+    /**
+     * Recursively searches the subtree over positions [lo, hi).
+     * The lower bound on the distance to anything in the subtree is tracked incrementally:
+     * offsets holds, per dimension, how far the query is outside the subtree's cell, and
+     * cellDistance is the sum of their squares. This prunes far more than checking only the
+     * latest splitting plane, which matters when a filter rules out the nearby games.
+     * @param query the features to search around
+     * @param exclude the position of the query game itself
+     * @param allowed the allowed positions, or null to allow all
+     * @param lo the start of the subtree
+     * @param hi the end of the subtree (exclusive)
+     * @param depth the depth of the subtree
+     * @param offsets the per dimension distance from the query to the subtree's cell
+     * @param cellDistance the squared distance from the query to the subtree's cell
+     * @param best the nearest positions found so far
+     */
+    private void search(double[] query, int exclude, BitSet allowed, int lo, int hi, int depth,
+                        double[] offsets, double cellDistance, Neighbours best) {
+        if (lo >= hi) {
+            return;
+        }
+        if (allowed != null) {
+            int next = allowed.nextSetBit(lo);
+            if (next < 0 || next >= hi) {
+                return;
+            }
+        }
+        int mid = (lo + hi) >>> 1;
+        if (mid != exclude && (allowed == null || allowed.get(mid))) {
+            best.offer(mid, distance(query, mid));
+        }
+        int dim = depth % DIMENSIONS;
+        double diff = query[dim] - points[mid * DIMENSIONS + dim];
+        int nearLo = diff < 0 ? lo : mid + 1;
+        int nearHi = diff < 0 ? mid : hi;
+        int farLo = diff < 0 ? mid + 1 : lo;
+        int farHi = diff < 0 ? hi : mid;
+
+        search(query, exclude, allowed, nearLo, nearHi, depth + 1, offsets, cellDistance, best);
+
+        double previous = offsets[dim];
+        double farDistance = cellDistance - previous * previous + diff * diff;
+        if (farDistance < best.bound()) {
+            offsets[dim] = Math.abs(diff);
+            search(query, exclude, allowed, farLo, farHi, depth + 1, offsets, farDistance, best);
+            offsets[dim] = previous;
+        }
+    }
+
+    /**
+     * Computes the squared distance from the query to a tree position.
+     * @param query the query features
+     * @param pos the tree position
+     * @return the squared Euclidean distance
+     */
+    private double distance(double[] query, int pos) {
+        double sum = 0;
+        int base = pos * DIMENSIONS;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double diff = query[d] - points[base + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * A bounded max-heap of the nearest positions found so far, kept in primitive arrays.
+     */
+    private static final class Neighbours {
+        /** The positions in the heap. */
+        private final int[] heap;
+        /** The squared distances, parallel to heap. */
+        private final double[] distances;
+        /** The number of entries in use. */
+        private int size;
+
+        /**
+         * Creates an empty heap.
+         * @param capacity the number of neighbours to keep
+         */
+        Neighbours(int capacity) {
+            heap = new int[Math.max(capacity, 0)];
+            distances = new double[heap.length];
+        }
+
+        /**
+         * Gets the distance a new position has to beat to be kept.
+         * @return the farthest kept distance once full, otherwise infinity
+         */
+        double bound() {
+            return size < heap.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        /**
+         * Offers a position, keeping it if it is among the nearest so far.
+         * @param pos the tree position
+         * @param distance its squared distance
+         */
+        void offer(int pos, double distance) {
+            if (size < heap.length) {
+                int i = size++;
+                heap[i] = pos;
+                distances[i] = distance;
+                siftUp(i);
+            } else if (distance < distances[0]) {
+                heap[0] = pos;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Removes the farthest position.
+         * @return the farthest position
+         */
+        int pollFarthest() {
+            int top = heap[0];
+            size--;
+            heap[0] = heap[size];
+            distances[0] = distances[size];
+            siftDown(0);
+            return top;
+        }
+
+        /**
+         * Restores the heap order upwards from an entry.
+         * @param i the entry
+         */
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (distances[parent] >= distances[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        /**
+         * Restores the heap order downwards from an entry.
+         * @param i the entry
+         */
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        /**
+         * Swaps two entries.
+         * @param a the first entry
+         * @param b the second entry
+         */
+        private void swap(int a, int b) {
+            int pos = heap[a];
+            heap[a] = heap[b];
+            heap[b] = pos;
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+    }
+}
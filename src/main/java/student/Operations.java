@@ -37,7 +37,9 @@ public enum Operations {
     EQUALS("=="), NOT_EQUALS("!="), GREATER_THAN(">"), LESS_THAN("<"), GREATER_THAN_EQUALS(
             ">="),
     /** Operations to use. */
-    LESS_THAN_EQUALS("<="), CONTAINS("~=");
+    LESS_THAN_EQUALS("<="), CONTAINS("~="),
+    /** Fuzzy match, names within a small edit distance of the value. */
+    FUZZY("%=");
 
     /** The operator. */
     private final String operator;
@@ -92,6 +94,8 @@ public enum Operations {
             return Operations.NOT_EQUALS;
         } else if (str.contains("~=")) {
             return Operations.CONTAINS;
+        } else if (str.contains("%=")) {
+            return Operations.FUZZY;
         } else {
             return null;
         }
@@ -0,0 +1,515 @@
+package student;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Games kept permanently sorted by name, ignoring case, with ties broken by id, in a
+ * persistent order-statistic treap.
+ * <p>
+ * A treap is a binary search tree on the sort order that is also a heap on random node
+ * priorities, which keeps it balanced in expectation without any rebalancing rules. Each
+ * node also counts the nodes below it, so the game at a position, and the position of a
+ * game, are found in O(log n). Everything else is built from two operations: splitting a
+ * tree in two at a position or a key, and merging two trees whose ranges do not overlap.
+ * A range of positions is removed with two splits and a merge, and a sorted batch of new
+ * games is built into a treap in linear time and then merged in with a union.
+ * <p>
+ * Nodes are never changed once they are part of a tree: every operation copies the nodes
+ * on the paths it changes and shares the rest. So {@link #copy()} takes constant time, and
+ * the two copies share all their nodes until either changes, and then only the changed
+ * paths differ. Union, intersection and difference with another set work the same way,
+ * splitting the other tree around each node, so they cost O(m log(n / m + 1)) for sets of
+ * sizes m &lt;= n, and whole subtrees that one side leaves alone are reused rather than copied.
+ */
+final class OrderedGames {
+    /** The sort order: name ignoring case, then id. */
+    static final Comparator<BoardGame> ORDER = Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(BoardGame::getId);
+
+    /** The source of node priorities. */
+    private final SplittableRandom random;
+    /** The root, or null when empty. */
+    private Node root;
+
+    /**
+     * Creates an empty set.
+     */
+    OrderedGames() {
+        this(new SplittableRandom(), null);
+    }
+
+    /**
+     * Constructor for a set over an existing tree.
+     * @param random the source of node priorities
+     * @param root the root
+     */
+    private OrderedGames(SplittableRandom random, Node root) {
+        this.random = random;
+        this.root = root;
+    }
+
+    /**
+     * Gets the number of games.
+     * @return the size
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Makes an independent copy in constant time, sharing every node.
+     * @return the copy
+     */
+    OrderedGames copy() {
+        return new OrderedGames(random.split(), root);
+    }
+
+    /**
+     * Checks whether a game is held.
+     * @param game the game
+     * @return true if it is held
+     */
+    boolean contains(BoardGame game) {
+        Node node = root;
+        while (node != null) {
+            int c = ORDER.compare(game, node.game);
+            if (c == 0) {
+                return true;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a game, unless it is already held.
+     * @param game the game
+     * @return true if it was added
+     */
+    boolean add(BoardGame game) {
+        Node[] parts = split(root, game);
+        if (parts[2] != null) {
+            return false;
+        }
+        root = merge(merge(parts[0], new Node(game, random.nextInt(), null, null)), parts[1]);
+        return true;
+    }
+
+    /**
+     * Adds many games at once, skipping those already held and repeats within the batch.
+     * @param batch the games, in any order
+     * @return the games that were added, in sorted order
+     */
+    List<BoardGame> addAll(Collection<BoardGame> batch) {
+        BoardGame[] sorted = batch.toArray(new BoardGame[0]);
+        Arrays.sort(sorted, ORDER);
+        List<BoardGame> fresh = new ArrayList<>(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            if ((i == 0 || ORDER.compare(sorted[i - 1], sorted[i]) != 0) && !contains(sorted[i])) {
+                fresh.add(sorted[i]);
+            }
+        }
+        if (!fresh.isEmpty()) {
+            root = union(root, build(fresh), true, null);
+        }
+        return fresh;
+    }
+
+    /**
+     * Adds many games at once that the caller knows are not held, without looking for them.
+     * @param fresh the games, none of them held or repeated, in any order
+     */
+    void addAbsent(Collection<BoardGame> fresh) {
+        if (!fresh.isEmpty()) {
+            BoardGame[] sorted = fresh.toArray(new BoardGame[0]);
+            Arrays.sort(sorted, ORDER);
+            root = union(root, build(Arrays.asList(sorted)), true, null);
+        }
+    }
+
+    /**
+     * Adds every game of another set that is not already held. The games added are picked
+     * out as the trees are joined, so finding them costs no more than the join plus the
+     * number added.
+     * @param other the other set, which is not changed
+     * @return the games that were added, in sorted order
+     */
+    List<BoardGame> union(OrderedGames other) {
+        List<BoardGame> added = new ArrayList<>();
+        root = union(root, other.root, true, added);
+        return added;
+    }
+
+    /**
+     * Keeps only the games also held by another set.
+     * @param other the other set, which is not changed
+     * @return the games that were removed, in sorted order
+     */
+    List<BoardGame> intersect(OrderedGames other) {
+        List<BoardGame> removed = new ArrayList<>();
+        root = intersect(root, other.root, true, removed);
+        return removed;
+    }
+
+    /**
+     * Removes every game held by another set.
+     * @param other the other set, which is not changed
+     * @return the games that were removed, in sorted order
+     */
+    List<BoardGame> difference(OrderedGames other) {
+        List<BoardGame> removed = new ArrayList<>();
+        root = difference(root, other.root, removed);
+        return removed;
+    }
+
+    /**
+     * Gets the game at a position in the sort order.
+     * @param index the position, from 0
+     * @return the game
+     * @throws IndexOutOfBoundsException if there is no such position
+     */
+    BoardGame get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.game;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Finds the position of the first game with a name, ignoring case.
+     * @param name the name
+     * @return the position, or -1 if no game has that name
+     */
+    int indexOfName(String name) {
+        // count the games that sort before any game with this name
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            if (String.CASE_INSENSITIVE_ORDER.compare(node.game.getName(), name) < 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return rank < size() && get(rank).getName().equalsIgnoreCase(name) ? rank : -1;
+    }
+
+    /**
+     * Removes a range of positions.
+     * @param from the first position to remove
+     * @param to one past the last position to remove
+     * @return the removed games, in sorted order
+     * @throws IndexOutOfBoundsException if the range is not within the games
+     */
+    List<BoardGame> removeRange(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Range: " + from + "-" + to);
+        }
+        Node[] head = splitAt(root, from);
+        Node[] tail = splitAt(head[1], to - from);
+        List<BoardGame> removed = new ArrayList<>(to - from);
+        walk(tail[0], removed::add);
+        root = merge(head[0], tail[1]);
+        return removed;
+    }
+
+    /**
+     * Removes every game.
+     */
+    void clear() {
+        root = null;
+    }
+
+    /**
+     * Visits every game in sorted order.
+     * @param action the action to run on each game
+     */
+    void forEach(Consumer<BoardGame> action) {
+        walk(root, action);
+    }
+
+    /**
+     * Copies the games out in sorted order.
+     * @return the games
+     */
+    List<BoardGame> toList() {
+        List<BoardGame> list = new ArrayList<>(size());
+        walk(root, list::add);
+        return list;
+    }
+
+    /**
+     * Visits the games of a tree in order, without recursion.
+     * @param tree the tree
+     * @param action the action to run on each game
+     */
+    private static void walk(Node tree, Consumer<BoardGame> action) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = tree;
+        while (node != null || !path.isEmpty()) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            action.accept(node.game);
+            node = node.right;
+        }
+    }
+
+    /**
+     * Splits a tree around a game, copying the nodes on the search path.
+     * @param tree the tree
+     * @param game the game to split at
+     * @return the tree of games before it, the tree of games after it, and the node holding
+     *         an equal game, or null if there is none
+     */
+    private static Node[] split(Node tree, BoardGame game) {
+        if (tree == null) {
+            return new Node[3];
+        }
+        int c = ORDER.compare(tree.game, game);
+        if (c == 0) {
+            return new Node[] {tree.left, tree.right, tree};
+        }
+        if (c < 0) {
+            Node[] parts = split(tree.right, game);
+            parts[0] = tree.with(tree.left, parts[0]);
+            return parts;
+        }
+        Node[] parts = split(tree.left, game);
+        parts[1] = tree.with(parts[1], tree.right);
+        return parts;
+    }
+
+    /**
+     * Splits a tree into its first count nodes and the rest, copying the nodes on the path.
+     * @param tree the tree
+     * @param count the number of nodes in the first tree
+     * @return the two trees
+     */
+    private static Node[] splitAt(Node tree, int count) {
+        if (tree == null) {
+            return new Node[2];
+        }
+        int leftSize = size(tree.left);
+        if (count <= leftSize) {
+            Node[] parts = splitAt(tree.left, count);
+            parts[1] = tree.with(parts[1], tree.right);
+            return parts;
+        }
+        Node[] parts = splitAt(tree.right, count - leftSize - 1);
+        parts[0] = tree.with(tree.left, parts[0]);
+        return parts;
+    }
+
+    /**
+     * Joins two trees where every node of the first sorts before every node of the second.
+     * @param first the first tree
+     * @param second the second tree
+     * @return the joined tree
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            return first.with(first.left, merge(first.right, second));
+        }
+        return second.with(merge(first, second.left), second.right);
+    }
+
+    /**
+     * Joins two trees whose ranges may interleave, keeping one copy of games held by both.
+     * @param a one tree
+     * @param b the other tree
+     * @param aMine true if a is the tree being added to, false if it is the one added from
+     * @param added receives the games of the tree added from that the other did not hold, in
+     *              order, or null if they are not wanted
+     * @return the joined tree
+     */
+    private static Node union(Node a, Node b, boolean aMine, List<BoardGame> added) {
+        if (a == null || b == null) {
+            if (added != null) {
+                walk(aMine ? b : a, added::add);
+            }
+            return a == null ? b : a;
+        }
+        if (a.priority < b.priority) {
+            Node swap = a;
+            a = b;
+            b = swap;
+            aMine = !aMine;
+        }
+        Node[] parts = split(b, a.game);
+        Node left = union(a.left, parts[0], aMine, added);
+        if (added != null && !aMine && parts[2] == null) {
+            added.add(a.game);
+        }
+        Node right = union(a.right, parts[1], aMine, added);
+        return a.with(left, right);
+    }
+
+    /**
+     * Finds the games held by both of two trees.
+     * @param a one tree
+     * @param b the other tree
+     * @param aMine true if a is the tree being narrowed, false if it is the one kept to
+     * @param removed receives the games of the tree being narrowed that the other did not hold, in order
+     * @return the tree of common games
+     */
+    private static Node intersect(Node a, Node b, boolean aMine, List<BoardGame> removed) {
+        if (a == null || b == null) {
+            walk(aMine ? a : b, removed::add);
+            return null;
+        }
+        if (a.priority < b.priority) {
+            Node swap = a;
+            a = b;
+            b = swap;
+            aMine = !aMine;
+        }
+        Node[] parts = split(b, a.game);
+        Node left = intersect(a.left, parts[0], aMine, removed);
+        if (aMine && parts[2] == null) {
+            removed.add(a.game);
+        }
+        Node right = intersect(a.right, parts[1], aMine, removed);
+        return parts[2] != null ? a.with(left, right) : merge(left, right);
+    }
+
+    /**
+     * Finds the games of one tree not held by another.
+     * @param a the tree to take games from
+     * @param b the tree of games to leave out
+     * @param removed receives the games of a that b held, in order
+     * @return the tree of remaining games
+     */
+    private static Node difference(Node a, Node b, List<BoardGame> removed) {
+        if (a == null || b == null) {
+            return a;
+        }
+        Node[] parts = split(b, a.game);
+        Node left = difference(a.left, parts[0], removed);
+        if (parts[2] != null) {
+            removed.add(a.game);
+        }
+        Node right = difference(a.right, parts[1], removed);
+        return parts[2] != null ? merge(left, right) : a.with(left, right);
+    }
+
+    /**
+     * Builds a treap from sorted games in linear time, keeping the right spine on a stack.
+     * Only the new nodes are linked up here, before any tree can share them.
+     * @param sorted the games, in sorted order
+     * @return the root
+     */
+    private Node build(List<BoardGame> sorted) {
+        Deque<Node> spine = new ArrayDeque<>();
+        for (BoardGame game : sorted) {
+            Node node = new Node(game, random.nextInt(), null, null);
+            Node last = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                last = spine.pop();
+            }
+            node.left = last;
+            if (!spine.isEmpty()) {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+        }
+        Node top = spine.peekLast();
+        fixSizes(top);
+        return top;
+    }
+
+    /**
+     * Recomputes the sizes of a freshly built tree, bottom up.
+     * @param tree the tree
+     * @return the size of the tree
+     */
+    private static int fixSizes(Node tree) {
+        if (tree == null) {
+            return 0;
+        }
+        tree.size = fixSizes(tree.left) + fixSizes(tree.right) + 1;
+        return tree.size;
+    }
+
+    /**
+     * Gets the size of a tree.
+     * @param tree the tree, or null
+     * @return its number of nodes
+     */
+    private static int size(Node tree) {
+        return tree == null ? 0 : tree.size;
+    }
+
+    /**
+     * One game in the tree. Only {@link #build} links nodes after they are made; once in a
+     * tree, a node is never changed, and changes make new nodes with {@link #with}.
+     */
+    private static final class Node {
+        /** The game. */
+        private final BoardGame game;
+        /** The heap priority. */
+        private final int priority;
+        /** The games sorting before this one in its subtree. */
+        private Node left;
+        /** The games sorting after this one in its subtree. */
+        private Node right;
+        /** The number of nodes in the subtree. */
+        private int size;
+
+        /**
+         * Constructor for a node.
+         * @param game the game
+         * @param priority the heap priority
+         * @param left the games sorting before it
+         * @param right the games sorting after it
+         */
+        Node(BoardGame game, int priority, Node left, Node right) {
+            this.game = game;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        /**
+         * Gets a node for this game with other children, reusing this one if they are the same.
+         * @param newLeft the games sorting before it
+         * @param newRight the games sorting after it
+         * @return the node
+         */
+        Node with(Node newLeft, Node newRight) {
+            if (newLeft == left && newRight == right) {
+                return this;
+            }
+            return new Node(game, priority, newLeft, newRight);
+        }
+    }
+}
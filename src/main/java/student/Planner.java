@@ -1,26 +1,77 @@
 package student;
 
 import java.util.*;
-import java.util.function.BiPredicate;
-import java.util.stream.Collectors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * A planner class that manages a set of board games and allows filtering and sorting of the games.
+ * The games are held in a column oriented GameCatalog, and the current filter is a BitSet of
+ * catalog rows, so filtering never copies the games themselves.
+ * <p>
+ * A planner is safe to share between threads. The catalog is immutable, and many planners
+ * can share one catalog, each with its own filter. The filter is a BitSet that is never
+ * changed once published; filtering builds a new one from the current one and swaps it in
+ * with a compare-and-set, retrying against the newer filter if another thread got there
+ * first, so no filter is lost and readers never block.
+ * <p>
+ * A planner built over a {@link CatalogRegistry} follows the registry's catalog as new
+ * generations are swapped in. Each call leases the current generation for as long as it
+ * reads the catalog, so a call that started before a swap finishes on the old data. The
+ * first call to see a newer generation carries the filter over to it by game id: games
+ * still in the new catalog stay in the filter, games that are gone drop out, and an
+ * unfiltered planner takes in every game of the new catalog.
  */
 public class Planner implements IPlanner {
-    /** The set of all board games managed by the planner. */
-    private Set<BoardGame> games;
-    /** The initial set of board games, used for resetting the state. */
-    private Set<BoardGame> initialGames;
+    /** Filters run by {@link #warmUp}, one of each shape the console commonly runs. */
+    private static final String[] WARM_UP_FILTERS = {"", "minPlayers>=2", "name~=the", "rating>7,year>2000",
+        "players==2-4", "name%=catan"};
+
+    /** The registry the catalog comes from, or null if the catalog is fixed. */
+    private final CatalogRegistry registry;
+    /** The catalog and the rows matching the current filter, never changed once set. */
+    private final AtomicReference<View> state;
+    /** The picker for the last random draw, reused while the filter and weighting stay the same. */
+    private volatile RandomPicker picker;
 
     /**
      * Constructs a new Planner with the specified set of board games.
      * @param games the set of board games to be managed by the planner
      */
     public Planner(Set<BoardGame> games) {
-        this.games = new HashSet<>(games);
-        this.initialGames = new HashSet<>(games);
+        this(new GameCatalog(games));
+    }
+
+    /**
+     * Constructs a new Planner over an existing catalog.
+     * @param catalog the catalog of board games to be managed by the planner
+     */
+    public Planner(GameCatalog catalog) {
+        this(catalog, catalog.allRows());
+    }
+
+    /**
+     * Constructs a new Planner over an existing catalog, starting from a filter.
+     * @param catalog the catalog of board games to be managed by the planner
+     * @param rows the rows of the starting filter, which must not be changed afterwards
+     */
+    Planner(GameCatalog catalog, BitSet rows) {
+        this.registry = null;
+        this.state = new AtomicReference<>(new View(catalog, 0, rows));
+    }
+
+    /**
+     * Constructs a new Planner that follows the current catalog of a registry.
+     * @param registry the registry of catalog generations
+     */
+    public Planner(CatalogRegistry registry) {
+        this.registry = registry;
+        try (CatalogRegistry.Lease lease = registry.acquire()) {
+            this.state = new AtomicReference<>(new View(lease.catalog(), lease.version(), lease.catalog().allRows()));
+        }
     }
 
     /**
@@ -55,256 +106,447 @@ public class Planner implements IPlanner {
      */
     @Override
     public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
-        String[] filters = filter.split(",");
+        return filter(filter, sortOn, ascending, QueryContext.NONE);
+    }
 
-        Stream<BoardGame> filteredStream = games.stream();
+    /**
+     * Filters and sorts the board games, stopping early if the query is cancelled or runs
+     * past its deadline. The context is checked as rows are scanned and sorted, and a query
+     * that stops early leaves the current filter as it was.
+     * @param filter the filter string
+     * @param sortOn the game data field to sort on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @param context the query's deadline and cancellation token
+     * @return a stream of filtered and sorted board games
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
+     */
+    public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending, QueryContext context) {
+        if (sortOn == GameData.ID) {
+            throw new IllegalArgumentException("Invalid column: " + sortOn);
+        }
+        // Update the current filter with the filtered results, unless another thread changed
+        // it in the meantime, in which case the filter is applied again on top of theirs
+        View current;
+        View next;
+        do {
+            try (CatalogRegistry.Lease lease = lease()) {
+                current = view(lease);
+                next = current.with(select(current, filter, context));
+            }
+        } while (!state.compareAndSet(current, next));
 
-        if (!filter.isEmpty()) {
-            for (String singleFilter : filters) {
-                String[] parts = singleFilter.split("(?<=[a-zA-Z])\\s*(?=[><=!~])");
+        // Sort the filtered board games based on the specified sorting criteria
+        GameCatalog catalog = next.catalog;
+        return sorted(catalog, next.rows, sortOn, ascending, context).mapToObj(catalog::game);
+    }
 
-                if (parts.length != 2) {
-                    throw new IllegalArgumentException("Invalid filter: " + singleFilter);
-                }
+    /**
+     * Publishes the games matching a filter as the subscriber asks for them, instead of
+     * collecting them all first. The filter is applied on top of the current filter, but
+     * does not change it. Only index lookups run up front; every other clause is tested as
+     * rows are walked in sort order, so the first game arrives as soon as it is found.
+     * @param filter the filter string, empty to use the current filter as is
+     * @param sortOn the game data field to sort on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @return a publisher of the matching games, in sorted order
+     * @throws IllegalArgumentException if the filter is invalid or the column cannot be sorted on
+     */
+    public Flow.Publisher<BoardGame> publish(String filter, GameData sortOn, boolean ascending) {
+        if (sortOn == GameData.ID) {
+            throw new IllegalArgumentException("Invalid column: " + sortOn);
+        }
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            GameCatalog catalog = view.catalog;
+            List<FilterClause> scanned = new ArrayList<>();
+            BitSet candidates = narrow(catalog, view.rows, FilterClause.parseAll(filter), scanned);
+            return new GamePublisher(catalog, candidates, FilterClause.bindAll(scanned, catalog), sortOn, ascending);
+        }
+    }
 
-                String columnName = parts[0].trim();
-                String operatorAndValue = parts[1].trim();
-
-                String operatorString;
-                String value;
-                if (operatorAndValue.contains(">=") || operatorAndValue.contains("<=")
-                        || operatorAndValue.contains("==") || operatorAndValue.contains("!=")
-                        || operatorAndValue.contains("~=")) {
-                    operatorString = operatorAndValue.substring(0, 2);
-                    value = operatorAndValue.substring(2).trim();
-                } else {
-                    operatorString = operatorAndValue.substring(0, 1);
-                    value = operatorAndValue.substring(1).trim();
-                }
+    /**
+     * Runs many filters at once, each on top of the current filter, without changing it.
+     * Clauses shared between filters are evaluated once, and each column is read in one pass
+     * for every clause on it, so a large batch costs far less than filtering one at a time.
+     * @param filters the filter strings
+     * @param sortOn the game data field to sort each result on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @return the sorted games matching each filter, in the same order as the filters
+     * @throws IllegalArgumentException if any filter is invalid or the column cannot be sorted on
+     */
+    public List<Stream<BoardGame>> filterBatch(List<String> filters, GameData sortOn, boolean ascending) {
+        if (sortOn == GameData.ID) {
+            throw new IllegalArgumentException("Invalid column: " + sortOn);
+        }
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            GameCatalog catalog = view.catalog;
+            List<Stream<BoardGame>> results = new ArrayList<>(filters.size());
+            for (BitSet rows : new BatchFilter(catalog, view.rows, filters).evaluate()) {
+                results.add(sorted(catalog, rows, sortOn, ascending, QueryContext.NONE).mapToObj(catalog::game));
+            }
+            return results;
+        }
+    }
 
-                Operations operator = Operations.getOperatorFromStr(operatorString);
-                if (operator == null) {
-                    throw new IllegalArgumentException("Invalid operator: " + operatorString);
+    /**
+     * Computes summary statistics of a numeric column over the games matching a filter.
+     * The filter is applied on top of the current filter, but does not change it.
+     * The values are folded straight from the catalog columns in one pass over the matching
+     * rows, without building BoardGame streams or sorting.
+     * @param filter the filter string, empty to use the current filter as is
+     * @param column the numeric column to summarise
+     * @return the statistics of the column
+     * @throws IllegalArgumentException if the filter is invalid or the column is not numeric
+     */
+    public Aggregate aggregate(String filter, GameData column) {
+        if (column == GameData.NAME || column == GameData.ID) {
+            throw new IllegalArgumentException("Invalid column: " + column);
+        }
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            GameCatalog catalog = view.catalog;
+            IntPredicate predicate = FilterClause.bindAll(FilterClause.parseAll(filter), catalog);
+            BitSet current = view.rows;
+            Aggregate aggregate = new Aggregate(column, current.cardinality());
+            if (GameCatalog.isDouble(column)) {
+                double[] values = catalog.doubleColumn(column);
+                for (int row = current.nextSetBit(0); row >= 0; row = current.nextSetBit(row + 1)) {
+                    if (predicate.test(row)) {
+                        aggregate.add(values[row]);
+                    }
                 }
-
-                GameData col = GameData.fromString(columnName);
-
-                switch (operator) {
-                    case GREATER_THAN:
-                    case LESS_THAN:
-                    case GREATER_THAN_EQUALS:
-                    case LESS_THAN_EQUALS:
-                    case EQUALS:
-                    case NOT_EQUALS:
-                        if (col == GameData.NAME) {
-                            filteredStream = filterStringCompare(filteredStream, col, value,
-                                    String::compareToIgnoreCase, operator);
-                        } else if (col == GameData.RATING || col == GameData.DIFFICULTY) {
-                            filteredStream = filterNumericDouble(filteredStream, col, value,
-                                    Double::compareTo, operator);
-                        } else {
-                            filteredStream = filterNumericInt(filteredStream, col, value,
-                                    Integer::compareTo, operator);
-                        }
-                        break;
-                    case CONTAINS:
-                        if (col != GameData.NAME) {
-                            throw new IllegalArgumentException(
-                                    "The ~= operator can only be applied to the name field."
-                            );
-                        }
-                        filteredStream = filterStringContains(filteredStream, col, value, String::contains);
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Invalid operator: " + operator);
+            } else {
+                int[] values = catalog.intColumn(column);
+                for (int row = current.nextSetBit(0); row >= 0; row = current.nextSetBit(row + 1)) {
+                    if (predicate.test(row)) {
+                        aggregate.add(values[row]);
+                    }
                 }
             }
+            return aggregate;
         }
+    }
 
-        // Update the games set with the filtered results
-        games = filteredStream.collect(Collectors.toSet());
+    /**
+     * Counts the games matching a filter into the buckets of each requested facet.
+     * The filter is applied on top of the current filter, but does not change it, so
+     * the facets of a filter can be previewed as it is typed.
+     * Every facet is filled in the same single pass over the matching rows.
+     * @param filter the filter string, empty to use the current filter as is
+     * @param facets the facets to compute
+     * @return the bucket counts for each facet
+     * @throws IllegalArgumentException if the filter is invalid
+     */
+    public FacetCounts facets(String filter, Facet... facets) {
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            return FacetCounts.count(view.catalog, select(view, filter, QueryContext.NONE), Arrays.asList(facets));
+        }
+    }
 
-        // Sort the filtered stream of board games based on the specified sorting criteria
-        return games.stream().sorted((g1, g2) -> {
-            int comparison = compare(g1, g2, sortOn);
-            return ascending ? comparison : -comparison;
-        });
+    /**
+     * Finds the games most similar to a game, on rating, difficulty, player range, play time
+     * and year. Only games matching the filter (on top of the current filter, which is not
+     * changed) are returned; the filter is pushed down into the similarity index, so parts
+     * of the index with no matching games are never searched.
+     * @param name the name of the game to find similar games to, ignoring case
+     * @param count the maximum number of games to return
+     * @param filter the filter string, empty to use the current filter as is
+     * @return the similar games, most similar first, never including the game itself
+     * @throws IllegalArgumentException if the game is not found or the filter is invalid
+     */
+    public Stream<BoardGame> similar(String name, int count, String filter) {
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            GameCatalog catalog = view.catalog;
+            int row = catalog.rowOf(name.trim());
+            if (row < 0) {
+                throw new IllegalArgumentException("Game not found: " + name);
+            }
+            BitSet matches = select(view, filter, QueryContext.NONE);
+            KdTree index = catalog.similarityIndex();
+            BitSet allowed = matches.cardinality() == catalog.size() ? null : index.toPositions(matches);
+            return IntStream.of(index.nearest(row, count, allowed)).mapToObj(catalog::game);
+        }
     }
 
     /**
-     * Compares two board games based on the specified sorting criteria.
-     * @param g1 the first board game
-     * @param g2 the second board game
+     * Finds the games matching a filter that no other matching game dominates on high
+     * rating, low difficulty and short (maximum) play time. A game is dominated when another
+     * is at least as good on all three and better on at least one.
+     * The filter is applied on top of the current filter, but does not change it.
+     * @param filter the filter string, empty to use the current filter as is
+     * @return the skyline games, from highest to lowest rating
+     * @throws IllegalArgumentException if the filter is invalid
+     */
+    public Stream<BoardGame> skyline(String filter) {
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            GameCatalog catalog = view.catalog;
+            BitSet matches = select(view, filter, QueryContext.NONE);
+            return IntStream.of(Skyline.compute(catalog, matches)).mapToObj(catalog::game);
+        }
+    }
+
+    /**
+     * Picks a random game from the current filter, each game equally likely.
+     * The first draw after the filter changes builds a small rank/select directory over the
+     * filter; every draw after that is O(log n) without scanning the filter.
+     * @param random the source of randomness
+     * @return the game, or empty if no games match the current filter
+     */
+    public Optional<BoardGame> pickRandom(Random random) {
+        return pickRandom(null, random);
+    }
+
+    /**
+     * Picks a random game from the current filter, weighted on a column. Weighting on RATING
+     * makes higher rated games more likely; weighting on RANK makes the chance fall off as
+     * 1 / rank. The first draw after the filter or weighting changes builds an alias table
+     * over the filter; every draw after that is O(1).
+     * @param weightOn RATING or RANK, or null for every game to be equally likely
+     * @param random the source of randomness
+     * @return the game, or empty if no games match the current filter
+     * @throws IllegalArgumentException if the column is not RATING or RANK
+     */
+    public Optional<BoardGame> pickRandom(GameData weightOn, Random random) {
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            GameCatalog catalog = view.catalog;
+            BitSet current = view.rows;
+            RandomPicker cached = picker;
+            if (cached == null || cached.rows() != current || cached.getWeightOn() != weightOn) {
+                cached = weightOn == null ? new RandomPicker(current) : new RandomPicker(catalog, current, weightOn);
+                picker = cached;
+            }
+            int row = cached.pick(random);
+            return row < 0 ? Optional.empty() : Optional.of(catalog.game(row));
+        }
+    }
+
+    /**
+     * Counts the games matching the current filter, without building or sorting a stream.
+     * @return the number of games in the current filter
+     */
+    public int count() {
+        try (CatalogRegistry.Lease lease = lease()) {
+            return view(lease).rows.cardinality();
+        }
+    }
+
+    /**
+     * Runs a spread of filters, each sorted on every column both ways, so the JIT compiles
+     * the filter and sort paths before a user's first query needs them.
+     * @param catalog the catalog to query
+     * @param rounds how many times to run the whole spread
+     * @return the total number of matches, so the work is not optimised away
+     */
+    static long warmUp(GameCatalog catalog, int rounds) {
+        long total = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String filter : WARM_UP_FILTERS) {
+                for (GameData col : GameData.values()) {
+                    if (col != GameData.ID) {
+                        total += query(catalog, filter, col, true).length;
+                        total += query(catalog, filter, col, false).length;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Filters and sorts a whole catalog, without a planner's state.
+     * @param catalog the catalog
+     * @param filter the filter string
      * @param sortOn the game data field to sort on
-     * @return a negative integer, zero, or a positive integer as the first board game
-     * is less than, equal to, or greater than the second board game
+     * @param ascending true if the sort order is ascending, false if descending
+     * @return the matching rows, in sorted order
+     * @throws IllegalArgumentException if the filter is invalid or the column cannot be sorted on
      */
-    private int compare(BoardGame g1, BoardGame g2, GameData sortOn) {
-        switch (sortOn) {
-            case NAME:
-                return g1.getName().compareToIgnoreCase(g2.getName());
-            case RATING:
-                return Double.compare(g1.getRating(), g2.getRating());
-            case DIFFICULTY:
-                return Double.compare(g1.getDifficulty(), g2.getDifficulty());
-            case RANK:
-                return Integer.compare(g1.getRank(), g2.getRank());
-            case MIN_PLAYERS:
-                return Integer.compare(g1.getMinPlayers(), g2.getMinPlayers());
-            case MAX_PLAYERS:
-                return Integer.compare(g1.getMaxPlayers(), g2.getMaxPlayers());
-            case MIN_TIME:
-                return Integer.compare(g1.getMinPlayTime(), g2.getMinPlayTime());
-            case MAX_TIME:
-                return Integer.compare(g1.getMaxPlayTime(), g2.getMaxPlayTime());
-            case YEAR:
-                return Integer.compare(g1.getYearPublished(), g2.getYearPublished());
-            default:
-                throw new IllegalArgumentException("Invalid column: " + sortOn);
+    static int[] query(GameCatalog catalog, String filter, GameData sortOn, boolean ascending) {
+        return query(catalog, filter, sortOn, ascending, QueryContext.NONE);
+    }
+
+    /**
+     * Filters and sorts a whole catalog, without a planner's state, stopping early if the
+     * query is cancelled or runs past its deadline.
+     * @param catalog the catalog
+     * @param filter the filter string
+     * @param sortOn the game data field to sort on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @param context the query's deadline and cancellation token
+     * @return the matching rows, in sorted order
+     * @throws IllegalArgumentException if the filter is invalid or the column cannot be sorted on
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
+     */
+    static int[] query(GameCatalog catalog, String filter, GameData sortOn, boolean ascending, QueryContext context) {
+        if (sortOn == GameData.ID) {
+            throw new IllegalArgumentException("Invalid column: " + sortOn);
         }
+        BitSet matches = select(new View(catalog, 0, catalog.allRows()), filter, context);
+        return sorted(catalog, matches, sortOn, ascending, context).toArray();
+    }
+
+    /**
+     * Leases the registry's current generation, if the planner has a registry.
+     * @return the lease, or null if the catalog is fixed (try-with-resources skips null)
+     */
+    private CatalogRegistry.Lease lease() {
+        return registry == null ? null : registry.acquire();
     }
 
     /**
-     * Filters a stream of board games based on string comparison.
-     * @param stream the stream of board games
-     * @param col the game data field to filter on
-     * @param value the string value to filter on
-     * @param comparator the comparator used for string comparison
-     * @param operator the comparison operator (">", "<", ">=", "<=", "==", "!=")
-     * @return a stream of filtered board games
-     * @throws IllegalArgumentException if an invalid operator is provided
+     * Gets the current view for a call, on the leased generation. If the leased generation
+     * is newer than the view, the filter is carried over to it and the moved view published,
+     * unless another thread changed the view first. If a newer generation was swapped in
+     * after the lease was taken, the call finishes on the leased one without publishing.
+     * @param lease the lease, or null if the catalog is fixed
+     * @return the view on the leased catalog
      */
-    private Stream<BoardGame> filterStringCompare(Stream<BoardGame> stream, GameData col, String value,
-                                                  Comparator<String> comparator, Operations operator) {
-        switch (operator) {
-            case GREATER_THAN:
-                return stream.filter(
-                        g -> comparator.compare(g.getStringValue(col).toLowerCase(), value.toLowerCase()) > 0
-                );
-            case LESS_THAN:
-                return stream.filter(
-                        g -> comparator.compare(g.getStringValue(col).toLowerCase(), value.toLowerCase()) < 0
-                );
-            case GREATER_THAN_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getStringValue(col).toLowerCase(), value.toLowerCase()) >= 0
-                );
-            case LESS_THAN_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getStringValue(col).toLowerCase(), value.toLowerCase()) <= 0
-                );
-            case EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getStringValue(col).toLowerCase(), value.toLowerCase()) == 0
-                );
-            case NOT_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getStringValue(col).toLowerCase(), value.toLowerCase()) != 0
-                );
-            default:
-                throw new IllegalArgumentException("Invalid operator: " + operator);
+    private View view(CatalogRegistry.Lease lease) {
+        View view = state.get();
+        if (lease == null) {
+            return view;
         }
+        while (view.version < lease.version()) {
+            View moved = view.moveTo(lease.catalog(), lease.version());
+            if (state.compareAndSet(view, moved)) {
+                return moved;
+            }
+            view = state.get();
+        }
+        return view.version == lease.version() ? view : view.moveTo(lease.catalog(), lease.version());
     }
 
     /**
-     * Filters the stream of board games based on a string value.
-     * @param stream the stream of board games
-     * @param col the game data field to filter on
-     * @param value the string value to filter on
-     * @param predicate the predicate to apply for filtering
-     * @return a stream of filtered board games
+     * Applies a filter string on top of a filter, without changing either.
+     * @param view the catalog and the rows of the filter to start from
+     * @param filter the filter string
+     * @param context the query's deadline and cancellation token, checked while scanning
+     * @return the matching rows of the catalog, a new BitSet unless the filter string is empty
+     * @throws IllegalArgumentException if the filter is invalid
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
      */
-    private Stream<BoardGame> filterStringContains(Stream<BoardGame> stream, GameData col, String value,
-                                                   BiPredicate<String, String> predicate) {
-        return stream.filter(g -> predicate.test(g.getStringValue(col).toLowerCase(), value.toLowerCase()));
+    private static BitSet select(View view, String filter, QueryContext context) {
+        List<FilterClause> clauses = FilterClause.parseAll(filter);
+        if (clauses.isEmpty()) {
+            return view.rows;
+        }
+        GameCatalog catalog = view.catalog;
+        List<FilterClause> scanned = new ArrayList<>();
+        BitSet candidates = narrow(catalog, view.rows, clauses, scanned);
+        if (scanned.isEmpty()) {
+            return candidates;
+        }
+        IntPredicate predicate = FilterClause.bindAll(scanned, catalog, context);
+        BitSet matches = new BitSet(catalog.size());
+        int steps = 0;
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            if ((++steps & (QueryContext.CHECK_INTERVAL - 1)) == 0) {
+                context.check();
+            }
+            if (predicate.test(row)) {
+                matches.set(row);
+            }
+        }
+        return matches;
     }
 
     /**
-     * Filters the stream of board games based on a numeric double value.
-     * @param stream the stream of board games
-     * @param col the game data field to filter on
-     * @param value the numeric double value to filter on
-     * @param comparator the comparator used for numeric double comparison
-     * @param operator the comparison operator (">", "<", ">=", "<=", "==", "!=")
-     * @return a stream of filtered board games
-     * @throws IllegalArgumentException if an invalid operator is provided
+     * Narrows a filter using the clauses that have an index, so only their matches need
+     * to be tested against the other clauses.
+     * @param catalog the catalog the rows belong to
+     * @param current the rows of the filter to start from, which are not changed
+     * @param clauses the clauses to apply
+     * @param scanned receives the clauses without an index, which must be tested row by row
+     * @return the rows matching the indexed clauses, or current itself if there are none
      */
-    private Stream<BoardGame> filterNumericDouble(Stream<BoardGame> stream, GameData col, String value,
-                                                  Comparator<Double> comparator, Operations operator) {
-        Double doubleValue = Double.valueOf(value);
-
-        switch (operator) {
-            case GREATER_THAN:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueDouble(col), doubleValue) > 0
-                );
-            case LESS_THAN:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueDouble(col), doubleValue) < 0
-                );
-            case GREATER_THAN_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueDouble(col), doubleValue) >= 0
-                );
-            case LESS_THAN_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueDouble(col), doubleValue) <= 0
-                );
-            case EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueDouble(col), doubleValue) == 0
-                );
-            case NOT_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueDouble(col), doubleValue) != 0
-                );
-            default:
-                throw new IllegalArgumentException("Invalid operator: " + operator);
+    private static BitSet narrow(GameCatalog catalog, BitSet current, List<FilterClause> clauses,
+                                 List<FilterClause> scanned) {
+        BitSet candidates = current;
+        for (FilterClause clause : clauses) {
+            BitSet indexed = clause.indexedRows(catalog);
+            if (indexed == null) {
+                scanned.add(clause);
+            } else {
+                indexed.and(candidates);
+                candidates = indexed;
+            }
         }
+        return candidates;
     }
 
     /**
-     * Filters the stream of board games based on a numeric integer value.
-     * @param stream the stream of board games
-     * @param col the game data field to filter on
-     * @param value the numeric integer value to filter on
-     * @param comparator the comparator used for numeric double comparison
-     * @param operator the comparison operator (">", "<", ">=", "<=", "==", "!=")
-     * @return a stream of filtered board games
-     * @throws IllegalArgumentException if an invalid operator is provided
+     * Orders a set of rows on a column.
+     * Rows are already in name order, and every other column has a precomputed order in the
+     * catalog. Small sets are sorted directly, as that is cheaper than walking the full order.
+     * @param catalog the catalog the rows belong to
+     * @param rows the rows to order
+     * @param sortOn the game data field to sort on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @param context the query's deadline and cancellation token, checked while sorting or walking the order
+     * @return the row numbers in sorted order
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
      */
-    private Stream<BoardGame> filterNumericInt(Stream<BoardGame> stream, GameData col, String value,
-                                               Comparator<Integer> comparator, Operations operator) {
-        Integer intValue = Integer.parseInt(value);
-
-        switch (operator) {
-            case GREATER_THAN:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueInt(col), intValue) > 0
-                );
-            case LESS_THAN:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueInt(col), intValue) < 0
-                );
-            case GREATER_THAN_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueInt(col), intValue) >= 0
-                );
-            case LESS_THAN_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueInt(col), intValue) <= 0
-                );
-            case EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueInt(col), intValue) == 0
-                );
-            case NOT_EQUALS:
-                return stream.filter(
-                        g -> comparator.compare(g.getNumericValueInt(col), intValue) != 0
-                );
-            default:
-                throw new IllegalArgumentException("Invalid operator: " + operator);
+    private static IntStream sorted(GameCatalog catalog, BitSet rows, GameData sortOn, boolean ascending,
+                                    QueryContext context) {
+        int count = rows.cardinality();
+        int[] result;
+        if (sortOn == GameData.NAME) {
+            result = rows.stream().toArray();
+        } else if ((long) count * (32 - Integer.numberOfLeadingZeros(count)) < catalog.size()) {
+            int[] comparisons = {0};
+            result = rows.stream().boxed().sorted((r1, r2) -> {
+                if ((++comparisons[0] & (QueryContext.CHECK_INTERVAL - 1)) == 0) {
+                    context.check();
+                }
+                return compare(catalog, r1, r2, sortOn);
+            }).mapToInt(Integer::intValue).toArray();
+        } else {
+            result = new int[count];
+            int i = 0;
+            int steps = 0;
+            for (int row : catalog.order(sortOn)) {
+                if ((++steps & (QueryContext.CHECK_INTERVAL - 1)) == 0) {
+                    context.check();
+                }
+                if (rows.get(row)) {
+                    result[i++] = row;
+                }
+            }
+        }
+        if (!ascending) {
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                int tmp = result[i];
+                result[i] = result[j];
+                result[j] = tmp;
+            }
         }
+        return IntStream.of(result);
+    }
+
+    /**
+     * Compares two rows based on the specified sorting criteria, falling back on name order.
+     * @param catalog the catalog the rows belong to
+     * @param r1 the first row
+     * @param r2 the second row
+     * @param sortOn the game data field to sort on
+     * @return a negative integer, zero, or a positive integer as the first row
+     * is less than, equal to, or greater than the second row
+     */
+    private static int compare(GameCatalog catalog, int r1, int r2, GameData sortOn) {
+        int comparison;
+        if (GameCatalog.isDouble(sortOn)) {
+            double[] values = catalog.doubleColumn(sortOn);
+            comparison = Double.compare(values[r1], values[r2]);
+        } else {
+            int[] values = catalog.intColumn(sortOn);
+            comparison = Integer.compare(values[r1], values[r2]);
+        }
+        return comparison != 0 ? comparison : Integer.compare(r1, r2);
     }
 
     /**
@@ -312,7 +554,7 @@ public class Planner implements IPlanner {
      */
     @Override
     public void reset() {
-        games = new HashSet<>(initialGames);
+        state.updateAndGet(view -> view.with(view.catalog.allRows()));
     }
 
     /**
@@ -320,6 +562,84 @@ public class Planner implements IPlanner {
      * @return A copy of the set of all board games.
      */
     public Set<BoardGame> getGames() {
-        return new HashSet<>(games);
+        try (CatalogRegistry.Lease lease = lease()) {
+            View view = view(lease);
+            Set<BoardGame> result = new HashSet<>();
+            view.rows.stream().forEach(row -> result.add(view.catalog.game(row)));
+            return result;
+        }
+    }
+
+    /**
+     * Gets the rows of the current filter. The set is shared, and must not be modified.
+     * @return the rows of the catalog matching the current filter
+     */
+    BitSet rows() {
+        return state.get().rows;
+    }
+
+    /**
+     * Gets the catalog of all board games managed by the planner.
+     * @return the catalog
+     */
+    public GameCatalog getCatalog() {
+        try (CatalogRegistry.Lease lease = lease()) {
+            return view(lease).catalog;
+        }
+    }
+
+    /**
+     * A catalog generation together with the rows of a filter over it, never changed once
+     * published.
+     */
+    private static final class View {
+        /** The catalog. */
+        private final GameCatalog catalog;
+        /** The registry version of the catalog, or 0 for a fixed catalog. */
+        private final long version;
+        /** The rows of the catalog that match the filter. */
+        private final BitSet rows;
+
+        /**
+         * Constructor for a view.
+         * @param catalog the catalog
+         * @param version the registry version of the catalog, or 0 for a fixed catalog
+         * @param rows the rows matching the filter, which must not be changed afterwards
+         */
+        View(GameCatalog catalog, long version, BitSet rows) {
+            this.catalog = catalog;
+            this.version = version;
+            this.rows = rows;
+        }
+
+        /**
+         * Gets a view of other rows of the same catalog.
+         * @param matches the rows, which must not be changed afterwards
+         * @return the new view
+         */
+        View with(BitSet matches) {
+            return new View(catalog, version, matches);
+        }
+
+        /**
+         * Carries the filter over to another catalog, matching games by id.
+         * @param target the other catalog
+         * @param targetVersion the registry version of the other catalog
+         * @return the view of the same games in the other catalog
+         */
+        View moveTo(GameCatalog target, long targetVersion) {
+            if (rows.cardinality() == catalog.size()) {
+                return new View(target, targetVersion, target.allRows());
+            }
+            int[] ids = catalog.intColumn(GameData.ID);
+            BitSet moved = new BitSet(target.size());
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                int targetRow = target.rowOfId(ids[row]);
+                if (targetRow >= 0) {
+                    moved.set(targetRow);
+                }
+            }
+            return new View(target, targetVersion, moved);
+        }
     }
 }
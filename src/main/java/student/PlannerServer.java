@@ -0,0 +1,420 @@
+package student;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An embedded HTTP server exposing the planner as JSON endpoints over one shared catalog.
+ * <p>
+ * Every request runs on its own virtual thread, so thousands of slow or idle connections
+ * cost little more than their buffers. Queries are stateless and run on the registry's
+ * current catalog through a {@link QueryCoalescer}, so a burst of identical queries is
+ * evaluated once and shared. Named game lists are kept by the server.
+ * <p>
+ * Every query has a deadline, after which it stops and gets a 503 response. Expensive
+ * queries, those matching names by substring or fuzzily, also go through an
+ * {@link AdmissionController}: only a few run at once, a few more wait, and the rest get a
+ * 503 straight away, so cheap queries keep their workers while heavy ones are running.
+ * <p>
+ * Endpoints, with parameters taken from the query string or a form encoded body:
+ * <ul>
+ *     <li>{@code GET /games?filter=&sort=&order=asc|desc&page=&size=} - a page of the
+ *     games matching a filter, in sorted order, with the total number of matches.</li>
+ *     <li>{@code GET /lists/<name>} - the games on a list. A list exists from its first
+ *     POST; any other name gets a 404 response.</li>
+ *     <li>{@code POST /lists/<name>?add=<game|#|#-#|all>&filter=&sort=&order=} - add games,
+ *     by name or by number in the sorted filter results, like the console list add.</li>
+ *     <li>{@code DELETE /lists/<name>?remove=<game|#|#-#|all>} - remove games.</li>
+ *     <li>{@code GET /stats} - the catalog version, and the number of queries run and
+ *     saved by coalescing.</li>
+ * </ul>
+ * Invalid requests get a 400 response with an {@code error} field.
+ */
+public final class PlannerServer {
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 8080;
+    /** Number of games per page when none is given. */
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    /** Largest page size a request can ask for. */
+    private static final int MAX_PAGE_SIZE = 1000;
+    /** Connections the OS may queue before the server accepts them. */
+    private static final int BACKLOG = 4096;
+    /** How long a query may run, including any wait to be admitted. */
+    private static final Duration QUERY_TIMEOUT = Duration.ofSeconds(10);
+    /** The most expensive queries waiting to run. */
+    private static final int MAX_QUEUED_EXPENSIVE = 64;
+
+    /** The registry of the catalog shared by every request. */
+    private final CatalogRegistry registry;
+    /** True if the server created the registry, so closes it when stopped. */
+    private final boolean ownsRegistry;
+    /** Runs the queries, sharing identical ones that arrive together. */
+    private final QueryCoalescer coalescer;
+    /** Limits how many expensive queries run at once. */
+    private final AdmissionController admission =
+            new AdmissionController(Runtime.getRuntime().availableProcessors(), MAX_QUEUED_EXPENSIVE);
+    /** The underlying JDK server. */
+    private final HttpServer server;
+    /** Runs each request on its own virtual thread. */
+    private final ExecutorService executor;
+    /** The named game lists. */
+    private final Map<String, GameList> lists = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a server, bound but not yet started.
+     * @param catalog the catalog to serve
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public PlannerServer(GameCatalog catalog, int port) throws IOException {
+        this(new CatalogRegistry(catalog), true, port);
+    }
+
+    /**
+     * Creates a server over the current catalog of a registry, bound but not yet started.
+     * New catalogs published to the registry are served without a restart.
+     * @param registry the registry of the catalog to serve
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public PlannerServer(CatalogRegistry registry, int port) throws IOException {
+        this(registry, false, port);
+    }
+
+    /**
+     * Creates a server over the current catalog of a registry, bound but not yet started.
+     * @param registry the registry of the catalog to serve
+     * @param ownsRegistry true if the server closes the registry when stopped
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    private PlannerServer(CatalogRegistry registry, boolean ownsRegistry, int port) throws IOException {
+        this.registry = registry;
+        this.ownsRegistry = ownsRegistry;
+        this.coalescer = new QueryCoalescer(registry, admitted(admission, Planner::query));
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/games", exchange -> handle(exchange, this::games));
+        server.createContext("/lists/", exchange -> handle(exchange, this::list));
+        server.createContext("/stats", exchange -> handle(exchange, this::stats));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server, waiting at most a second for requests in progress to finish. A
+     * registry the server created itself is closed too; one passed in is left to its owner.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.close();
+        if (ownsRegistry) {
+            registry.close();
+        }
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers {@code /games}: filters, sorts and pages the catalog.
+     * @param method the request method
+     * @param path the request path
+     * @param params the request parameters
+     * @return the response
+     */
+    private Response games(String method, String path, Map<String, String> params) {
+        if (!"/games".equals(path)) {
+            return Response.error(404, "Not found: " + path);
+        }
+        if (!"GET".equals(method)) {
+            return Response.error(405, "Method not allowed: " + method);
+        }
+        int page = intParam(params, "page", 1);
+        int size = intParam(params, "size", DEFAULT_PAGE_SIZE);
+        if (page < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid page or size");
+        }
+        QueryCoalescer.Result result = query(params);
+        List<BoardGame> games = result.page((long) (page - 1) * size, size);
+
+        StringBuilder out = new StringBuilder(256 + games.size() * 192);
+        out.append("{\"total\":").append(result.total())
+                .append(",\"page\":").append(page)
+                .append(",\"size\":").append(size)
+                .append(",\"games\":");
+        Json.games(out, games);
+        return Response.ok(out.append('}'));
+    }
+
+    /**
+     * Answers {@code /lists/<name>}: shows, adds to or removes from a named list.
+     * @param method the request method
+     * @param path the request path
+     * @param params the request parameters
+     * @return the response
+     */
+    private Response list(String method, String path, Map<String, String> params) {
+        String name = path.substring("/lists/".length());
+        if (name.isEmpty() || name.contains("/")) {
+            return Response.error(404, "Not found: " + path);
+        }
+        GameList list;
+        switch (method) {
+            case "GET":
+                list = lists.get(name);
+                if (list == null) {
+                    return Response.error(404, "No such list: " + name);
+                }
+                break;
+            case "POST":
+                list = lists.computeIfAbsent(name, key -> {
+                    GameList created = new GameList();
+                    created.setNameIndex(() -> registry.catalog().nameIndex());
+                    return created;
+                });
+                String add = params.getOrDefault("add", "");
+                QueryCoalescer.Result games = query(params);
+                synchronized (list) {
+                    list.addToList(add, games.games());
+                }
+                break;
+            case "DELETE":
+                list = lists.get(name);
+                if (list == null) {
+                    return Response.error(404, "No such list: " + name);
+                }
+                synchronized (list) {
+                    list.removeFromList(params.getOrDefault("remove", ""));
+                }
+                break;
+            default:
+                return Response.error(405, "Method not allowed: " + method);
+        }
+        List<String> names;
+        synchronized (list) {
+            names = list.getGameNames();
+        }
+        StringBuilder out = new StringBuilder(64 + names.size() * 32);
+        out.append("{\"name\":");
+        Json.string(out, name);
+        out.append(",\"count\":").append(names.size()).append(",\"games\":");
+        Json.strings(out, names);
+        return Response.ok(out.append('}'));
+    }
+
+    /**
+     * Answers {@code /stats}: the catalog version and the query counts.
+     * @param method the request method
+     * @param path the request path
+     * @param params the request parameters
+     * @return the response
+     */
+    private Response stats(String method, String path, Map<String, String> params) {
+        if (!"/stats".equals(path)) {
+            return Response.error(404, "Not found: " + path);
+        }
+        if (!"GET".equals(method)) {
+            return Response.error(405, "Method not allowed: " + method);
+        }
+        StringBuilder out = new StringBuilder(96);
+        out.append("{\"version\":").append(registry.version())
+                .append(",\"queries\":").append(coalescer.getCalls())
+                .append(",\"coalesced\":").append(coalescer.getSaved())
+                .append(",\"rejected\":").append(admission.getRejected());
+        return Response.ok(out.append('}'));
+    }
+
+    /**
+     * Runs the filter and sort given by the request parameters.
+     * @param params the request parameters
+     * @return the matching games, in sorted order
+     */
+    private QueryCoalescer.Result query(Map<String, String> params) {
+        GameData sortOn = GameData.fromString(params.getOrDefault("sort", GameData.NAME.name()));
+        String order = params.getOrDefault("order", "asc");
+        if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            throw new IllegalArgumentException("Invalid order: " + order);
+        }
+        String filter = params.getOrDefault("filter", "").toLowerCase();
+        boolean ascending = "asc".equalsIgnoreCase(order);
+        return coalescer.query(filter, sortOn, ascending, QueryContext.withTimeout(QUERY_TIMEOUT));
+    }
+
+    /**
+     * Wraps an evaluator so expensive queries wait for admission. As the coalescer only calls
+     * its evaluator for the caller that starts a query, callers joining an expensive query
+     * already running share it without taking a permit or a place in the queue.
+     * @param admission limits how many expensive queries run at once
+     * @param evaluator evaluates a query once admitted
+     * @return the admitting evaluator
+     */
+    static QueryCoalescer.Evaluator admitted(AdmissionController admission, QueryCoalescer.Evaluator evaluator) {
+        return (catalog, filter, sortOn, ascending, context) -> {
+            if (FilterClause.isExpensive(filter)) {
+                return admission.admit(context, () -> evaluator.evaluate(catalog, filter, sortOn, ascending, context));
+            }
+            return evaluator.evaluate(catalog, filter, sortOn, ascending, context);
+        };
+    }
+
+    /**
+     * Reads a whole number parameter.
+     * @param params the request parameters
+     * @param key the parameter name
+     * @param fallback the value if the parameter is missing
+     * @return the value
+     * @throws IllegalArgumentException if the parameter is not a number
+     */
+    private static int intParam(Map<String, String> params, String key, int fallback) {
+        String value = params.get(key);
+        if (value == null || value.isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+
+    /**
+     * Runs an endpoint for an exchange and sends its response, turning invalid requests into
+     * 400 responses and anything unexpected into 500 responses.
+     * @param exchange the exchange
+     * @param endpoint the endpoint to run
+     * @throws IOException if the response cannot be sent
+     */
+    private static void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        Response response;
+        try {
+            Map<String, String> params = parseParams(exchange.getRequestURI().getRawQuery());
+            try (InputStream body = exchange.getRequestBody()) {
+                params.putAll(parseParams(new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+            response = endpoint.answer(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), params);
+        } catch (GameNotFoundException e) {
+            StringBuilder out = new StringBuilder("{\"error\":");
+            Json.string(out, e.getMessage()).append(",\"suggestion\":");
+            Json.string(out, e.getSuggestion());
+            response = new Response(400, out.append('}'));
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (QueryRejectedException | QueryCancelledException e) {
+            response = Response.error(503, e.getMessage());
+        } catch (RuntimeException e) {
+            response = Response.error(500, "Internal error");
+        }
+        byte[] bytes = response.body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Parses URL encoded parameters, such as a query string or form body.
+     * @param encoded the parameters, or null
+     * @return the parameters by name; later values win over earlier ones
+     * @throws IllegalArgumentException if the encoding is invalid
+     */
+    static Map<String, String> parseParams(String encoded) {
+        Map<String, String> params = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return params;
+        }
+        for (String pair : encoded.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    /**
+     * An endpoint of the server.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        /**
+         * Answers a request.
+         * @param method the request method
+         * @param path the request path
+         * @param params the query and form parameters
+         * @return the response
+         * @throws IllegalArgumentException if the request is invalid
+         */
+        Response answer(String method, String path, Map<String, String> params);
+    }
+
+    /**
+     * A status code and JSON body to send back.
+     */
+    private static final class Response {
+        /** The HTTP status code. */
+        private final int status;
+        /** The JSON body. */
+        private final CharSequence body;
+
+        /**
+         * Constructor for a response.
+         * @param status the HTTP status code
+         * @param body the JSON body
+         */
+        Response(int status, CharSequence body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        /**
+         * Creates a successful response.
+         * @param body the JSON body
+         * @return the response
+         */
+        static Response ok(CharSequence body) {
+            return new Response(200, body);
+        }
+
+        /**
+         * Creates an error response with an error message.
+         * @param status the HTTP status code
+         * @param message the message
+         * @return the response
+         */
+        static Response error(int status, String message) {
+            StringBuilder out = new StringBuilder("{\"error\":");
+            return new Response(status, Json.string(out, message).append('}'));
+        }
+    }
+}
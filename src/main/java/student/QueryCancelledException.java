@@ -0,0 +1,30 @@
+package student;
+
+/**
+ * Thrown when a query stops early, because it was cancelled or its deadline passed.
+ * The planner's state is left as it was before the query.
+ */
+public class QueryCancelledException extends RuntimeException {
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+    /** True if the deadline passed, false if the query was cancelled. */
+    private final boolean timedOut;
+
+    /**
+     * Constructor for the exception.
+     * @param message the detail message
+     * @param timedOut true if the deadline passed, false if the query was cancelled
+     */
+    public QueryCancelledException(String message, boolean timedOut) {
+        super(message);
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * Checks whether the query stopped because its deadline passed.
+     * @return true for a deadline, false for a cancellation
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
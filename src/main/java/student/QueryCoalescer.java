@@ -0,0 +1,267 @@
+package student;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Runs filter queries so that identical queries made at the same time are only evaluated
+ * once (single flight).
+ * <p>
+ * A query is keyed on its normalized filter (see {@link FilterClause#normalize}), its sort
+ * and the version of the catalog it runs on. The first caller with a key evaluates the
+ * query; any caller with the same key that arrives while it is still running waits for it
+ * and shares its result, or its exception. Nothing is cached once the query finishes, so
+ * results are never stale, and a burst of identical requests costs one evaluation rather
+ * than one each.
+ * <p>
+ * A shared evaluation runs under the deadline and cancellation token of the caller that
+ * started it, and callers that join it stop waiting when their own deadline passes. If the
+ * caller that started it is cancelled or runs out of time, the callers still waiting do not
+ * share its cancellation: they run the query again, one of them evaluating it for the rest.
+ * <p>
+ * Results are immutable and safe to share between threads.
+ */
+public final class QueryCoalescer {
+    /** How long a joined caller waits between looking for a cancellation, in nanoseconds. */
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** The registry the catalog comes from. */
+    private final CatalogRegistry registry;
+    /** Evaluates a query. */
+    private final Evaluator evaluator;
+    /** The queries being evaluated, by key. */
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    /** The number of queries asked for. */
+    private final LongAdder calls = new LongAdder();
+    /** The number of queries answered by sharing another caller's evaluation. */
+    private final LongAdder saved = new LongAdder();
+
+    /**
+     * Creates a coalescer over the current catalog of a registry.
+     * @param registry the registry of catalog generations
+     */
+    public QueryCoalescer(CatalogRegistry registry) {
+        this(registry, Planner::query);
+    }
+
+    /**
+     * Creates a coalescer with a given way of evaluating queries, for tests.
+     * @param registry the registry of catalog generations
+     * @param evaluator evaluates a query
+     */
+    QueryCoalescer(CatalogRegistry registry, Evaluator evaluator) {
+        this.registry = registry;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Runs a query on the current catalog, sharing the evaluation with any identical query
+     * already running.
+     * @param filter the filter string
+     * @param sortOn the game data field to sort on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @return the matching games
+     * @throws IllegalArgumentException if the filter is invalid or the column cannot be sorted on
+     */
+    public Result query(String filter, GameData sortOn, boolean ascending) {
+        return query(filter, sortOn, ascending, QueryContext.NONE);
+    }
+
+    /**
+     * Runs a query on the current catalog with a deadline and cancellation token, sharing the
+     * evaluation with any identical query already running.
+     * @param filter the filter string
+     * @param sortOn the game data field to sort on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @param context the query's deadline and cancellation token
+     * @return the matching games
+     * @throws IllegalArgumentException if the filter is invalid or the column cannot be sorted on
+     * @throws QueryCancelledException if the query was cancelled or ran past its deadline
+     */
+    public Result query(String filter, GameData sortOn, boolean ascending, QueryContext context) {
+        calls.increment();
+        try (CatalogRegistry.Lease lease = registry.acquire()) {
+            String key = lease.version() + "|" + sortOn + "|" + ascending + "|" + FilterClause.normalize(filter);
+            while (true) {
+                CompletableFuture<Result> mine = new CompletableFuture<>();
+                CompletableFuture<Result> running = inFlight.putIfAbsent(key, mine);
+                if (running == null) {
+                    return evaluate(lease, key, mine, filter, sortOn, ascending, context);
+                }
+                saved.increment();
+                Result result = await(running, context);
+                if (result != null) {
+                    return result;
+                }
+                // the caller evaluating it gave up, so this one did not share after all
+                saved.decrement();
+            }
+        }
+    }
+
+    /**
+     * Evaluates a query for every caller sharing it. The query is taken out of the running
+     * queries before the callers waiting are told, so any that go on to run it again start
+     * a fresh evaluation. This happens however the evaluation ends, errors included, so no
+     * later caller can join an evaluation that will never finish.
+     * @param lease the lease on the catalog to query
+     * @param key the query's key
+     * @param mine the evaluation's shared result
+     * @param filter the filter string
+     * @param sortOn the game data field to sort on
+     * @param ascending true if the sort order is ascending, false if descending
+     * @param context the evaluating caller's deadline and cancellation token
+     * @return the matching games
+     */
+    private Result evaluate(CatalogRegistry.Lease lease, String key, CompletableFuture<Result> mine,
+                            String filter, GameData sortOn, boolean ascending, QueryContext context) {
+        try {
+            int[] rows = evaluator.evaluate(lease.catalog(), filter, sortOn, ascending, context);
+            Result result = new Result(lease.catalog(), lease.version(), rows);
+            inFlight.remove(key, mine);
+            mine.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for another caller's evaluation.
+     * @param running the evaluation
+     * @param context the waiting caller's deadline and cancellation token
+     * @return its result, or null if the evaluating caller was cancelled or ran out of time
+     * @throws QueryCancelledException if the waiting caller was cancelled or ran out of time
+     * @throws RuntimeException the exception the evaluation failed with
+     * @throws Error the error the evaluation failed with
+     */
+    private static Result await(CompletableFuture<Result> running, QueryContext context) {
+        while (true) {
+            try {
+                return running.get(Math.min(context.remainingNanos(), POLL_NANOS), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                context.check();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof QueryCancelledException) {
+                    context.check();
+                    return null;
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryCancelledException("Interrupted while waiting for a shared query", false);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of queries asked for.
+     * @return the number of calls to {@link #query}
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Gets the number of queries that shared another caller's evaluation instead of
+     * running their own.
+     * @return the number of evaluations saved
+     */
+    public long getSaved() {
+        return saved.sum();
+    }
+
+    /**
+     * Evaluates one query on a catalog.
+     */
+    @FunctionalInterface
+    interface Evaluator {
+        /**
+         * Filters and sorts a catalog.
+         * @param catalog the catalog
+         * @param filter the filter string
+         * @param sortOn the game data field to sort on
+         * @param ascending true if the sort order is ascending, false if descending
+         * @param context the query's deadline and cancellation token
+         * @return the matching rows, in sorted order
+         */
+        int[] evaluate(GameCatalog catalog, String filter, GameData sortOn, boolean ascending, QueryContext context);
+    }
+
+    /**
+     * The games matching a query, in sorted order.
+     */
+    public static final class Result {
+        /** The catalog the rows belong to. */
+        private final GameCatalog catalog;
+        /** The version of the catalog. */
+        private final long version;
+        /** The matching rows, in sorted order. */
+        private final int[] rows;
+
+        /**
+         * Constructor for a result.
+         * @param catalog the catalog the rows belong to
+         * @param version the version of the catalog
+         * @param rows the matching rows in sorted order, which must not be changed afterwards
+         */
+        Result(GameCatalog catalog, long version, int[] rows) {
+            this.catalog = Objects.requireNonNull(catalog);
+            this.version = version;
+            this.rows = rows;
+        }
+
+        /**
+         * Gets the number of matching games.
+         * @return the number of games
+         */
+        public int total() {
+            return rows.length;
+        }
+
+        /**
+         * Gets the version of the catalog the query ran on.
+         * @return the catalog version
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * Gets the matching games.
+         * @return the games, in sorted order
+         */
+        public Stream<BoardGame> games() {
+            return IntStream.of(rows).mapToObj(catalog::game);
+        }
+
+        /**
+         * Gets part of the matching games, without touching the rest.
+         * @param skip the number of games to skip
+         * @param limit the most games to return
+         * @return the games, in sorted order
+         */
+        public List<BoardGame> page(long skip, int limit) {
+            int from = (int) Math.min(skip, rows.length);
+            int to = (int) Math.min((long) from + limit, rows.length);
+            return IntStream.range(from, to).mapToObj(i -> catalog.game(rows[i])).toList();
+        }
+    }
+}
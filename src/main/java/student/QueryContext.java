@@ -0,0 +1,97 @@
+package student;
+
+import java.time.Duration;
+
+/**
+ * The deadline and cancellation token of one query.
+ * <p>
+ * Long running loops over rows call {@link #check()} every {@link #CHECK_INTERVAL} steps,
+ * so a query stops soon after its deadline passes or it is cancelled, without paying for
+ * a clock read on every row. Cancelling is safe from any thread.
+ */
+public final class QueryContext {
+    /** A context with no deadline that is never cancelled, for queries that run to the end. */
+    public static final QueryContext NONE = new QueryContext(Long.MAX_VALUE, false);
+
+    /** How many loop steps pass between checks; a power of two. */
+    static final int CHECK_INTERVAL = 4096;
+
+    /** The deadline in {@link System#nanoTime()} terms, or Long.MAX_VALUE for none. */
+    private final long deadline;
+    /** False for {@link #NONE}, which ignores cancel. */
+    private final boolean cancellable;
+    /** True once cancelled. */
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor for a context.
+     * @param deadline the deadline in nanoTime terms, or Long.MAX_VALUE for none
+     * @param cancellable false if cancel should be ignored
+     */
+    private QueryContext(long deadline, boolean cancellable) {
+        this.deadline = deadline;
+        this.cancellable = cancellable;
+    }
+
+    /**
+     * Creates a context with no deadline, which can be cancelled.
+     * @return the context
+     */
+    public static QueryContext cancellable() {
+        return new QueryContext(Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Creates a context whose deadline is a time from now, which can also be cancelled.
+     * @param timeout how long the query may run
+     * @return the context
+     */
+    public static QueryContext withTimeout(Duration timeout) {
+        // timeouts of a century or more are as good as none, and would overflow nanoTime
+        if (timeout.compareTo(Duration.ofDays(36500)) >= 0) {
+            return cancellable();
+        }
+        return new QueryContext(System.nanoTime() + timeout.toNanos(), true);
+    }
+
+    /**
+     * Cancels the query. Has no effect on {@link #NONE}.
+     */
+    public void cancel() {
+        if (cancellable) {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Checks whether the query was cancelled.
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the time left before the deadline.
+     * @return the nanoseconds left, 0 if the deadline has passed, or Long.MAX_VALUE if there is none
+     */
+    public long remainingNanos() {
+        if (deadline == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * Stops the query if it was cancelled or its deadline has passed.
+     * @throws QueryCancelledException if the query should stop
+     */
+    public void check() {
+        if (cancelled) {
+            throw new QueryCancelledException("Query cancelled", false);
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+            throw new QueryCancelledException("Query deadline exceeded", true);
+        }
+    }
+}
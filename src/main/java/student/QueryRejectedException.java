@@ -0,0 +1,18 @@
+package student;
+
+/**
+ * Thrown when a query is turned away because too many are already running and waiting.
+ * The query was not started, so it is safe to try again later.
+ */
+public class QueryRejectedException extends RuntimeException {
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor for the exception.
+     * @param message the detail message
+     */
+    public QueryRejectedException(String message) {
+        super(message);
+    }
+}
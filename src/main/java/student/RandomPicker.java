@@ -0,0 +1,180 @@
+package student;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Draws random rows from a fixed set of catalog rows, either uniformly or weighted by rating
+ * or rank, without scanning the set on every draw.
+ * Uniform draws use a rank/select directory over the set's words: the running count of set
+ * bits before each word, binary searched for the k-th row, so a draw is O(log n) and the
+ * directory is only one int per 64 rows. Weighted draws use Vose's alias table, which costs
+ * O(n) to build once and O(1) per draw.
+ */
+final class RandomPicker {
+    /** The rows this picker draws from. Never changed, so it can be used as a cache key. */
+    private final BitSet rows;
+    /** The column the draws are weighted on, or null for uniform draws. */
+    private final GameData weightOn;
+    /** The words of the row set, for uniform draws. */
+    private final long[] words;
+    /** The number of rows before each word (one more entry than words), for uniform draws. */
+    private final int[] ranks;
+    /** The rows in ascending order, for weighted draws. */
+    private final int[] members;
+    /** The probability of keeping each alias table column rather than taking its alias. */
+    private final double[] probability;
+    /** The alias of each alias table column, as an index into members. */
+    private final int[] alias;
+
+    /**
+     * Builds a picker that draws uniformly.
+     * @param rows the rows to draw from, which must not be changed afterwards
+     */
+    RandomPicker(BitSet rows) {
+        this.rows = rows;
+        this.weightOn = null;
+        this.words = rows.toLongArray();
+        this.ranks = new int[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            ranks[i + 1] = ranks[i] + Long.bitCount(words[i]);
+        }
+        this.members = null;
+        this.probability = null;
+        this.alias = null;
+    }
+
+    /**
+     * Builds a picker that draws weighted by rating (higher is more likely) or rank (the
+     * chance falls off as 1 / rank, and unranked games are never drawn). If no row has any
+     * weight, the draws are uniform.
+     * @param catalog the catalog the rows belong to
+     * @param rows the rows to draw from, which must not be changed afterwards
+     * @param weightOn either RATING or RANK
+     * @throws IllegalArgumentException if the column is not RATING or RANK
+     */
+    RandomPicker(GameCatalog catalog, BitSet rows, GameData weightOn) {
+        if (weightOn != GameData.RATING && weightOn != GameData.RANK) {
+            throw new IllegalArgumentException("Invalid column: " + weightOn);
+        }
+        this.rows = rows;
+        this.weightOn = weightOn;
+        this.words = null;
+        this.ranks = null;
+        this.members = rows.stream().toArray();
+        int n = members.length;
+        double[] weights = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            double value = catalog.numericValue(weightOn, members[i]);
+            double weight = weightOn == GameData.RATING ? value : 1.0 / value;
+            weights[i] = value > 0 ? weight : 0;
+            total += weights[i];
+        }
+        this.probability = new double[n];
+        this.alias = new int[n];
+        buildAliasTable(weights, total);
+    }
+
+    /**
+     * Fills the alias table with Vose's method. Each column starts with its weight scaled so
+     * the average is 1; columns under 1 are topped up from a column over 1, which becomes
+     * their alias, until every column holds exactly 1.
+     * @param weights the weight of each member
+     * @param total the sum of the weights
+     */
+    private void buildAliasTable(double[] weights, double total) {
+        int n = weights.length;
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            probability[i] = total > 0 ? weights[i] * n / total : 1;
+            alias[i] = i;
+            if (probability[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            alias[less] = more;
+            probability[more] -= 1 - probability[less];
+            if (probability[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // anything left over is 1 up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    /**
+     * Gets the rows this picker draws from.
+     * @return the rows, the same instance the picker was built with
+     */
+    BitSet rows() {
+        return rows;
+    }
+
+    /**
+     * Gets the column the draws are weighted on.
+     * @return RATING or RANK, or null for uniform draws
+     */
+    GameData getWeightOn() {
+        return weightOn;
+    }
+
+    /**
+     * Draws a random row.
+     * @param random the source of randomness
+     * @return the row, or -1 if there are no rows to draw from
+     */
+    int pick(Random random) {
+        if (weightOn != null) {
+            if (members.length == 0) {
+                return -1;
+            }
+            int column = random.nextInt(members.length);
+            return members[random.nextDouble() < probability[column] ? column : alias[column]];
+        }
+        int total = ranks[words.length];
+        if (total == 0) {
+            return -1;
+        }
+        return select(random.nextInt(total));
+    }
+
+    /**
+     * Finds the row of a given rank in the uniform row set.
+     * @param rank the number of rows before the one wanted
+     * @return the row
+     */
+    int select(int rank) {
+        // last word with fewer than rank + 1 rows before it
+        int lo = 0;
+        int hi = words.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (ranks[mid] <= rank) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        long word = words[lo];
+        for (int skip = rank - ranks[lo]; skip > 0; skip--) {
+            word &= word - 1;
+        }
+        return lo * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+}
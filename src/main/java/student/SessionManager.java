@@ -0,0 +1,485 @@
+package student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the planner state of many user sessions over one shared catalog.
+ * <p>
+ * A session does not hold a Planner or any games, only a small handle: its filter as
+ * {@link CompactRows}, its sort settings and the ids of the games on its list. A fresh or
+ * reset session's filter takes no data at all, so an idle session costs a few hundred bytes.
+ * A Planner is built over the expanded filter only for the length of each call.
+ * <p>
+ * Sessions idle for longer than the timeout are evicted, either by calling
+ * {@link #evictIdle()} or by a background sweep started with {@link #startEviction}. If
+ * a spill directory is given, evicted sessions are written there and are read back
+ * transparently on their next use; otherwise they are dropped.
+ * <p>
+ * All methods are thread safe. Calls on different sessions never wait for each other;
+ * calls on the same session are serialised.
+ */
+public final class SessionManager implements AutoCloseable {
+    /** Format version written at the start of each spill file. */
+    private static final int SPILL_VERSION = 1;
+    /** What a session id looks like, checked before an id is used as a file name. */
+    private static final Pattern SESSION_ID = Pattern.compile("[0-9a-f-]{36}");
+
+    /** The catalog shared by every session. */
+    private final GameCatalog catalog;
+    /** How long a session may be idle before it is evicted, in nanoseconds. */
+    private final long idleNanos;
+    /** Where evicted sessions are written, or null to drop them. */
+    private final Path spillDir;
+    /** The time source, in nanoseconds. */
+    private final LongSupplier clock;
+    /** The sessions held in memory, by id. */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    /** The background eviction sweep, or null if it has not been started. */
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * Creates a session manager.
+     * @param catalog the catalog shared by every session
+     * @param idleTimeout how long a session may be idle before it is evicted
+     * @param spillDir where evicted sessions are written, or null to drop them
+     */
+    public SessionManager(GameCatalog catalog, Duration idleTimeout, Path spillDir) {
+        this(catalog, idleTimeout, spillDir, System::nanoTime);
+    }
+
+    /**
+     * Creates a session manager with a given time source, for tests.
+     * @param catalog the catalog shared by every session
+     * @param idleTimeout how long a session may be idle before it is evicted
+     * @param spillDir where evicted sessions are written, or null to drop them
+     * @param clock the time source, in nanoseconds
+     */
+    SessionManager(GameCatalog catalog, Duration idleTimeout, Path spillDir, LongSupplier clock) {
+        this.catalog = catalog;
+        this.idleNanos = idleTimeout.toNanos();
+        this.spillDir = spillDir;
+        this.clock = clock;
+    }
+
+    /**
+     * Opens a new session, with every game in its filter, sorted by name, and an empty list.
+     * @return the session id
+     */
+    public String open() {
+        String id = UUID.randomUUID().toString();
+        sessions.put(id, new Session(clock.getAsLong()));
+        return id;
+    }
+
+    /**
+     * Ends a session, removing it from memory and from the spill directory.
+     * @param id the session id
+     */
+    public void end(String id) {
+        Session session = sessions.remove(id);
+        if (session != null) {
+            synchronized (session) {
+                session.evicted = true;
+            }
+        }
+        Path file = spillFile(id);
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // a stale spill file is harmless, it just will not be read back
+            }
+        }
+    }
+
+    /**
+     * Applies a filter on top of a session's filter, keeping the result for the session.
+     * @param id the session id
+     * @param filter the filter string, empty to keep the filter as it is
+     * @return the games matching the session's filter, in its sort order
+     * @throws IllegalArgumentException if the session is not found or the filter is invalid
+     */
+    public Stream<BoardGame> filter(String id, String filter) {
+        return withSession(id, session -> {
+            Planner planner = new Planner(catalog, session.rows.toBitSet(catalog.size()));
+            Stream<BoardGame> games = planner.filter(filter, session.sortOn, session.ascending);
+            session.rows = CompactRows.of(planner.rows(), catalog.size());
+            return games;
+        });
+    }
+
+    /**
+     * Changes how a session's games are sorted.
+     * @param id the session id
+     * @param sortOn the column to sort on
+     * @param ascending true to sort in ascending order
+     * @throws IllegalArgumentException if the session is not found or the column cannot be sorted on
+     */
+    public void sort(String id, GameData sortOn, boolean ascending) {
+        if (sortOn == GameData.ID) {
+            throw new IllegalArgumentException("Invalid column: " + sortOn);
+        }
+        withSession(id, session -> {
+            session.sortOn = sortOn;
+            session.ascending = ascending;
+            return null;
+        });
+    }
+
+    /**
+     * Resets a session's filter to every game.
+     * @param id the session id
+     * @throws IllegalArgumentException if the session is not found
+     */
+    public void reset(String id) {
+        withSession(id, session -> {
+            session.rows = CompactRows.all();
+            return null;
+        });
+    }
+
+    /**
+     * Adds games to a session's list, as the console list add command does: by name, or by
+     * number in the session's filter in its sort order.
+     * @param id the session id
+     * @param str the game name, number, range of numbers or all
+     * @return the names of the games on the list
+     * @throws IllegalArgumentException if the session or game is not found, or the string is invalid
+     */
+    public List<String> addToList(String id, String str) {
+        return withSession(id, session -> {
+            Planner planner = new Planner(catalog, session.rows.toBitSet(catalog.size()));
+            GameList list = session.list(catalog);
+            list.setNameIndex(catalog::nameIndex);
+            list.addToList(str, planner.filter("", session.sortOn, session.ascending));
+            session.setList(list);
+            return list.getGameNames();
+        });
+    }
+
+    /**
+     * Removes games from a session's list, by name or by number on the list.
+     * @param id the session id
+     * @param str the game name, number, range of numbers or all
+     * @return the names of the games on the list
+     * @throws IllegalArgumentException if the session or game is not found, or the string is invalid
+     */
+    public List<String> removeFromList(String id, String str) {
+        return withSession(id, session -> {
+            GameList list = session.list(catalog);
+            list.removeFromList(str);
+            session.setList(list);
+            return list.getGameNames();
+        });
+    }
+
+    /**
+     * Gets the names of the games on a session's list.
+     * @param id the session id
+     * @return the names, in ascending order ignoring case
+     * @throws IllegalArgumentException if the session is not found
+     */
+    public List<String> listNames(String id) {
+        return withSession(id, session -> session.list(catalog).getGameNames());
+    }
+
+    /**
+     * Gets the number of sessions held in memory, not counting spilled sessions.
+     * @return the number of sessions in memory
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Evicts every session that has been idle for longer than the timeout, spilling it to
+     * disk if there is a spill directory. A session that fails to spill is kept in memory.
+     * @return the number of sessions evicted
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (String id : new ArrayList<>(sessions.keySet())) {
+            Session session = sessions.get(id);
+            if (session != null && evict(id, session, true, now)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Evicts a session, spilling it first if there is a spill directory. The file is written
+     * holding only the session's lock, never the map's, and the session then leaves the map
+     * with a conditional remove, so sessions sharing its bin are not held up by the disk.
+     * @param id the session id
+     * @param session the session
+     * @param onlyIfIdle true to keep the session if it has not been idle for the timeout
+     * @param now the current time, from the manager's clock
+     * @return true if the session was evicted
+     */
+    private boolean evict(String id, Session session, boolean onlyIfIdle, long now) {
+        synchronized (session) {
+            if (session.evicted || onlyIfIdle && now - session.lastAccess < idleNanos
+                    || spillDir != null && !spill(id, session)) {
+                return false;
+            }
+            session.evicted = true;
+        }
+        sessions.remove(id, session);
+        return true;
+    }
+
+    /**
+     * Starts evicting idle sessions in the background, on a daemon thread.
+     * @param interval how often to look for idle sessions
+     */
+    public synchronized void startEviction(Duration interval) {
+        if (sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "session-eviction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long nanos = interval.toNanos();
+            sweeper.scheduleWithFixedDelay(this::evictIdle, nanos, nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops the background eviction, and spills every session in memory if there is a
+     * spill directory, so they survive a restart.
+     */
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+        if (spillDir != null) {
+            for (String id : new ArrayList<>(sessions.keySet())) {
+                Session session = sessions.get(id);
+                if (session != null) {
+                    evict(id, session, false, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an action on a session while holding its lock, reading it back from the spill
+     * directory if it was evicted, and marks it as used.
+     * @param id the session id
+     * @param action the action
+     * @param <T> the result type
+     * @return the action's result
+     * @throws IllegalArgumentException if the session is not found
+     */
+    private <T> T withSession(String id, Function<Session, T> action) {
+        while (true) {
+            Session session = sessions.get(id);
+            if (session == null) {
+                session = restore(id);
+            }
+            if (session == null) {
+                throw new IllegalArgumentException("Session not found: " + id);
+            }
+            synchronized (session) {
+                if (!session.evicted) {
+                    session.lastAccess = clock.getAsLong();
+                    return action.apply(session);
+                }
+            }
+            // evicted between the lookup and the lock: make sure it is gone, and look it up again
+            sessions.remove(id, session);
+        }
+    }
+
+    /**
+     * Gets the spill file of a session.
+     * @param id the session id
+     * @return the file, or null if there is no spill directory or the id is not a valid id
+     */
+    private Path spillFile(String id) {
+        if (spillDir == null || id == null || !SESSION_ID.matcher(id).matches()) {
+            return null;
+        }
+        return spillDir.resolve(id + ".session");
+    }
+
+    /**
+     * Writes a session to its spill file, replacing the file atomically. The temporary file
+     * is deleted if the write fails.
+     * @param id the session id
+     * @param session the session
+     * @return true if the session was written
+     */
+    private boolean spill(String id, Session session) {
+        Path file = spillFile(id);
+        if (file == null) {
+            return false;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(spillDir);
+            temp = Files.createTempFile(spillDir, id, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SPILL_VERSION);
+                session.rows.write(out);
+                out.writeUTF(session.sortOn.name());
+                out.writeBoolean(session.ascending);
+                out.writeInt(session.listIds.length);
+                for (int gameId : session.listIds) {
+                    out.writeInt(gameId);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // the write has already failed, a leftover temporary file changes nothing
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Reads a session back from its spill file into memory. The new session is put in the
+     * map, locked, before the file is read, so other calls on it wait for the read instead
+     * of reading the file too, and no map lock is held while the disk is read. If the read
+     * fails the session is taken out again.
+     * @param id the session id
+     * @return the session now in memory, or null if it was not spilled or cannot be read
+     */
+    private Session restore(String id) {
+        if (spillFile(id) == null) {
+            return null;
+        }
+        Session session = new Session(clock.getAsLong());
+        synchronized (session) {
+            Session current = sessions.putIfAbsent(id, session);
+            if (current != null) {
+                return current;
+            }
+            if (!read(id, session)) {
+                session.evicted = true;
+                sessions.remove(id, session);
+                return null;
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Reads a session's state from its spill file, deleting the file.
+     * @param id the session id
+     * @param session the session to read into
+     * @return true if the session was read, false if it was not spilled or cannot be read
+     */
+    private boolean read(String id, Session session) {
+        Path file = spillFile(id);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SPILL_VERSION) {
+                return false;
+            }
+            session.rows = CompactRows.read(in);
+            session.sortOn = GameData.valueOf(in.readUTF());
+            session.ascending = in.readBoolean();
+            int[] listIds = new int[in.readInt()];
+            for (int i = 0; i < listIds.length; i++) {
+                listIds[i] = in.readInt();
+            }
+            session.listIds = listIds;
+            Files.delete(file);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The state of one session. Fields are only used while holding the session's lock,
+     * apart from lastAccess, which the eviction sweep reads to find idle sessions.
+     */
+    private static final class Session {
+        /** No games on the list. */
+        private static final int[] NO_GAMES = new int[0];
+        /** The rows of the session's filter. */
+        private CompactRows rows = CompactRows.all();
+        /** The column the session's games are sorted on. */
+        private GameData sortOn = GameData.NAME;
+        /** True if the session's games are sorted in ascending order. */
+        private boolean ascending = true;
+        /** The ids of the games on the session's list, in the list's order, sorted by name. */
+        private int[] listIds = NO_GAMES;
+        /** When the session was last used, from the manager's clock. */
+        private volatile long lastAccess;
+        /** True once the session has been evicted or ended, so it must not be changed. */
+        private boolean evicted;
+
+        /**
+         * Constructor for a fresh session.
+         * @param now the current time, from the manager's clock
+         */
+        Session(long now) {
+            this.lastAccess = now;
+        }
+
+        /**
+         * Builds a GameList of the games on the session's list. Ids no longer in the
+         * catalog are skipped.
+         * @param catalog the catalog
+         * @return a new list
+         */
+        GameList list(GameCatalog catalog) {
+            List<BoardGame> games = new ArrayList<>(listIds.length);
+            for (int gameId : listIds) {
+                int row = catalog.rowOfId(gameId);
+                if (row >= 0) {
+                    games.add(catalog.game(row));
+                }
+            }
+            return new GameList(games);
+        }
+
+        /**
+         * Keeps the ids of the games on a list as the session's list.
+         * @param list the list
+         */
+        void setList(GameList list) {
+            List<BoardGame> games = list.getGames();
+            int[] ids = new int[games.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = games.get(i).getId();
+            }
+            listIds = ids.length == 0 ? NO_GAMES : ids;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package student;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Computes the skyline (Pareto front) of a set of games on high rating, low difficulty and
+ * short (maximum) play time: the games that no other game beats on one of those without
+ * being worse on another.
+ * The rows are sorted by rating (highest first), then difficulty and play time, so a game
+ * can only be dominated by games before it. A sweep then keeps the two dimensional staircase
+ * of difficulty against play time for the games seen so far, and each game is checked
+ * against it with one floor lookup. This is O(n log n) rather than comparing every pair.
+ */
+final class Skyline {
+
+    /** Private constructor as static class. */
+    private Skyline() {
+    }
+
+    /**
+     * Computes the skyline of a set of rows.
+     * @param catalog the catalog the rows belong to
+     * @param rows the rows to consider
+     * @return the rows on the skyline, from highest to lowest rating
+     */
+    static int[] compute(GameCatalog catalog, BitSet rows) {
+        double[] rating = catalog.doubleColumn(GameData.RATING);
+        double[] difficulty = catalog.doubleColumn(GameData.DIFFICULTY);
+        int[] time = catalog.intColumn(GameData.MAX_TIME);
+
+        Comparator<Integer> sweepOrder = (r1, r2) -> {
+            int comparison = Double.compare(rating[r2], rating[r1]);
+            if (comparison == 0) {
+                comparison = Double.compare(difficulty[r1], difficulty[r2]);
+            }
+            if (comparison == 0) {
+                comparison = Integer.compare(time[r1], time[r2]);
+            }
+            return comparison != 0 ? comparison : Integer.compare(r1, r2);
+        };
+        int[] sorted = rows.stream().boxed().sorted(sweepOrder).mapToInt(Integer::intValue).toArray();
+
+        // difficulty -> the row with the shortest time at that difficulty on the staircase;
+        // times strictly decrease as difficulty increases
+        TreeMap<Double, Integer> staircase = new TreeMap<>();
+        int[] skyline = new int[sorted.length];
+        int count = 0;
+        for (int row : sorted) {
+            Map.Entry<Double, Integer> floor = staircase.floorEntry(difficulty[row]);
+            if (floor != null) {
+                int other = floor.getValue();
+                if (time[other] < time[row]
+                        || time[other] == time[row] && difficulty[other] < difficulty[row]
+                        || time[other] == time[row] && rating[other] > rating[row]) {
+                    continue;
+                }
+            }
+            skyline[count++] = row;
+            if (floor != null && time[floor.getValue()] == time[row]) {
+                // identical on difficulty and time, the earlier row already holds the step
+                continue;
+            }
+            staircase.put(difficulty[row], row);
+            Map.Entry<Double, Integer> higher = staircase.higherEntry(difficulty[row]);
+            while (higher != null && time[higher.getValue()] >= time[row]) {
+                staircase.remove(higher.getKey());
+                higher = staircase.higherEntry(difficulty[row]);
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(skyline, 0, result, 0, count);
+        return result;
+    }
+}
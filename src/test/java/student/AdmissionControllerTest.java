@@ -0,0 +1,153 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for capping concurrent queries with AdmissionController.
+ */
+class AdmissionControllerTest {
+
+    /**
+     * Starts a query on a thread that holds its permit until released.
+     * @param pool the thread to run on
+     * @param admission the admission controller
+     * @param started counted down once the query runs
+     * @param release awaited by the query before it finishes
+     * @return the running query
+     * @throws InterruptedException if the test is interrupted
+     */
+    private static Future<String> hold(ExecutorService pool, AdmissionController admission,
+                                       CountDownLatch started, CountDownLatch release) throws InterruptedException {
+        Future<String> running = pool.submit(() -> admission.admit(QueryContext.NONE, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "held";
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return running;
+    }
+
+    /**
+     * Tests that queries run straight away below the limit.
+     */
+    @Test
+    public void testAdmit() {
+        AdmissionController admission = new AdmissionController(2, 0);
+        assertEquals("a", admission.admit(QueryContext.NONE, () -> "a"));
+        assertEquals("b", admission.admit(QueryContext.NONE, () -> "b"));
+        assertThrows(IllegalStateException.class, () -> admission.admit(QueryContext.NONE, () -> {
+            throw new IllegalStateException();
+        }));
+        // a failed query gives its permit back
+        assertEquals("c", admission.admit(QueryContext.NONE, () -> "c"));
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionController(0, 1));
+    }
+
+    /**
+     * Tests that overflow queries wait while there is queue room, and are rejected after.
+     * @throws Exception if a query fails
+     */
+    @Test
+    public void testQueueAndReject() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<String> running = hold(pool, admission, new CountDownLatch(1), release);
+            Future<String> queued = pool.submit(() -> admission.admit(QueryContext.NONE, () -> "queued"));
+            while (admission.getQueued() < 1) {
+                Thread.sleep(1);
+            }
+            assertThrows(QueryRejectedException.class, () -> admission.admit(QueryContext.NONE, () -> "rejected"));
+            assertEquals(1, admission.getRejected());
+
+            release.countDown();
+            assertEquals("held", running.get(10, TimeUnit.SECONDS));
+            assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+            assertEquals(0, admission.getQueued());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that a queued query gives up at its deadline or when cancelled.
+     * @throws Exception if a query fails
+     */
+    @Test
+    public void testQueuedDeadlineAndCancel() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 4);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<String> running = hold(pool, admission, new CountDownLatch(1), release);
+            QueryCancelledException e = assertThrows(QueryCancelledException.class,
+                    () -> admission.admit(QueryContext.withTimeout(Duration.ofMillis(30)), () -> "late"));
+            assertTrue(e.isTimedOut());
+
+            QueryContext context = QueryContext.cancellable();
+            Future<String> queued = pool.submit(() -> admission.admit(context, () -> "cancelled"));
+            while (admission.getQueued() < 1) {
+                Thread.sleep(1);
+            }
+            context.cancel();
+            Exception cancelled = assertThrows(Exception.class, () -> queued.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(QueryCancelledException.class, cancelled.getCause());
+
+            release.countDown();
+            assertEquals("held", running.get(10, TimeUnit.SECONDS));
+            assertEquals(0, admission.getQueued());
+            assertEquals("free", admission.admit(QueryContext.NONE, () -> "free"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that queued queries run in the order they arrived, each handed the place of the
+     * query before it.
+     * @throws Exception if a query fails
+     */
+    @Test
+    public void testFirstComeFirstServed() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 3);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        try {
+            Future<String> running = hold(pool, admission, new CountDownLatch(1), release);
+            List<Future<Boolean>> queued = new ArrayList<>();
+            for (String name : List.of("a", "b", "c")) {
+                queued.add(pool.submit(() -> admission.admit(QueryContext.NONE, () -> order.add(name))));
+                while (admission.getQueued() < queued.size()) {
+                    Thread.sleep(1);
+                }
+            }
+            release.countDown();
+            assertEquals("held", running.get(10, TimeUnit.SECONDS));
+            for (Future<Boolean> query : queued) {
+                assertTrue(query.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(List.of("a", "b", "c"), order);
+            assertEquals(0, admission.getQueued());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
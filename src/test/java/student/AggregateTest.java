@@ -0,0 +1,59 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the Aggregate class.
+ */
+class AggregateTest {
+
+    /**
+     * Tests the statistics of a handful of values.
+     */
+    @Test
+    public void testStatistics() {
+        Aggregate aggregate = new Aggregate(GameData.RATING, 2);
+        for (double value : new double[] {7, 3, 9, 1, 5}) {
+            aggregate.add(value);
+        }
+        assertEquals(GameData.RATING, aggregate.getColumn());
+        assertEquals(5, aggregate.count());
+        assertEquals(1, aggregate.min());
+        assertEquals(9, aggregate.max());
+        assertEquals(5, aggregate.mean());
+        assertEquals(5, aggregate.percentile(50));
+        assertEquals(1, aggregate.percentile(0));
+        assertEquals(9, aggregate.percentile(100));
+        assertEquals(3, aggregate.percentile(25));
+        assertEquals(9, aggregate.percentile(90));
+    }
+
+    /**
+     * Tests percentiles when values repeat.
+     */
+    @Test
+    public void testPercentileWithDuplicates() {
+        Aggregate aggregate = new Aggregate(GameData.RANK, 8);
+        for (double value : new double[] {4, 4, 4, 2, 2, 8, 8, 8}) {
+            aggregate.add(value);
+        }
+        assertEquals(2, aggregate.percentile(25));
+        assertEquals(4, aggregate.percentile(50));
+        assertEquals(8, aggregate.percentile(75));
+    }
+
+    /**
+     * Tests an aggregate with no values.
+     */
+    @Test
+    public void testEmpty() {
+        Aggregate aggregate = new Aggregate(GameData.DIFFICULTY, 0);
+        assertEquals(0, aggregate.count());
+        assertTrue(Double.isNaN(aggregate.min()));
+        assertTrue(Double.isNaN(aggregate.mean()));
+        assertTrue(Double.isNaN(aggregate.percentile(50)));
+        assertThrows(IllegalArgumentException.class, () -> aggregate.percentile(101));
+    }
+}
@@ -0,0 +1,89 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the BKTree class.
+ */
+class BKTreeTest {
+    /** The tree used for testing. */
+    private BKTree tree;
+
+    /**
+     * Builds a tree over a handful of names.
+     */
+    @BeforeEach
+    public void setUp() {
+        tree = new BKTree(List.of("Catan", "Carcassonne", "Cascadia", "Azul", "azul", "Patchwork"));
+    }
+
+    /**
+     * Tests the edit distance between strings.
+     */
+    @Test
+    public void testDistance() {
+        assertEquals(0, BKTree.distance("catan", "catan"));
+        assertEquals(1, BKTree.distance("catn", "catan"));
+        assertEquals(3, BKTree.distance("kitten", "sitting"));
+        assertEquals(4, BKTree.distance("", "azul"));
+    }
+
+    /**
+     * Tests that names are case-folded and deduplicated.
+     */
+    @Test
+    public void testSize() {
+        assertEquals(5, tree.size());
+    }
+
+    /**
+     * Tests searching for names within a tolerance.
+     */
+    @Test
+    public void testSearch() {
+        assertEquals(List.of("catan"), tree.search("CATN", 1));
+        assertEquals(List.of("azul"), tree.search("azul", 0));
+        assertTrue(tree.search("zzzz", 1).isEmpty());
+        assertEquals(2, tree.search("ca", 4).size());
+    }
+
+    /**
+     * Tests finding the closest name.
+     */
+    @Test
+    public void testClosest() {
+        assertEquals("cascadia", tree.closest("cascadya", 2));
+        assertEquals("patchwork", tree.closest("Patchwrok", 2));
+        assertNull(tree.closest("monopoly", 2));
+        assertNull(new BKTree(List.of()).closest("catan", 2));
+    }
+
+    /**
+     * Tests the default tolerance for different query lengths.
+     */
+    @Test
+    public void testDefaultTolerance() {
+        assertEquals(0, BKTree.defaultTolerance(2));
+        assertEquals(1, BKTree.defaultTolerance(4));
+        assertEquals(2, BKTree.defaultTolerance(9));
+    }
+
+    /**
+     * Tests that a search over a large tree stops once its query is cancelled.
+     */
+    @Test
+    public void testSearchCancelled() {
+        List<String> names = IntStream.range(0, 2 * QueryContext.CHECK_INTERVAL).mapToObj(i -> "game " + i).toList();
+        BKTree large = new BKTree(names);
+        QueryContext context = QueryContext.cancellable();
+        assertEquals(2 * QueryContext.CHECK_INTERVAL, large.search("game", 10, context).size());
+        context.cancel();
+        assertThrows(QueryCancelledException.class, () -> large.search("game", 10, context));
+    }
+}
@@ -0,0 +1,81 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the BatchFilter class.
+ */
+class BatchFilterTest {
+
+    /**
+     * Builds a catalog of random games.
+     * @param size the number of games
+     * @return the catalog
+     */
+    private static GameCatalog randomCatalog(int size) {
+        Random random = new Random(23);
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int minPlayers = 1 + random.nextInt(4);
+            int minTime = 10 * (1 + random.nextInt(12));
+            games.add(new BoardGame("Game " + random.nextInt(size), i, minPlayers, minPlayers + random.nextInt(6),
+                    minTime, minTime + 10 * random.nextInt(10), Math.round(10 + 40 * random.nextDouble()) / 10.0,
+                    1 + random.nextInt(size), 5 + 4 * random.nextDouble(), 1950 + random.nextInt(75)));
+        }
+        return new GameCatalog(games);
+    }
+
+    /**
+     * Tests that every query in a batch matches the same rows as filtering it on its own.
+     */
+    @Test
+    public void testMatchesSeparateFilters() {
+        GameCatalog catalog = randomCatalog(3000);
+        String[] clauses = {"minPlayers>=2", "maxPlayers<5", "year>2000", "year>=2001", "rating>7",
+            "difficulty==2.5", "difficulty!=2.50", "name~=game 1", "name<game 5", "players==4",
+            "time==30-60", "rank<=100", "maxPlayTime!=60"};
+        Random random = new Random(8);
+        List<String> filters = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            StringBuilder filter = new StringBuilder();
+            for (int j = random.nextInt(4); j > 0; j--) {
+                if (filter.length() > 0) {
+                    filter.append(',');
+                }
+                filter.append(clauses[random.nextInt(clauses.length)]);
+            }
+            filters.add(filter.toString());
+        }
+        BitSet start = catalog.allRows();
+        start.clear(0, 500);
+        BatchFilter batch = new BatchFilter(catalog, start, filters);
+        assertTrue(batch.distinctClauses() <= clauses.length);
+        List<BitSet> results = batch.evaluate();
+        for (int i = 0; i < filters.size(); i++) {
+            Planner planner = new Planner(catalog, start);
+            planner.filter(filters.get(i));
+            assertEquals(planner.rows(), results.get(i), filters.get(i));
+        }
+        assertEquals(catalog.size() - 500, start.cardinality());
+    }
+
+    /**
+     * Tests that clauses written differently but meaning the same are only evaluated once.
+     */
+    @Test
+    public void testEqualClausesShared() {
+        GameCatalog catalog = randomCatalog(100);
+        BatchFilter batch = new BatchFilter(catalog, catalog.allRows(),
+                List.of("rating>7", "rating > 7.0,minPlayers>=02", "minplayers>=2", "players==3", "players==3-3"));
+        assertEquals(3, batch.distinctClauses());
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchFilter(catalog, catalog.allRows(), List.of("rating>7", "rating>>7")));
+    }
+}
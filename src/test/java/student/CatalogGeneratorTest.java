@@ -0,0 +1,118 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for generating synthetic catalogs.
+ */
+class CatalogGeneratorTest {
+    /** The bundled collection, which the generator learns from. */
+    private static Set<BoardGame> sample;
+
+    /** The directory to write catalogs to. */
+    @TempDir
+    Path dir;
+
+    /**
+     * Loads the bundled collection.
+     */
+    @BeforeAll
+    public static void loadSample() {
+        sample = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    /**
+     * Tests that the same seed gives the same games, whatever the order they are made in,
+     * and that another seed gives others.
+     */
+    @Test
+    public void testDeterministic() {
+        CatalogGenerator generator = new CatalogGenerator(sample, 42);
+        List<BoardGame> games = generator.stream(2000).toList();
+        assertEquals(games, new CatalogGenerator(sample, 42).stream(2000).parallel().toList());
+        assertEquals(games.get(1500).toString(), generator.game(1500).toString());
+        assertEquals(1501, games.get(1500).getId());
+        assertNotEquals(games.stream().map(BoardGame::getName).toList(),
+                new CatalogGenerator(sample, 43).stream(2000).map(BoardGame::getName).toList());
+    }
+
+    /**
+     * Tests that a catalog written by several threads matches one written by one thread,
+     * spans several chunks, and loads back whole.
+     * @throws IOException if the files cannot be written
+     */
+    @Test
+    public void testWrite() throws IOException {
+        CatalogGenerator generator = new CatalogGenerator(sample, 7);
+        int count = 3 * CatalogGenerator.CHUNK + 100;
+        Path one = dir.resolve("one.csv");
+        Path four = dir.resolve("four.csv");
+        assertEquals(count, generator.write(count, one, 1));
+        assertEquals(count, generator.write(count, four, 4));
+        assertArrayEquals(Files.readAllBytes(one), Files.readAllBytes(four));
+
+        Set<BoardGame> loaded = GamesLoader.loadGames(Files.newBufferedReader(four));
+        assertEquals(count, loaded.size());
+        assertEquals(new HashSet<>(generator.stream(count).toList()), loaded);
+    }
+
+    /**
+     * Tests that the columns keep the sample's ranges and rough averages, and that games
+     * stay self-consistent.
+     */
+    @Test
+    public void testColumns() {
+        List<BoardGame> games = new CatalogGenerator(sample, 1).stream(20000).toList();
+        double sampleRating = sample.stream().mapToDouble(BoardGame::getRating).average().orElse(0);
+        double rating = games.stream().mapToDouble(BoardGame::getRating).average().orElse(0);
+        assertEquals(sampleRating, rating, 0.1);
+        double sampleTime = sample.stream().mapToInt(BoardGame::getMaxPlayTime).average().orElse(0);
+        double time = games.stream().mapToInt(BoardGame::getMaxPlayTime).average().orElse(0);
+        assertEquals(sampleTime, time, sampleTime * 0.15);
+        int newest = sample.stream().mapToInt(BoardGame::getYearPublished).max().orElse(0);
+        for (BoardGame game : games) {
+            assertTrue(game.getMinPlayers() <= game.getMaxPlayers());
+            assertTrue(game.getMinPlayTime() <= game.getMaxPlayTime());
+            assertTrue(game.getDifficulty() == 0 || game.getDifficulty() >= 1 && game.getDifficulty() <= 5);
+            assertTrue(game.getYearPublished() <= newest);
+        }
+    }
+
+    /**
+     * Tests that some names extend an earlier game's name, as expansions and editions do.
+     */
+    @Test
+    public void testFamilies() {
+        List<BoardGame> games = new CatalogGenerator(sample, 3).stream(5000).toList();
+        Set<String> names = games.stream().map(BoardGame::getName).collect(Collectors.toSet());
+        long expansions = games.stream().map(BoardGame::getName)
+                .filter(name -> name.contains(": ") && names.contains(name.substring(0, name.indexOf(": "))))
+                .count();
+        long variants = games.stream().map(BoardGame::getName)
+                .filter(name -> name.endsWith(")") && name.contains(" (")
+                        && names.contains(name.substring(0, name.indexOf(" ("))))
+                .count();
+        assertTrue(expansions > 250, "expansions: " + expansions);
+        assertTrue(variants > 20, "variants: " + variants);
+    }
+
+    /**
+     * Tests that an empty sample is rejected.
+     */
+    @Test
+    public void testEmptySample() {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogGenerator(List.of(), 1));
+    }
+}
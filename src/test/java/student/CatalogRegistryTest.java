@@ -0,0 +1,173 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for swapping catalog generations with CatalogRegistry.
+ */
+class CatalogRegistryTest {
+
+    /**
+     * Builds a catalog of games with ids in a range, where game i allows up to i % 6 + 1 players.
+     * @param from the first id
+     * @param to one past the last id
+     * @return the catalog
+     */
+    private static GameCatalog catalog(int from, int to) {
+        List<BoardGame> games = new ArrayList<>();
+        for (int id = from; id < to; id++) {
+            games.add(new BoardGame("Game " + id, id, 1, id % 6 + 1, 30, 60, 2.5, id, 7.0, 2000));
+        }
+        return new GameCatalog(games);
+    }
+
+    /**
+     * Tests that each swap makes a new current generation with the next version.
+     */
+    @Test
+    public void testPublish() {
+        GameCatalog first = catalog(0, 10);
+        CatalogRegistry registry = new CatalogRegistry(first);
+        assertEquals(1, registry.version());
+        assertSame(first, registry.catalog());
+
+        GameCatalog second = catalog(0, 20);
+        assertEquals(2, registry.publish(second));
+        assertEquals(2, registry.version());
+        assertSame(second, registry.catalog());
+    }
+
+    /**
+     * Tests that a lease keeps its generation through a swap, and that the generation is
+     * reclaimed when the last lease closes.
+     */
+    @Test
+    public void testLeaseHoldsGeneration() {
+        GameCatalog first = catalog(0, 10);
+        CatalogRegistry registry = new CatalogRegistry(first);
+        CatalogRegistry.Lease lease = registry.acquire();
+        CatalogRegistry.Lease other = registry.acquire();
+
+        registry.publish(catalog(0, 20));
+        assertSame(first, lease.catalog());
+        assertEquals(1, lease.version());
+        assertEquals(1, registry.retiredCount());
+        assertEquals(0, registry.reclaimedCount());
+
+        lease.close();
+        lease.close();
+        assertEquals(1, registry.retiredCount());
+        other.close();
+        assertEquals(0, registry.retiredCount());
+        assertEquals(1, registry.reclaimedCount());
+
+        try (CatalogRegistry.Lease latest = registry.acquire()) {
+            assertEquals(2, latest.version());
+        }
+    }
+
+    /**
+     * Tests that a generation nobody leases is reclaimed as soon as it is replaced.
+     */
+    @Test
+    public void testReclaimWithoutLeases() {
+        CatalogRegistry registry = new CatalogRegistry(catalog(0, 10));
+        registry.publish(catalog(0, 20));
+        registry.publish(catalog(0, 30));
+        assertEquals(0, registry.retiredCount());
+        assertEquals(2, registry.reclaimedCount());
+    }
+
+    /**
+     * Tests loading a new generation in the background.
+     * @throws Exception if the load fails
+     */
+    @Test
+    public void testLoad() throws Exception {
+        try (CatalogRegistry registry = new CatalogRegistry(catalog(0, 10))) {
+            Set<BoardGame> games = GamesLoader.loadGamesFile("/collection.csv");
+            assertEquals(2L, registry.load(() -> games).get(30, TimeUnit.SECONDS));
+            assertEquals(games.size(), registry.catalog().size());
+        }
+    }
+
+    /**
+     * Tests that a planner carries its filter over to a new generation by game id.
+     */
+    @Test
+    public void testPlannerFollowsRegistry() {
+        CatalogRegistry registry = new CatalogRegistry(catalog(0, 60));
+        Planner filtered = new Planner(registry);
+        Planner unfiltered = new Planner(registry);
+        assertEquals(30, filtered.filter("maxPlayers>3").count());
+
+        // ids 0-29 are gone and 60-89 are new
+        registry.publish(catalog(30, 90));
+        Set<Integer> ids = filtered.filter("").map(BoardGame::getId).collect(Collectors.toSet());
+        assertEquals(15, ids.size());
+        for (int id : ids) {
+            assertTrue(id >= 30 && id < 60 && id % 6 + 1 > 3, "unexpected id " + id);
+        }
+        assertEquals(60, unfiltered.count());
+        assertSame(registry.catalog(), filtered.getCatalog());
+
+        filtered.reset();
+        assertEquals(60, filtered.count());
+        assertEquals(0, registry.retiredCount());
+    }
+
+    /**
+     * Tests that readers always see one whole generation while generations are swapped in,
+     * and that every generation is reclaimed once they finish.
+     * @throws Exception if a reader fails
+     */
+    @Test
+    public void testReadersDuringSwaps() throws Exception {
+        int[] sizes = {100, 200, 300};
+        GameCatalog[] catalogs = new GameCatalog[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            catalogs[i] = catalog(0, sizes[i]);
+        }
+        CatalogRegistry registry = new CatalogRegistry(catalogs[0]);
+        Planner planner = new Planner(registry);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                readers.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        try (CatalogRegistry.Lease lease = registry.acquire()) {
+                            int size = lease.catalog().size();
+                            assertEquals(size, new Planner(lease.catalog()).filter("").count());
+                        }
+                        int count = planner.count();
+                        assertTrue(count == 100 || count == 200 || count == 300, "mixed count " + count);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 1; i <= 300; i++) {
+                registry.publish(catalogs[i % sizes.length]);
+            }
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, registry.retiredCount());
+        assertEquals(300, registry.reclaimedCount());
+        assertEquals(catalogs[0].size(), planner.count());
+    }
+}
@@ -0,0 +1,83 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the CompactRows class.
+ */
+class CompactRowsTest {
+    /** Number of rows in the pretend catalog. */
+    private static final int SIZE = 100000;
+
+    /**
+     * Compresses, writes, reads back and expands a set, checking it comes back the same.
+     * @param rows the rows
+     * @return the compressed set
+     * @throws Exception if writing or reading fails
+     */
+    private static CompactRows roundTrip(BitSet rows) throws Exception {
+        CompactRows compact = CompactRows.of(rows, SIZE);
+        assertEquals(rows, compact.toBitSet(SIZE));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        compact.write(new DataOutputStream(bytes));
+        CompactRows read = CompactRows.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(rows, read.toBitSet(SIZE));
+        return compact;
+    }
+
+    /**
+     * Tests that the set of every row and the empty set take no data.
+     * @throws Exception if writing or reading fails
+     */
+    @Test
+    public void testAllAndEmpty() throws Exception {
+        BitSet all = new BitSet();
+        all.set(0, SIZE);
+        assertEquals(0, roundTrip(all).encodedSize());
+        assertEquals(0, roundTrip(new BitSet()).encodedSize());
+    }
+
+    /**
+     * Tests that runs and sparse rows are stored as run lengths, far smaller than a bitmap.
+     * @throws Exception if writing or reading fails
+     */
+    @Test
+    public void testRuns() throws Exception {
+        BitSet runs = new BitSet();
+        runs.set(10, 5000);
+        runs.set(60000, 99999);
+        assertTrue(roundTrip(runs).encodedSize() <= 12);
+
+        BitSet sparse = new BitSet();
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            sparse.set(random.nextInt(SIZE));
+        }
+        assertTrue(roundTrip(sparse).encodedSize() < 400);
+    }
+
+    /**
+     * Tests that scattered, dense rows fall back to a bitmap, so never take more than one bit per row.
+     * @throws Exception if writing or reading fails
+     */
+    @Test
+    public void testDenseFallsBackToBits() throws Exception {
+        BitSet dense = new BitSet();
+        Random random = new Random(4);
+        for (int row = 0; row < SIZE; row++) {
+            if (random.nextBoolean()) {
+                dense.set(row);
+            }
+        }
+        assertTrue(roundTrip(dense).encodedSize() <= SIZE / 8);
+    }
+}
@@ -0,0 +1,151 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for running the console over given input and output.
+ */
+class ConsoleAppTest {
+    /** The planner the console runs against. */
+    private Planner planner;
+
+    /**
+     * Builds a planner over a small catalog.
+     */
+    @BeforeEach
+    public void setUp() {
+        planner = new Planner(new GameCatalog(List.of(
+                new BoardGame("13 Clues", 208766, 2, 6, 30, 30, 1.8966, 3365, 6.60806, 2016),
+                new BoardGame("15 Days", 298619, 1, 4, 20, 20, 1.8235, 6461, 6.43977, 2020),
+                new BoardGame("24/7: The Game", 25182, 2, 4, 20, 20, 1.8889, 9188, 6.20901, 2006))));
+    }
+
+    /**
+     * Runs a script through the console.
+     * @param script the commands
+     * @param interactive true to run interactively, with prompts
+     * @return the output
+     */
+    private String run(String script, boolean interactive) {
+        return run(script, interactive, null);
+    }
+
+    /**
+     * Runs a script through the console while games load in the background.
+     * @param script the commands
+     * @param interactive true to run interactively, with prompts
+     * @param loading completes when the games are loaded, or null if they already are
+     * @return the output
+     */
+    private String run(String script, boolean interactive, Future<?> loading) {
+        StringWriter output = new StringWriter();
+        ConsoleApp app = new ConsoleApp(new GameList(), planner, new StringReader(script), output, interactive);
+        app.setLoading(loading);
+        app.start();
+        return output.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    /**
+     * Tests that help is answered while the games load, and that the first command needing
+     * them waits, showing progress, then runs over the whole catalog.
+     */
+    @Test
+    public void testBackgroundLoading() {
+        List<BoardGame> games = planner.filter("").toList();
+        try (CatalogRegistry registry = new CatalogRegistry(new GameCatalog(List.of()))) {
+            CompletableFuture<Void> release = new CompletableFuture<>();
+            CompletableFuture<Long> loaded = registry.load(() -> {
+                release.join();
+                return games;
+            });
+            planner = new Planner(registry);
+            CompletableFuture.delayedExecutor(600, TimeUnit.MILLISECONDS)
+                    .execute(() -> release.complete(null));
+            String output = run("?\nfilter\n", true, loaded);
+            int help = output.indexOf("To work with the BGArenaPlanner");
+            int loading = output.indexOf("> Loading games.");
+            assertTrue(help >= 0 && loading > help, output);
+            assertTrue(output.substring(loading).startsWith("> Loading games..")
+                    && output.contains(".\n1: 13 Clues\n2: 15 Days\n3: 24/7: The Game\n"), output);
+        }
+    }
+
+    /**
+     * Tests that a failed background load is reported and the console carries on.
+     */
+    @Test
+    public void testBackgroundLoadFailure() {
+        try (CatalogRegistry registry = new CatalogRegistry(new GameCatalog(List.of()))) {
+            CompletableFuture<Long> loaded = registry.load(() -> {
+                throw new IllegalStateException("missing");
+            });
+            planner = new Planner(registry);
+            assertEquals("The games could not be loaded.\nNo games in list. Add games to list\n"
+                    + "No games in list. Add games to list\n",
+                    run("list\nlist\n", false, loaded));
+        }
+    }
+
+    /**
+     * Tests that batch mode writes only the commands' output, skips blank lines, and stops
+     * at the end of the input without an exit command.
+     */
+    @Test
+    public void testBatchMode() {
+        String output = run("filter minPlayers>=2\n\n   list   add 1-2\nlist\nbogus\n", false);
+        assertEquals("1: 13 Clues\n2: 24/7: The Game\n"
+                + "1: 13 Clues\n2: 24/7: The Game\n"
+                + "Invalid command. Type help for list of commands.\n", output);
+    }
+
+    /**
+     * Tests that batch mode stops at an exit command.
+     */
+    @Test
+    public void testBatchModeExit() {
+        assertEquals("No games in list. Add games to list\n", run("list\nexit\nlist\n", false));
+    }
+
+    /**
+     * Tests that interactive mode welcomes the user and prompts for each command.
+     */
+    @Test
+    public void testInteractiveMode() {
+        String output = run("list\n", true);
+        assertTrue(output.startsWith("\n*******Welcome"));
+        assertTrue(output.endsWith("> No games in list. Add games to list\n> Goodbye, have fun playing.\n"));
+    }
+
+    /**
+     * Tests that interactive output is paged, fetching the next page only on enter, and
+     * that batch output is not paged.
+     */
+    @Test
+    public void testPaging() {
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 10; i < 60; i++) {
+            games.add(new BoardGame("Game " + i, i, 1, 4, 30, 60, 2.0, i, 6.0, 2000));
+        }
+        planner = new Planner(new GameCatalog(games));
+        String output = run("filter\n\nq\nlist\n", true);
+        assertTrue(output.contains("20: Game 29\n-- more"));
+        assertTrue(output.contains("40: Game 49\n-- more"));
+        assertFalse(output.contains("41: "));
+        assertTrue(output.endsWith("to stop -- > No games in list. Add games to list\n> Goodbye, have fun playing.\n"));
+
+        output = run("filter sort:rank desc\n", false);
+        assertTrue(output.endsWith("50: Game 10 (10)\n"));
+        assertFalse(output.contains("-- more"));
+    }
+}
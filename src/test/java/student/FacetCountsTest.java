@@ -0,0 +1,89 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the FacetCounts class and the Facet buckets.
+ */
+class FacetCountsTest {
+    /** The catalog used for testing. */
+    private GameCatalog catalog;
+
+    /**
+     * Builds a small catalog that spreads over several buckets.
+     */
+    @BeforeEach
+    public void setUp() {
+        catalog = new GameCatalog(List.of(
+                new BoardGame("13 Clues", 208766, 2, 6, 30, 30, 1.8966, 3365, 6.60806, 2016),
+                new BoardGame("Go", 188, 2, 2, 30, 180, 3.9, 200, 7.6, -2200),
+                new BoardGame("Werewolf", 3, 8, 20, 30, 60, 0.0, 900, 6.0, 1986),
+                new BoardGame("Twilight Imperium", 4, 3, 6, 240, 480, 4.2, 50, 8.6, 2017)));
+    }
+
+    /**
+     * Tests counting every facet in one pass.
+     */
+    @Test
+    public void testCountAllFacets() {
+        FacetCounts counts = FacetCounts.count(catalog, catalog.allRows(), List.of(Facet.values()));
+        assertEquals(4, counts.total());
+
+        Map<String, Integer> players = counts.get(Facet.PLAYERS);
+        assertEquals(0, players.get("1"));
+        assertEquals(2, players.get("2"));
+        assertEquals(2, players.get("6"));
+        assertEquals(1, players.get("8"));
+        assertEquals(1, players.get("9+"));
+
+        assertEquals(Map.of("before 1970", 1, "1970s", 0, "1980s", 1, "1990s", 0,
+                "2000s", 0, "2010s", 2, "2020s", 0), counts.get(Facet.YEAR));
+        assertEquals(List.of(1, 1, 0, 1, 1), List.copyOf(counts.get(Facet.DIFFICULTY).values()));
+        assertEquals(List.of(1, 1, 0, 1, 1), List.copyOf(counts.get(Facet.PLAY_TIME).values()));
+    }
+
+    /**
+     * Tests that only the requested facets are computed.
+     */
+    @Test
+    public void testRequestedFacetsOnly() {
+        FacetCounts counts = FacetCounts.count(catalog, new BitSet(), List.of(Facet.YEAR, Facet.YEAR));
+        assertEquals(0, counts.total());
+        assertEquals(Set.of(Facet.YEAR), counts.facets());
+        assertThrows(IllegalArgumentException.class, () -> counts.get(Facet.PLAYERS));
+    }
+
+    /**
+     * Tests that a game whose player range starts above 9 still counts towards "9+".
+     */
+    @Test
+    public void testPlayersAboveNine() {
+        GameCatalog party = new GameCatalog(List.of(
+                new BoardGame("Big Party", 7, 10, 30, 30, 60, 1.0, 100, 6.0, 2015),
+                new BoardGame("Solo", 8, 1, 1, 20, 20, 2.0, 100, 6.0, 2015)));
+        Map<String, Integer> players = FacetCounts.count(party, party.allRows(), List.of(Facet.PLAYERS))
+                .get(Facet.PLAYERS);
+        assertEquals(1, players.get("9+"));
+        assertEquals(1, players.get("1"));
+        assertEquals(0, players.get("8"));
+    }
+
+    /**
+     * Tests looking up a facet by name.
+     */
+    @Test
+    public void testFromString() {
+        assertEquals(Facet.PLAY_TIME, Facet.fromString("playtime"));
+        assertEquals(Facet.PLAY_TIME, Facet.fromString("Play_Time"));
+        assertEquals(Facet.YEAR, Facet.fromString("year"));
+        assertThrows(IllegalArgumentException.class, () -> Facet.fromString("rating"));
+    }
+}
@@ -0,0 +1,78 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the GameCatalog class.
+ */
+class GameCatalogTest {
+    /** The catalog used for testing. */
+    private GameCatalog catalog;
+
+    /**
+     * Builds a catalog from games given out of name order.
+     */
+    @BeforeEach
+    public void setUp() {
+        catalog = new GameCatalog(List.of(
+                new BoardGame("24/7: The Game", 25182, 2, 4, 20, 20, 1.8889, 9188, 6.20901, 2006),
+                new BoardGame("13 Clues", 208766, 2, 6, 30, 30, 1.8966, 3365, 6.60806, 2016),
+                new BoardGame("15 Days", 298619, 1, 4, 20, 20, 1.8235, 6461, 6.43977, 2020)));
+    }
+
+    /**
+     * Tests that rows are in name order.
+     */
+    @Test
+    public void testRowsInNameOrder() {
+        assertEquals(3, catalog.size());
+        assertEquals("13 Clues", catalog.game(0).getName());
+        assertEquals("15 Days", catalog.game(1).getName());
+        assertEquals("24/7: The Game", catalog.game(2).getName());
+        assertEquals("24/7: the game", catalog.names()[2]);
+        assertEquals(3, catalog.allRows().cardinality());
+    }
+
+    /**
+     * Tests reading the primitive columns.
+     */
+    @Test
+    public void testColumns() {
+        assertArrayEquals(new int[] {208766, 298619, 25182}, catalog.intColumn(GameData.ID));
+        assertArrayEquals(new int[] {2016, 2020, 2006}, catalog.intColumn(GameData.YEAR));
+        assertEquals(6.43977, catalog.doubleColumn(GameData.RATING)[1]);
+        assertEquals(9188.0, catalog.numericValue(GameData.RANK, 2));
+        assertThrows(IllegalArgumentException.class, () -> catalog.intColumn(GameData.RATING));
+        assertThrows(IllegalArgumentException.class, () -> catalog.doubleColumn(GameData.NAME));
+    }
+
+    /**
+     * Tests finding rows by id.
+     */
+    @Test
+    public void testRowOfId() {
+        assertEquals(0, catalog.rowOfId(208766));
+        assertEquals(1, catalog.rowOfId(298619));
+        assertEquals(2, catalog.rowOfId(25182));
+        assertEquals(-1, catalog.rowOfId(1));
+        assertEquals(-1, catalog.rowOfId(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Tests the precomputed column orders.
+     */
+    @Test
+    public void testOrder() {
+        assertArrayEquals(new int[] {0, 1, 2}, catalog.order(GameData.NAME));
+        assertArrayEquals(new int[] {2, 1, 0}, catalog.order(GameData.RATING));
+        // ties on max players keep name order
+        assertArrayEquals(new int[] {1, 2, 0}, catalog.order(GameData.MAX_PLAYERS));
+        assertSame(catalog.order(GameData.YEAR), catalog.order(GameData.YEAR));
+        assertThrows(IllegalArgumentException.class, () -> catalog.order(GameData.ID));
+    }
+}
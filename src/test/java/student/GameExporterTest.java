@@ -0,0 +1,79 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for exporting games as CSV and JSON Lines.
+ */
+class GameExporterTest {
+    /** The directory to export to. */
+    @TempDir
+    Path dir;
+
+    /**
+     * Tests the CSV header, full precision numbers and quoting of awkward names.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testCsv() throws IOException {
+        Path file = dir.resolve("games.csv");
+        long count = GameExporter.export(Stream.of(
+                new BoardGame("13 Clues", 208766, 2, 6, 30, 45, 1.8966, 3365, 6.60806, 2016),
+                new BoardGame("Say \"Cheese\", Please", 7, 3, 8, 15, 20, 1.0, 12, 7.0, 1999)),
+                file, GameExporter.Format.CSV);
+        assertEquals(2, count);
+        assertEquals(List.of(
+                "objectname,objectid,average,avgweight,rank,minplayers,maxplayers,minplaytime,maxplaytime,yearpublished",
+                "13 Clues,208766,6.60806,1.8966,3365,2,6,30,45,2016",
+                "\"Say \"\"Cheese\"\", Please\",7,7.0,1.0,12,3,8,15,20,1999"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that JSON Lines rows match the server's JSON for a game, and that the format is
+     * picked from the file name.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testJsonLines() throws IOException {
+        BoardGame game = new BoardGame("Caf\u00e9 \"Noir\"", 12, 1, 4, 20, 20, 2.5, 9, 6.25, 2020);
+        Path file = dir.resolve("games.jsonl");
+        assertEquals(GameExporter.Format.JSON_LINES, GameExporter.Format.forFile(file));
+        assertEquals(GameExporter.Format.CSV, GameExporter.Format.forFile(dir.resolve("games.txt")));
+        GameExporter.export(Stream.of(game, game), file, GameExporter.Format.forFile(file));
+        String line = Json.game(new StringBuilder(), game).toString();
+        assertEquals(List.of(line, line), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests an export far larger than the buffer, with names of one to four byte characters,
+     * against the standard UTF-8 encoder.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testLargeExportEncodesUtf8() throws IOException {
+        String[] names = {"Azul", "\u015cpeco", "\u5c06\u68cb", "Dice \ud83c\udfb2"};
+        List<BoardGame> games = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 60000; i++) {
+            BoardGame game = new BoardGame(names[i % 4] + " " + i, i, 1, 4, 30, 60, i / 1000.0, i, 5.5, 2000);
+            games.add(game);
+            Json.game(expected, game).append('\n');
+        }
+        Path file = dir.resolve("large.jsonl");
+        assertEquals(60000, GameExporter.export(games.stream(), file, GameExporter.Format.JSON_LINES));
+        assertTrue(Files.size(file) > GameExporter.BUFFER_SIZE * 2L);
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), Files.readAllBytes(file));
+    }
+}
@@ -0,0 +1,190 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the game list journal.
+ */
+class GameListJournalTest {
+    /** The directory holding the journal. */
+    @TempDir
+    Path dir;
+    /** The games in the catalog. */
+    private List<BoardGame> games;
+    /** A small catalog. */
+    private GameCatalog catalog;
+
+    /**
+     * Builds a small catalog.
+     */
+    @BeforeEach
+    public void setUp() {
+        games = List.of(
+                new BoardGame("13 Clues", 208766, 2, 6, 30, 30, 1.8966, 3365, 6.60806, 2016),
+                new BoardGame("15 Days", 298619, 1, 4, 20, 20, 1.8235, 6461, 6.43977, 2020),
+                new BoardGame("24/7: The Game", 25182, 2, 4, 20, 20, 1.8889, 9188, 6.20901, 2006),
+                new BoardGame("Zendo", 6830, 2, 6, 30, 30, 2.0, 4000, 7.0, 2001));
+        catalog = new GameCatalog(games);
+    }
+
+    /**
+     * Opens the journal in the test directory and restores its list.
+     * @return the list
+     * @throws IOException if the journal cannot be opened
+     */
+    private List<String> reload() throws IOException {
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            return journal.restore(catalog).getGameNames();
+        }
+    }
+
+    /**
+     * Tests that adds, removes and clears survive a reload.
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            GameList list = journal.restore(catalog);
+            list.addToList("all", games.stream());
+            list.removeFromList("2");
+            assertThrows(IllegalStateException.class, () -> journal.restore(catalog));
+        }
+        assertEquals(List.of("13 Clues", "24/7: The Game", "Zendo"), reload());
+
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            GameList list = journal.restore(catalog);
+            list.clear();
+            list.addToList("Zendo", games.stream());
+        }
+        assertEquals(List.of("Zendo"), reload());
+    }
+
+    /**
+     * Tests that a record torn by a crash, or damaged on disk, is cut off and the records
+     * before it kept.
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testTornTailIsDropped() throws IOException {
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            GameList list = journal.restore(catalog);
+            list.addToList("Zendo", games.stream());
+            list.addToList("15 Days", games.stream());
+        }
+        Path file = dir.resolve(GameListJournal.JOURNAL_FILE);
+        long good = Files.size(file);
+        // half a record, as a crash mid-write would leave
+        Files.write(file, new byte[] {0, 0, 0, 9, 1, 0}, StandardOpenOption.APPEND);
+        assertEquals(List.of("15 Days", "Zendo"), reload());
+        assertEquals(good, Files.size(file));
+
+        // flip a byte of the last record's id: its checksum no longer matches
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), good - 5);
+        }
+        assertEquals(List.of("Zendo"), reload());
+    }
+
+    /**
+     * Tests that compaction keeps the list, empties the journal, and that a journal left
+     * behind by a crash after the snapshot was replaced is not replayed again.
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testCompaction() throws IOException {
+        Path stale = dir.resolve("stale");
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            GameList list = journal.restore(catalog);
+            list.addToList("all", games.stream());
+            list.removeFromList("13 Clues");
+            Files.copy(dir.resolve(GameListJournal.JOURNAL_FILE), stale);
+            long before = journal.journalSize();
+            journal.compact();
+            assertTrue(journal.journalSize() < before);
+            list.addToList("13 Clues", games.stream());
+            list.removeFromList("Zendo");
+        }
+        assertEquals(List.of("13 Clues", "15 Days", "24/7: The Game"), reload());
+
+        // the journal of the previous generation would re-remove 13 Clues if replayed
+        Files.move(stale, dir.resolve(GameListJournal.JOURNAL_FILE), StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(List.of("15 Days", "24/7: The Game", "Zendo"), reload());
+    }
+
+    /**
+     * Tests that a large list is compacted as it grows and reloads whole.
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testLargeList() throws IOException {
+        games = new ArrayList<>();
+        for (int id = 1; id <= 100000; id++) {
+            games.add(new BoardGame("Game " + id, id, 1, 4, 30, 60, 2.0, 1, 6.0, 2000));
+        }
+        catalog = new GameCatalog(games);
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            GameList list = journal.restore(catalog);
+            for (int i = 0; i < 100; i++) {
+                list.addToList((i * 1000 + 1) + "-" + (i * 1000 + 1000), games.stream());
+            }
+            list.removeFromList("1");
+            assertTrue(journal.journalSize() < 400000);
+        }
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            assertEquals(99999, journal.size());
+            GameList list = journal.restore(catalog);
+            assertEquals(99999, list.count());
+            assertEquals("Game 10", list.getGameNames().get(0));
+        }
+    }
+
+    /**
+     * Tests that a damaged snapshot is reported rather than silently losing the list.
+     * @throws IOException if the files cannot be written
+     */
+    @Test
+    public void testCorruptSnapshot() throws IOException {
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            journal.restore(catalog).addToList("all", games.stream());
+            journal.compact();
+        }
+        Path snapshot = dir.resolve(GameListJournal.SNAPSHOT_FILE);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 6] ^= 1;
+        Files.write(snapshot, bytes);
+        assertThrows(IOException.class, () -> GameListJournal.open(dir));
+    }
+
+    /**
+     * Tests that union, intersection and difference with another list are recorded.
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testSetOperationsAreRecorded() throws IOException {
+        GameList other = new GameList(List.of(games.get(0), games.get(1)));
+        try (GameListJournal journal = GameListJournal.open(dir)) {
+            GameList list = journal.restore(catalog);
+            list.addToList("Zendo", games.stream());
+            list.union(other);
+            assertEquals(3, journal.size());
+            list.difference(new GameList(List.of(games.get(0))));
+            list.intersect(new GameList(List.of(games.get(1), games.get(3))));
+        }
+        assertEquals(List.of("15 Days", "Zendo"), reload());
+    }
+}
@@ -8,6 +8,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -209,6 +211,63 @@ class GameListTest {
             gameList.addToList("15 Days", filteredStream);
         });
         assertEquals("Game not found in the filtered list: 15 Days", e.getMessage());
+        assertNull(((GameNotFoundException) e).getSuggestion());
+    }
+
+    /**
+     * Tests the addToList method with a misspelled game name.
+     * Ensures that the closest game in the filtered list is suggested.
+     */
+    @Test
+    public void testAddToListSuggestsClosestName() {
+        BoardGame g1 = new BoardGame("13 Clues", 208766, 2, 6, 30,
+                30, 1.8966, 3365, 6.60806, 2016);
+        BoardGame g2 = new BoardGame("15 Days", 298619, 1, 4, 20,
+                20, 1.8235, 6461, 6.43977, 2020);
+        Stream<BoardGame> filteredStream = Stream.of(g1, g2);
+
+        GameNotFoundException e = assertThrows(GameNotFoundException.class, () -> {
+            gameList.addToList("13 clus", filteredStream);
+        });
+        assertEquals("13 Clues", e.getSuggestion());
+        assertEquals(0, gameList.count());
+    }
+
+    /**
+     * Tests that suggestions found through a catalog's name index are limited to the
+     * filtered games, match those found with the list's own index, and carry over to copies.
+     */
+    @Test
+    public void testAddToListSuggestsFromNameIndex() {
+        BoardGame g1 = new BoardGame("13 Clues", 208766, 2, 6, 30,
+                30, 1.8966, 3365, 6.60806, 2016);
+        BoardGame g2 = new BoardGame("13 Clue", 1, 2, 6, 30,
+                30, 1.8966, 3365, 6.60806, 2016);
+        BoardGame g3 = new BoardGame("15 Days", 298619, 1, 4, 20,
+                20, 1.8235, 6461, 6.43977, 2020);
+        GameNotFoundException e = assertThrows(GameNotFoundException.class,
+                () -> gameList.addToList("13 clu", Stream.of(g1, g2, g3)));
+        assertEquals("13 Clue", e.getSuggestion());
+
+        BKTree index = new GameCatalog(List.of(g1, g2, g3)).nameIndex();
+        int[] lookups = {0};
+        gameList.setNameIndex(() -> {
+            lookups[0]++;
+            return index;
+        });
+        e = assertThrows(GameNotFoundException.class,
+                () -> gameList.addToList("13 clu", Stream.of(g1, g3)));
+        assertEquals("13 Clues", e.getSuggestion());
+        e = assertThrows(GameNotFoundException.class,
+                () -> gameList.addToList("13 clu", Stream.of(g1, g2, g3)));
+        assertEquals("13 Clue", e.getSuggestion());
+        GameList copy = gameList.copy();
+        e = assertThrows(GameNotFoundException.class,
+                () -> copy.addToList("13 clu", Stream.of(g3)));
+        assertNull(e.getSuggestion());
+        assertEquals(3, lookups[0]);
+        gameList.addToList("15 days", Stream.of(g3));
+        assertEquals(List.of("15 Days"), gameList.getGameNames());
     }
 
     /**
@@ -476,4 +535,82 @@ class GameListTest {
         gameList.removeFromList("1");
         assertEquals(1, gameList.count());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests adding a large filtered result in bulk, skipping games already on the list,
+     * and that removals keep the membership index in step.
+     */
+    @Test
+    public void testAddAllLargeResult() {
+        List<BoardGame> many = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            many.add(new BoardGame("Game " + i, i, 1, 4, 30, 60, 2.0, i + 1, 6.0, 2000));
+        }
+        gameList.addToList("1-10", many.stream());
+        gameList.addToList("all", many.stream());
+        gameList.addToList("all", many.stream());
+        assertEquals(50000, gameList.count());
+        List<BoardGame> sorted = new ArrayList<>(many);
+        sorted.sort(Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER));
+        assertEquals(sorted, gameList.getGames());
+
+        gameList.removeFromList("1-100");
+        gameList.removeFromList("Game 200");
+        assertEquals(49899, gameList.count());
+        assertEquals(sorted.get(100), gameList.getGames().get(0));
+        gameList.addToList("all", many.stream());
+        assertEquals(50000, gameList.count());
+        assertEquals(sorted, gameList.getGames());
+    }
+
+    /**
+     * Tests that removing by number and range acts on the sorted numbering shown by
+     * getGameNames, whatever order the games were added in.
+     */
+    @Test
+    public void testRemoveUsesDisplayedOrder() {
+        gameList.addToList("all", Stream.of("delta", "Bravo", "echo", "alpha", "Charlie")
+                .map(name -> new BoardGame(name, name.hashCode(), 1, 4, 30, 60, 2.0, 1, 6.0, 2000)));
+        assertEquals(List.of("alpha", "Bravo", "Charlie", "delta", "echo"), gameList.getGameNames());
+
+        gameList.removeFromList("2");
+        assertEquals(List.of("alpha", "Charlie", "delta", "echo"), gameList.getGameNames());
+        gameList.removeFromList("2-3");
+        assertEquals(List.of("alpha", "echo"), gameList.getGameNames());
+        gameList.removeFromList("ECHO");
+        assertEquals(List.of("alpha"), gameList.getGameNames());
+    }
+
+    /**
+     * Tests that membership by id follows copies and set operations: a copy and its
+     * original each see only their own adds and removals.
+     */
+    @Test
+    public void testMembershipAfterCopyAndSetOperations() {
+        BoardGame g1 = new BoardGame("13 Clues", 208766, 2, 6, 30,
+                30, 1.8966, 3365, 6.60806, 2016);
+        BoardGame g2 = new BoardGame("15 Days", 298619, 1, 4, 20,
+                20, 1.8235, 6461, 6.43977, 2020);
+        BoardGame g3 = new BoardGame("24/7: The Game", 25182, 2, 4, 20,
+                20, 1.8889, 9188, 6.20901, 2006);
+        gameList.addToList("all", Stream.of(g1, g2));
+        GameList copy = gameList.copy();
+        copy.removeFromList("13 Clues");
+        gameList.addToList("13 Clues", Stream.of(g1));
+        assertEquals(2, gameList.count());
+        copy.addToList("all", Stream.of(g1, g3, g1));
+        assertEquals(List.of("13 Clues", "15 Days", "24/7: The Game"), copy.getGameNames());
+        assertEquals(List.of("13 Clues", "15 Days"), gameList.getGameNames());
+
+        copy.difference(gameList);
+        assertEquals(List.of("24/7: The Game"), copy.getGameNames());
+        copy.addToList("15 Days", Stream.of(g2));
+        copy.intersect(gameList);
+        assertEquals(List.of("15 Days"), copy.getGameNames());
+        copy.addToList("13 Clues", Stream.of(g1));
+        copy.union(gameList);
+        assertEquals(2, copy.count());
+        copy.addToList("all", Stream.of(g1, g2));
+        assertEquals(2, copy.count());
+    }
+}
@@ -0,0 +1,85 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for a user's named game lists.
+ */
+class GameListsTest {
+    /** Some games to put on lists. */
+    private static final List<BoardGame> GAMES = List.of(
+            new BoardGame("13 Clues", 208766, 2, 6, 30, 30, 1.8966, 3365, 6.60806, 2016),
+            new BoardGame("15 Days", 298619, 1, 4, 20, 20, 1.8235, 6461, 6.43977, 2020),
+            new BoardGame("24/7: The Game", 25182, 2, 4, 20, 20, 1.8889, 9188, 6.20901, 2006),
+            new BoardGame("Zendo", 6830, 2, 6, 30, 30, 2.0, 4000, 7.0, 2001));
+
+    /**
+     * Gets a stream of the test games.
+     * @return the games
+     */
+    private static Stream<BoardGame> games() {
+        return GAMES.stream();
+    }
+
+    /**
+     * Tests creating, switching, copying and deleting lists.
+     */
+    @Test
+    public void testNamedLists() {
+        GameLists lists = new GameLists();
+        assertEquals(GameLists.DEFAULT_NAME, lists.currentName());
+        lists.current().addToList("1-2", games());
+
+        lists.copy("Party");
+        assertThrows(IllegalArgumentException.class, () -> lists.copy("party"));
+        assertEquals(GameLists.DEFAULT_NAME, lists.currentName());
+
+        GameList party = lists.use("PARTY");
+        assertEquals("Party", lists.currentName());
+        party.addToList("Zendo", games());
+        assertEquals(List.of("13 Clues", "15 Days", "Zendo"), lists.current().getGameNames());
+        assertEquals(List.of("13 Clues", "15 Days"), lists.get("default").getGameNames());
+
+        lists.use("learn next");
+        assertEquals(List.of(GameLists.DEFAULT_NAME, "learn next", "Party"), lists.names());
+        assertEquals(0, lists.current().count());
+        assertThrows(IllegalArgumentException.class, () -> lists.delete("learn next"));
+        assertThrows(IllegalArgumentException.class, () -> lists.get("missing"));
+        assertThrows(IllegalArgumentException.class, () -> lists.use(" "));
+
+        lists.use("party");
+        lists.delete("Learn Next");
+        assertEquals(List.of(GameLists.DEFAULT_NAME, "Party"), lists.names());
+    }
+
+    /**
+     * Tests union, intersection and difference of the current list with another.
+     */
+    @Test
+    public void testSetOperations() {
+        GameLists lists = new GameLists();
+        lists.current().addToList("1-2", games());
+        lists.use("other").addToList("2-3", games());
+
+        lists.use("union").union(lists.get("default"));
+        lists.union("other");
+        assertEquals(List.of("13 Clues", "15 Days", "24/7: The Game"), lists.current().getGameNames());
+
+        lists.copy("both");
+        lists.use("both");
+        lists.intersect("default");
+        lists.intersect("other");
+        assertEquals(List.of("15 Days"), lists.current().getGameNames());
+
+        lists.use("union");
+        lists.difference("both");
+        assertEquals(List.of("13 Clues", "24/7: The Game"), lists.current().getGameNames());
+        assertEquals(List.of("15 Days", "24/7: The Game"), lists.get("other").getGameNames());
+        assertThrows(IllegalArgumentException.class, () -> lists.difference("missing"));
+    }
+}
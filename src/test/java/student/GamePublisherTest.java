@@ -0,0 +1,173 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the GamePublisher class, through Planner.publish.
+ */
+class GamePublisherTest {
+
+    /**
+     * Builds a planner over random games.
+     * @param size the number of games
+     * @return the planner
+     */
+    private static Planner randomPlanner(int size) {
+        Random random = new Random(31);
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int minPlayers = 1 + random.nextInt(4);
+            int minTime = 10 * (1 + random.nextInt(12));
+            games.add(new BoardGame("Game " + i, i, minPlayers, minPlayers + random.nextInt(6),
+                    minTime, minTime + 10 * random.nextInt(10), Math.round(10 + 40 * random.nextDouble()) / 10.0,
+                    1 + random.nextInt(size), 5 + 4 * random.nextDouble(), 1950 + random.nextInt(75)));
+        }
+        return new Planner(new GameCatalog(games));
+    }
+
+    /**
+     * A subscriber that records everything it is sent and requests a fixed batch at a time.
+     */
+    private static final class Recorder implements Flow.Subscriber<BoardGame> {
+        /** The games received. */
+        private final List<BoardGame> games = new ArrayList<>();
+        /** How many games to request each time, 0 to request nothing by itself. */
+        private final int batch;
+        /** The subscription. */
+        private Flow.Subscription subscription;
+        /** Games requested but not yet received. */
+        private long outstanding;
+        /** Set if more games were sent than requested. */
+        private boolean overflow;
+        /** Set when complete. */
+        private boolean complete;
+        /** The error received, if any. */
+        private Throwable error;
+
+        /**
+         * Constructor for a recorder.
+         * @param batch how many games to request each time
+         */
+        Recorder(int batch) {
+            this.batch = batch;
+        }
+
+        /**
+         * Keeps the subscription and makes the first request.
+         * @param subscription the subscription
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (batch > 0) {
+                request(batch);
+            }
+        }
+
+        /**
+         * Requests more games.
+         * @param n the number of games
+         */
+        void request(long n) {
+            outstanding += n;
+            subscription.request(n);
+        }
+
+        /**
+         * Records a game, noting if it was not requested, and requests more when a batch is used up.
+         * @param item the game
+         */
+        @Override
+        public void onNext(BoardGame item) {
+            overflow |= outstanding-- <= 0;
+            games.add(item);
+            if (batch > 0 && outstanding == 0) {
+                request(batch);
+            }
+        }
+
+        /**
+         * Records an error.
+         * @param throwable the error
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        /**
+         * Records completion.
+         */
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+    }
+
+    /**
+     * Tests that the published games match filter, for every sort column and direction.
+     */
+    @Test
+    public void testMatchesFilter() {
+        Planner planner = randomPlanner(2000);
+        planner.filter("minPlayers>=2");
+        int count = planner.count();
+        String filter = "year>1980,players==4,maxPlayTime<=120";
+        for (GameData sortOn : List.of(GameData.NAME, GameData.RATING, GameData.DIFFICULTY, GameData.YEAR)) {
+            for (boolean ascending : List.of(true, false)) {
+                Recorder recorder = new Recorder(7);
+                planner.publish(filter, sortOn, ascending).subscribe(recorder);
+                List<BoardGame> expected = new Planner(planner.getCatalog(), planner.rows())
+                        .filter(filter, sortOn, ascending).toList();
+                assertEquals(expected, recorder.games, sortOn + " " + ascending);
+                assertTrue(recorder.complete);
+                assertFalse(recorder.overflow);
+            }
+        }
+        assertEquals(count, planner.count());
+    }
+
+    /**
+     * Tests that nothing is sent without demand, and that cancelling stops the games.
+     */
+    @Test
+    public void testDemandAndCancel() {
+        Planner planner = randomPlanner(500);
+        Recorder recorder = new Recorder(0);
+        planner.publish("", GameData.RATING, false).subscribe(recorder);
+        assertTrue(recorder.games.isEmpty());
+        recorder.request(3);
+        assertEquals(3, recorder.games.size());
+        assertTrue(recorder.games.get(0).getRating() >= recorder.games.get(2).getRating());
+        recorder.subscription.cancel();
+        recorder.request(3);
+        assertEquals(3, recorder.games.size());
+        assertFalse(recorder.complete);
+    }
+
+    /**
+     * Tests completing with no matches, and the error for a non-positive request.
+     */
+    @Test
+    public void testEmptyAndInvalidRequest() {
+        Planner planner = randomPlanner(100);
+        Recorder empty = new Recorder(0);
+        planner.publish("year>3000", GameData.NAME, true).subscribe(empty);
+        empty.request(1);
+        assertTrue(empty.complete);
+
+        Recorder invalid = new Recorder(0);
+        planner.publish("", GameData.NAME, true).subscribe(invalid);
+        invalid.request(0);
+        assertInstanceOf(IllegalArgumentException.class, invalid.error);
+        assertThrows(IllegalArgumentException.class, () -> planner.publish("", GameData.ID, true));
+        assertThrows(IllegalArgumentException.class, () -> planner.publish("year>>1", GameData.NAME, true));
+    }
+}
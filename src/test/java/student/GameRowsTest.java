@@ -0,0 +1,81 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for formatting games without String.format.
+ */
+class GameRowsTest {
+
+    /**
+     * Formats a number the way the code it replaces did.
+     * @param value the number
+     * @return the number with two decimal places
+     */
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Formats a number with the hand-rolled formatting.
+     * @param value the number
+     * @return the number with two decimal places
+     */
+    private static String fixed2(double value) {
+        return GameRows.appendFixed2(new StringBuilder(), value).toString();
+    }
+
+    /**
+     * Tests values where rounding the scaled double and rounding the decimal disagree,
+     * and other edge cases.
+     */
+    @Test
+    public void testEdgeCases() {
+        double[] values = {0, -0.0, 1.005, 2.675, 0.125, 0.135, 1.115, 9.995, 99.995, -1.005, -0.001, 0.004999,
+            6.60806, 1.8966, 7.0, 1e12, 123456789012345.675, 1e-300, Double.MAX_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (double value : values) {
+            assertEquals(format(value), fixed2(value), "value " + value);
+        }
+    }
+
+    /**
+     * Tests many random values like ratings and difficulties, at several decimal places.
+     */
+    @Test
+    public void testMatchesFormat() {
+        Random random = new Random(47);
+        for (int i = 0; i < 200000; i++) {
+            double value = random.nextDouble() * 10;
+            if (i % 2 == 0) {
+                // a few decimal places, as in the collection file, so ties come up often
+                double scale = Math.pow(10, 2 + random.nextInt(4));
+                value = Math.round(value * scale) / scale;
+            }
+            assertEquals(format(value), fixed2(value), "value " + value);
+        }
+    }
+
+    /**
+     * Tests the row text for every column against the String.format version.
+     */
+    @Test
+    public void testWithInfo() {
+        BoardGame game = new BoardGame("17 Days", 6, 1, 8, 70, 70, 9.0, 600, 9.005, 2005);
+        assertEquals("17 Days (9.01)", game.toStringWithInfo(GameData.RATING));
+        assertEquals("17 Days (9.00)", game.toStringWithInfo(GameData.DIFFICULTY));
+        assertEquals("17 Days (600)", game.toStringWithInfo(GameData.RANK));
+        assertEquals("17 Days (1)", game.toStringWithInfo(GameData.MIN_PLAYERS));
+        assertEquals("17 Days (8)", game.toStringWithInfo(GameData.MAX_PLAYERS));
+        assertEquals("17 Days (70)", game.toStringWithInfo(GameData.MIN_TIME));
+        assertEquals("17 Days (70)", game.toStringWithInfo(GameData.MAX_TIME));
+        assertEquals("17 Days (2005)", game.toStringWithInfo(GameData.YEAR));
+        assertEquals("17 Days", game.toStringWithInfo(GameData.NAME));
+        assertEquals("17 Days", game.toStringWithInfo(GameData.ID));
+    }
+}
@@ -0,0 +1,85 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the primitive id set.
+ */
+class IdSetTest {
+
+    /**
+     * Tests adding, finding and removing ids, including 0 and negative ids.
+     */
+    @Test
+    public void testAddContainsRemove() {
+        IdSet ids = new IdSet();
+        assertTrue(ids.add(0));
+        assertFalse(ids.add(0));
+        assertTrue(ids.add(-5));
+        assertTrue(ids.add(208766));
+        assertEquals(3, ids.size());
+        assertTrue(ids.contains(0));
+        assertTrue(ids.contains(-5));
+        assertFalse(ids.contains(7));
+
+        assertTrue(ids.remove(0));
+        assertFalse(ids.remove(0));
+        assertFalse(ids.contains(0));
+        assertFalse(ids.remove(7));
+        assertEquals(2, ids.size());
+
+        ids.clear();
+        assertEquals(0, ids.size());
+        assertFalse(ids.contains(208766));
+    }
+
+    /**
+     * Tests random operations against a HashSet, over a small range of ids so probe runs
+     * collide and removals have to shift entries back.
+     */
+    @Test
+    public void testMatchesHashSet() {
+        Random random = new Random(41);
+        IdSet ids = new IdSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 200000; i++) {
+            int id = random.nextInt(3000) - 100;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(id), ids.add(id));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(id), ids.remove(id));
+                    break;
+                default:
+                    assertEquals(expected.contains(id), ids.contains(id));
+            }
+            assertEquals(expected.size(), ids.size());
+        }
+        for (int id = -100; id < 2900; id++) {
+            assertEquals(expected.contains(id), ids.contains(id));
+        }
+    }
+
+    /**
+     * Tests that making room up front keeps every id.
+     */
+    @Test
+    public void testEnsureCapacity() {
+        IdSet ids = new IdSet();
+        ids.add(3);
+        ids.ensureCapacity(100000);
+        for (int id = 0; id < 100000; id++) {
+            ids.add(id * 7);
+        }
+        assertEquals(100001, ids.size());
+        assertTrue(ids.contains(3));
+        assertTrue(ids.contains(7 * 99999));
+    }
+}
@@ -0,0 +1,107 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the persistent id trie.
+ */
+class IdTrieTest {
+
+    /**
+     * Tests adding, finding and removing ids, including 0, negative and extreme ids.
+     */
+    @Test
+    public void testAddContainsRemove() {
+        IdTrie ids = new IdTrie();
+        assertFalse(ids.contains(0));
+        assertTrue(ids.add(0));
+        assertFalse(ids.add(0));
+        assertTrue(ids.add(-5));
+        assertTrue(ids.add(208766));
+        assertTrue(ids.add(Integer.MIN_VALUE));
+        assertTrue(ids.add(Integer.MAX_VALUE));
+        assertEquals(5, ids.size());
+        assertTrue(ids.contains(0));
+        assertTrue(ids.contains(-5));
+        assertTrue(ids.contains(Integer.MIN_VALUE));
+        assertFalse(ids.contains(7));
+
+        assertTrue(ids.remove(0));
+        assertFalse(ids.remove(0));
+        assertFalse(ids.contains(0));
+        assertFalse(ids.remove(7));
+        assertEquals(4, ids.size());
+
+        ids.clear();
+        assertEquals(0, ids.size());
+        assertFalse(ids.contains(208766));
+    }
+
+    /**
+     * Tests random operations against a HashSet, on a set and on copies taken along the way,
+     * which must each keep the ids they had when they were copied.
+     */
+    @Test
+    public void testMatchesHashSet() {
+        Random random = new Random(43);
+        IdTrie ids = new IdTrie();
+        Set<Integer> expected = new HashSet<>();
+        IdTrie snapshot = ids.copy();
+        Set<Integer> snapshotExpected = new HashSet<>();
+        for (int i = 0; i < 200000; i++) {
+            int id = random.nextInt(5000) - 100;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(id), ids.add(id));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(id), ids.remove(id));
+                    break;
+                default:
+                    assertEquals(expected.contains(id), ids.contains(id));
+            }
+            assertEquals(expected.size(), ids.size());
+            if (i % 20000 == 0) {
+                for (int old = -100; old < 4900; old++) {
+                    assertEquals(snapshotExpected.contains(old), snapshot.contains(old));
+                }
+                snapshot = ids.copy();
+                snapshotExpected = new HashSet<>(expected);
+            }
+        }
+        for (int id = -100; id < 4900; id++) {
+            assertEquals(expected.contains(id), ids.contains(id));
+        }
+    }
+
+    /**
+     * Tests that a copy is independent of the set it was copied from, both ways.
+     */
+    @Test
+    public void testCopy() {
+        IdTrie set = new IdTrie();
+        for (int id = 0; id < 1000; id++) {
+            set.add(id);
+        }
+        IdTrie copy = set.copy();
+        copy.remove(7);
+        copy.add(1000);
+        set.remove(8);
+        assertTrue(set.contains(7));
+        assertFalse(set.contains(1000));
+        assertFalse(set.contains(8));
+        assertFalse(copy.contains(7));
+        assertTrue(copy.contains(8));
+        assertEquals(999, set.size());
+        assertEquals(1000, copy.size());
+        copy.clear();
+        assertEquals(999, set.size());
+        assertTrue(set.contains(999));
+    }
+}
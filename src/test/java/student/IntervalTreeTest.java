@@ -0,0 +1,64 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the IntervalTree class.
+ */
+class IntervalTreeTest {
+
+    /**
+     * Tests stabbing and window queries on a few intervals.
+     */
+    @Test
+    public void testOverlapping() {
+        IntervalTree tree = new IntervalTree(new int[] {1, 2, 5, 3, 8}, new int[] {4, 2, 6, 10, 3});
+        // the last interval is given reversed, and is treated as 3-8
+        assertEquals(BitSet.valueOf(new long[] {0b00001}), tree.overlapping(1, 1));
+        assertEquals(BitSet.valueOf(new long[] {0b11001}), tree.overlapping(3, 3));
+        assertEquals(BitSet.valueOf(new long[] {0b01000}), tree.overlapping(9, 9));
+        assertEquals(BitSet.valueOf(new long[] {0b11100}), tree.overlapping(5, 12));
+        assertEquals(BitSet.valueOf(new long[] {0b11111}), tree.overlapping(0, 100));
+        assertTrue(tree.overlapping(11, 20).isEmpty());
+    }
+
+    /**
+     * Tests an empty tree.
+     */
+    @Test
+    public void testEmpty() {
+        assertTrue(new IntervalTree(new int[0], new int[0]).overlapping(0, 10).isEmpty());
+    }
+
+    /**
+     * Tests random windows against a brute force scan.
+     */
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        int size = 2000;
+        int[] lows = new int[size];
+        int[] highs = new int[size];
+        for (int i = 0; i < size; i++) {
+            lows[i] = random.nextInt(200);
+            highs[i] = lows[i] + random.nextInt(60);
+        }
+        IntervalTree tree = new IntervalTree(lows, highs);
+        for (int query = 0; query < 500; query++) {
+            int from = random.nextInt(260);
+            int to = from + random.nextInt(3) * random.nextInt(40);
+            BitSet expected = new BitSet();
+            for (int i = 0; i < size; i++) {
+                if (lows[i] <= to && highs[i] >= from) {
+                    expected.set(i);
+                }
+            }
+            assertEquals(expected, tree.overlapping(from, to), "window " + from + "-" + to);
+        }
+    }
+}
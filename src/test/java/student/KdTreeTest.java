@@ -0,0 +1,77 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the KdTree class.
+ */
+class KdTreeTest {
+
+    /**
+     * Builds a catalog of random games.
+     * @param size the number of games
+     * @param seed the random seed
+     * @return the catalog
+     */
+    private static GameCatalog randomCatalog(int size, long seed) {
+        Random random = new Random(seed);
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int minPlayers = 1 + random.nextInt(4);
+            int minTime = 10 * (1 + random.nextInt(12));
+            games.add(new BoardGame("Game " + i, i, minPlayers, minPlayers + random.nextInt(6),
+                    minTime, minTime + 10 * random.nextInt(10), 1 + 4 * random.nextDouble(),
+                    1 + random.nextInt(size), 5 + 4 * random.nextDouble(), 1950 + random.nextInt(75)));
+        }
+        return new GameCatalog(games);
+    }
+
+    /**
+     * Tests that the nearest neighbours match a scan of every game, with and without a filter.
+     */
+    @Test
+    public void testNearestMatchesScan() {
+        GameCatalog catalog = randomCatalog(800, 7);
+        KdTree tree = new KdTree(catalog);
+        Random random = new Random(3);
+        BitSet twoPlayer = tree.toPositions(catalog.rangeIndex(GameRange.PLAYERS).overlapping(2, 2));
+        for (int i = 0; i < 50; i++) {
+            int row = random.nextInt(catalog.size());
+            assertArrayEquals(tree.scan(row, 5, null), tree.nearest(row, 5, null));
+            assertArrayEquals(tree.scan(row, 5, twoPlayer), tree.nearest(row, 5, twoPlayer));
+        }
+    }
+
+    /**
+     * Tests the neighbours of a game in a small, hand built catalog.
+     */
+    @Test
+    public void testNearestSmallCatalog() {
+        GameCatalog catalog = new GameCatalog(List.of(
+                new BoardGame("A", 1, 2, 4, 30, 60, 2.0, 10, 7.0, 2010),
+                new BoardGame("B", 2, 2, 4, 30, 60, 2.1, 11, 7.1, 2011),
+                new BoardGame("C", 3, 2, 5, 30, 90, 2.5, 12, 7.0, 2015),
+                new BoardGame("D", 4, 1, 8, 120, 240, 4.5, 13, 8.5, 1990)));
+        KdTree tree = new KdTree(catalog);
+        assertArrayEquals(new int[] {1, 2, 3}, tree.nearest(0, 3, null));
+        assertArrayEquals(new int[] {1}, tree.nearest(0, 1, null));
+        assertArrayEquals(new int[] {3}, tree.nearest(0, 3, tree.toPositions(BitSet.valueOf(new long[] {0b1001}))));
+        assertEquals(0, tree.nearest(0, 0, null).length);
+    }
+
+    /**
+     * Tests an index over a single game.
+     */
+    @Test
+    public void testSingleGame() {
+        GameCatalog catalog = randomCatalog(1, 1);
+        assertEquals(0, new KdTree(catalog).nearest(0, 3, null).length);
+    }
+}
@@ -21,6 +21,7 @@ class OperationsTest {
         assertEquals(">=", Operations.GREATER_THAN_EQUALS.getOperator());
         assertEquals("<=", Operations.LESS_THAN_EQUALS.getOperator());
         assertEquals("~=", Operations.CONTAINS.getOperator());
+        assertEquals("%=", Operations.FUZZY.getOperator());
     }
 
     /**
@@ -35,6 +36,7 @@ class OperationsTest {
         assertEquals(Operations.GREATER_THAN_EQUALS, Operations.fromOperator(">="));
         assertEquals(Operations.LESS_THAN_EQUALS, Operations.fromOperator("<="));
         assertEquals(Operations.CONTAINS, Operations.fromOperator("~="));
+        assertEquals(Operations.FUZZY, Operations.fromOperator("%="));
     }
 
     /**
@@ -60,6 +62,7 @@ class OperationsTest {
         assertEquals(Operations.GREATER_THAN_EQUALS, Operations.getOperatorFromStr("rank >= 3365"));
         assertEquals(Operations.LESS_THAN_EQUALS, Operations.getOperatorFromStr("rank <= 3365"));
         assertEquals(Operations.CONTAINS, Operations.getOperatorFromStr("name ~= Clues"));
+        assertEquals(Operations.FUZZY, Operations.getOperatorFromStr("name %= Cleus"));
     }
 
     /**
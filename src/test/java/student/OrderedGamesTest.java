@@ -0,0 +1,174 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order-statistic treap of games.
+ */
+class OrderedGamesTest {
+
+    /**
+     * Builds a game with a name and id.
+     * @param name the name
+     * @param id the id
+     * @return the game
+     */
+    private static BoardGame game(String name, int id) {
+        return new BoardGame(name, id, 1, 4, 30, 60, 2.0, 1, 6.0, 2000);
+    }
+
+    /**
+     * Collects every game in order.
+     * @param games the games
+     * @return the games as a list
+     */
+    private static List<BoardGame> toList(OrderedGames games) {
+        List<BoardGame> list = new ArrayList<>();
+        games.forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Tests positions, name lookup and removal on a small set.
+     */
+    @Test
+    public void testBasics() {
+        OrderedGames games = new OrderedGames();
+        games.add(game("b", 2));
+        games.add(game("A", 1));
+        games.add(game("c", 3));
+        games.add(game("a", 0));
+        assertEquals(4, games.size());
+        assertEquals(List.of(game("a", 0), game("A", 1), game("b", 2), game("c", 3)), toList(games));
+        assertEquals(game("b", 2), games.get(2));
+        assertEquals(0, games.indexOfName("A"));
+        assertEquals(3, games.indexOfName("C"));
+        assertEquals(-1, games.indexOfName("bb"));
+
+        assertEquals(List.of(game("A", 1), game("b", 2)), games.removeRange(1, 3));
+        assertEquals(List.of(game("a", 0), game("c", 3)), toList(games));
+        assertThrows(IndexOutOfBoundsException.class, () -> games.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> games.removeRange(1, 3));
+        games.clear();
+        assertEquals(0, games.size());
+    }
+
+    /**
+     * Tests random adds, bulk adds and range removals against a sorted list.
+     */
+    @Test
+    public void testMatchesSortedList() {
+        Random random = new Random(42);
+        OrderedGames games = new OrderedGames();
+        List<BoardGame> expected = new ArrayList<>();
+        int nextId = 0;
+        for (int round = 0; round < 2000; round++) {
+            int op = random.nextInt(4);
+            if (op == 0) {
+                BoardGame game = game("Game " + random.nextInt(500), nextId++);
+                games.add(game);
+                expected.add(game);
+            } else if (op == 1) {
+                List<BoardGame> batch = new ArrayList<>();
+                for (int i = random.nextInt(50); i > 0; i--) {
+                    batch.add(game("Game " + random.nextInt(500), nextId++));
+                }
+                games.addAll(batch);
+                expected.addAll(batch);
+            } else if (op == 2 && !expected.isEmpty()) {
+                expected.sort(OrderedGames.ORDER);
+                int from = random.nextInt(expected.size());
+                int to = from + random.nextInt(Math.min(5, expected.size() - from) + 1);
+                List<BoardGame> removed = games.removeRange(from, to);
+                assertEquals(expected.subList(from, to), removed);
+                expected.subList(from, to).clear();
+            } else if (!expected.isEmpty()) {
+                expected.sort(OrderedGames.ORDER);
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), games.get(index));
+            }
+            assertEquals(expected.size(), games.size());
+        }
+        expected.sort(OrderedGames.ORDER);
+        assertEquals(expected, toList(games));
+    }
+
+    /**
+     * Tests that a copy and the original change independently.
+     */
+    @Test
+    public void testCopyIsIndependent() {
+        OrderedGames games = new OrderedGames();
+        games.addAll(List.of(game("a", 1), game("b", 2), game("c", 3)));
+        OrderedGames copy = games.copy();
+        copy.add(game("d", 4));
+        copy.removeRange(0, 1);
+        games.removeRange(2, 3);
+        assertEquals(List.of(game("a", 1), game("b", 2)), games.toList());
+        assertEquals(List.of(game("b", 2), game("c", 3), game("d", 4)), copy.toList());
+        assertFalse(copy.add(game("b", 2)));
+        assertTrue(games.contains(game("a", 1)));
+        assertFalse(copy.contains(game("a", 1)));
+    }
+
+    /**
+     * Tests union, intersection and difference against sorted sets, including the games
+     * each reports adding or removing, leaving the other set unchanged.
+     */
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(44);
+        for (int round = 0; round < 200; round++) {
+            TreeSet<BoardGame> left = new TreeSet<>(OrderedGames.ORDER);
+            TreeSet<BoardGame> right = new TreeSet<>(OrderedGames.ORDER);
+            for (int i = random.nextInt(300); i > 0; i--) {
+                int id = random.nextInt(400);
+                (random.nextBoolean() ? left : right).add(game("Game " + id % 50, id));
+            }
+            OrderedGames a = new OrderedGames();
+            a.addAll(left);
+            OrderedGames b = new OrderedGames();
+            b.addAll(right);
+
+            OrderedGames union = a.copy();
+            List<BoardGame> added = union.union(b);
+            TreeSet<BoardGame> expected = new TreeSet<>(left);
+            expected.addAll(right);
+            assertEquals(new ArrayList<>(expected), union.toList());
+            expected = new TreeSet<>(right);
+            expected.removeAll(left);
+            assertEquals(new ArrayList<>(expected), added);
+
+            OrderedGames intersection = a.copy();
+            List<BoardGame> removed = intersection.intersect(b);
+            expected = new TreeSet<>(left);
+            expected.retainAll(right);
+            assertEquals(new ArrayList<>(expected), intersection.toList());
+            expected = new TreeSet<>(left);
+            expected.removeAll(right);
+            assertEquals(new ArrayList<>(expected), removed);
+
+            OrderedGames difference = a.copy();
+            removed = difference.difference(b);
+            expected = new TreeSet<>(left);
+            expected.removeAll(right);
+            assertEquals(new ArrayList<>(expected), difference.toList());
+            expected = new TreeSet<>(left);
+            expected.retainAll(right);
+            assertEquals(new ArrayList<>(expected), removed);
+            for (int i = 0; i < difference.size(); i++) {
+                assertEquals(difference.toList().get(i), difference.get(i));
+            }
+
+            assertEquals(new ArrayList<>(left), a.toList());
+            assertEquals(new ArrayList<>(right), b.toList());
+        }
+    }
+}
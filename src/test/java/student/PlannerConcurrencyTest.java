@@ -0,0 +1,143 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for sharing Planner instances and catalogs between threads.
+ */
+class PlannerConcurrencyTest {
+    /** The number of threads in each test. */
+    private static final int THREADS = 8;
+
+    /**
+     * Builds a catalog of random games.
+     * @param size the number of games
+     * @return the catalog
+     */
+    private static GameCatalog randomCatalog(int size) {
+        Random random = new Random(17);
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int minPlayers = 1 + random.nextInt(4);
+            int minTime = 10 * (1 + random.nextInt(12));
+            games.add(new BoardGame("Game " + i, i, minPlayers, minPlayers + random.nextInt(6),
+                    minTime, minTime + 10 * random.nextInt(10), 1 + 4 * random.nextDouble(),
+                    1 + random.nextInt(size), 5 + 4 * random.nextDouble(), 1950 + random.nextInt(75)));
+        }
+        return new GameCatalog(games);
+    }
+
+    /**
+     * Runs a task on several threads at once, released together, and rethrows any failure.
+     * @param task the task, given the thread number
+     * @throws Exception if any thread failed
+     */
+    private static void runTogether(ThreadTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that progressive filters applied from many threads at once are never lost: however
+     * they interleave, the final filter is all of them combined.
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrentFiltersAreNotLost() throws Exception {
+        GameCatalog catalog = randomCatalog(20000);
+        for (int round = 0; round < 20; round++) {
+            Planner planner = new Planner(catalog);
+            runTogether(thread -> {
+                for (int i = 0; i < 5; i++) {
+                    planner.filter("year>=" + (1950 + thread * 5 + i)).count();
+                }
+            });
+            long expected = catalog.allRows().stream()
+                    .filter(row -> catalog.game(row).getYearPublished() >= 1950 + (THREADS - 1) * 5 + 4).count();
+            assertEquals(expected, planner.count());
+        }
+    }
+
+    /**
+     * Tests that readers always see a consistent filter while other threads filter and reset
+     * the same planner, and that planners sharing a catalog do not affect each other.
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testReadersDuringFilterAndReset() throws Exception {
+        GameCatalog catalog = randomCatalog(20000);
+        Planner shared = new Planner(catalog);
+        runTogether(thread -> {
+            Random random = new Random(thread);
+            Planner own = new Planner(catalog);
+            own.filter("minPlayers>=2");
+            for (int i = 0; i < 300; i++) {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        shared.reset();
+                        break;
+                    case 1:
+                        shared.filter("rating>" + (5 + random.nextInt(4)), GameData.RATING)
+                                .forEach(game -> assertTrue(game.getRating() > 5));
+                        break;
+                    case 2:
+                        int count = shared.count();
+                        assertTrue(count >= 0 && count <= catalog.size());
+                        break;
+                    case 3:
+                        shared.aggregate("year>2000", GameData.YEAR);
+                        shared.pickRandom(GameData.RANK, random);
+                        break;
+                    default:
+                        shared.filter("", GameData.DIFFICULTY, false).count();
+                }
+                assertTrue(own.filter("").allMatch(game -> game.getMinPlayers() >= 2));
+            }
+        });
+        Planner fresh = new Planner(catalog);
+        assertEquals(catalog.size(), fresh.count());
+        shared.reset();
+        assertEquals(catalog.size(), shared.count());
+    }
+
+    /**
+     * A task run on one of the test threads.
+     */
+    @FunctionalInterface
+    private interface ThreadTask {
+        /**
+         * Runs the task.
+         * @param thread the thread number, from 0
+         * @throws Exception if the task fails
+         */
+        void run(int thread) throws Exception;
+    }
+}
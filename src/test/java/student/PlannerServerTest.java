@@ -0,0 +1,210 @@
+package student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the PlannerServer class, over a real socket.
+ */
+class PlannerServerTest {
+    /** The server under test. */
+    private PlannerServer server;
+    /** The client used to call it. */
+    private HttpClient client;
+
+    /**
+     * Starts a server on a free port over a small catalog.
+     * @throws Exception if the server cannot start
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        GameCatalog catalog = new GameCatalog(List.of(
+                new BoardGame("13 Clues", 208766, 2, 6, 30, 30, 1.8966, 3365, 6.60806, 2016),
+                new BoardGame("15 Days", 298619, 1, 4, 20, 20, 1.8235, 6461, 6.43977, 2020),
+                new BoardGame("24/7: The Game", 25182, 2, 4, 20, 20, 1.8889, 9188, 6.20901, 2006)));
+        server = new PlannerServer(catalog, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Sends a request to the server.
+     * @param method the request method
+     * @param pathAndQuery the path and query string
+     * @return the response
+     * @throws Exception if the request fails
+     */
+    private HttpResponse<String> send(String method, String pathAndQuery) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery))
+                .method(method, HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * URL encodes a parameter value.
+     * @param value the value
+     * @return the encoded value
+     */
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tests filtering, sorting and paging the games.
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testGames() throws Exception {
+        HttpResponse<String> response = send("GET", "/games?filter=" + encode("minPlayers>=2")
+                + "&sort=rating&order=desc&size=1&page=2");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertEquals("{\"total\":2,\"page\":2,\"size\":1,\"games\":[{\"name\":\"24/7: The Game\",\"id\":25182,"
+                + "\"minPlayers\":2,\"maxPlayers\":4,\"minPlayTime\":20,\"maxPlayTime\":20,\"difficulty\":1.8889,"
+                + "\"rank\":9188,\"rating\":6.20901,\"year\":2006}]}", response.body());
+
+        assertTrue(send("GET", "/games").body().startsWith("{\"total\":3,\"page\":1,\"size\":20,"));
+    }
+
+    /**
+     * Tests that invalid requests get error responses.
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testErrors() throws Exception {
+        HttpResponse<String> response = send("GET", "/games?filter=" + encode("rating>>6"));
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().startsWith("{\"error\":"));
+        assertEquals(400, send("GET", "/games?page=0").statusCode());
+        assertEquals(400, send("GET", "/games?sort=id").statusCode());
+        assertEquals(405, send("POST", "/games").statusCode());
+        assertEquals(404, send("GET", "/gamesx").statusCode());
+        assertEquals(404, send("GET", "/nothing").statusCode());
+    }
+
+    /**
+     * Tests adding to, showing and removing from a named list.
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testLists() throws Exception {
+        assertEquals(404, send("GET", "/lists/night").statusCode());
+        assertEquals(404, send("DELETE", "/lists/night?remove=all").statusCode());
+
+        send("POST", "/lists/night?add=1&sort=rating&order=desc");
+        HttpResponse<String> response = send("POST", "/lists/night?add=" + encode("15 days"));
+        assertEquals("{\"name\":\"night\",\"count\":2,\"games\":[\"13 Clues\",\"15 Days\"]}", response.body());
+
+        response = send("POST", "/lists/night?add=" + encode("15 dayz"));
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("\"suggestion\":\"15 Days\""));
+
+        response = send("DELETE", "/lists/night?remove=" + encode("13 Clues"));
+        assertEquals("{\"name\":\"night\",\"count\":1,\"games\":[\"15 Days\"]}", response.body());
+        assertEquals(404, send("GET", "/lists/other").statusCode());
+    }
+
+    /**
+     * Tests the query counts.
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testStats() throws Exception {
+        send("GET", "/games");
+        send("GET", "/games?filter=" + encode("rating>6"));
+        assertEquals("{\"version\":1,\"queries\":2,\"coalesced\":0,\"rejected\":0}", send("GET", "/stats").body());
+        assertEquals(405, send("POST", "/stats").statusCode());
+    }
+
+    /**
+     * Tests many requests in flight at once.
+     */
+    @Test
+    public void testConcurrentRequests() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort()
+                    + "/games?filter=" + encode("year>" + (2000 + i % 20)))).build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            HttpResponse<String> response = responses.get(i).join();
+            assertEquals(200, response.statusCode());
+            int expected = 2000 + i % 20 < 2006 ? 3 : 2000 + i % 20 < 2016 ? 2 : 2000 + i % 20 < 2020 ? 1 : 0;
+            assertTrue(response.body().startsWith("{\"total\":" + expected + ","));
+        }
+    }
+
+    /**
+     * Tests that identical expensive queries arriving together are admitted once: those
+     * joining the running one take no permit or queue place, so none is rejected.
+     * @throws Exception if a query fails
+     */
+    @Test
+    public void testCoalescedQueriesAdmittedOnce() throws Exception {
+        GameCatalog catalog = new GameCatalog(GamesLoader.loadGamesFile("/collection.csv"));
+        AdmissionController admission = new AdmissionController(1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger evaluations = new AtomicInteger();
+        QueryCoalescer coalescer = new QueryCoalescer(new CatalogRegistry(catalog),
+                PlannerServer.admitted(admission, (games, filter, sortOn, asc, context) -> {
+                    evaluations.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return Planner.query(games, filter, sortOn, asc);
+                }));
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<QueryCoalescer.Result>> results = new ArrayList<>();
+            results.add(pool.submit(() -> coalescer.query("name~=the", GameData.NAME, true)));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.query("name~=the", GameData.NAME, true)));
+            }
+            while (coalescer.getSaved() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<QueryCoalescer.Result> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS).total() > 0);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, evaluations.get());
+        assertEquals(0, admission.getRejected());
+    }
+}
@@ -3,7 +3,11 @@ package student;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -102,6 +106,209 @@ class PlannerTest {
         assertEquals("24/7: The Game", sortedGames[2].getName());
     }
 
+    /**
+     * Tests filtering by a misspelled name.
+     */
+    @Test
+    public void testFilterByNameFuzzy() {
+        Set<BoardGame> filteredGames = planner.filter("name%=15 dys").collect(Collectors.toSet());
+        assertEquals(1, filteredGames.size());
+        assertTrue(filteredGames.stream().anyMatch(game -> game.getName().equals("15 Days")));
+
+        planner.reset();
+        assertEquals(0, planner.filter("name%=monopoly").count());
+    }
+
+    /**
+     * Tests filtering on the supported player counts and the play time window.
+     */
+    @Test
+    public void testFilterByRanges() {
+        assertEquals(3, planner.filter("players==4").count());
+        assertEquals(1, planner.filter("players==5").count());
+        assertEquals("13 Clues", planner.getGames().iterator().next().getName());
+
+        planner.reset();
+        assertEquals(1, planner.filter("players==1").count());
+        planner.reset();
+        assertEquals(2, planner.filter("time==10-25").count());
+        assertEquals(1, planner.filter("time==20, year<2010").count());
+        planner.reset();
+        assertEquals(3, planner.filter("playtime == 20 - 30").count());
+    }
+
+    /**
+     * Tests that invalid range filters are rejected.
+     */
+    @Test
+    public void testFilterByRangesInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("players>4"));
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("players==many"));
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("time==90-45"));
+    }
+
+    /**
+     * Tests that the fuzzy operator is rejected on numeric columns.
+     */
+    @Test
+    public void testFilterFuzzyInvalidColumn() {
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("rank%=3365"));
+    }
+
+    /**
+     * Tests that an invalid value or column is rejected without changing the current filter.
+     */
+    @Test
+    public void testFilterInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("rating>high"));
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("minPlayers>=1", GameData.ID));
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("rank"));
+        assertEquals(3, planner.count());
+    }
+
+    /**
+     * Tests aggregating a column over a filter.
+     */
+    @Test
+    public void testAggregate() {
+        Aggregate stats = planner.aggregate("maxPlayers<=4", GameData.RATING);
+        assertEquals(2, stats.count());
+        assertEquals(6.20901, stats.min());
+        assertEquals(6.43977, stats.max());
+        assertEquals((6.20901 + 6.43977) / 2, stats.mean(), 1e-9);
+
+        Aggregate years = planner.aggregate("", GameData.YEAR);
+        assertEquals(3, years.count());
+        assertEquals(2016, years.percentile(50));
+
+        // aggregating does not change the current filter
+        assertEquals(3, planner.count());
+        assertThrows(IllegalArgumentException.class, () -> planner.aggregate("", GameData.NAME));
+    }
+
+    /**
+     * Tests computing facets over a filter without changing the current filter.
+     */
+    @Test
+    public void testFacets() {
+        FacetCounts counts = planner.facets("year>2010", Facet.PLAYERS, Facet.PLAY_TIME);
+        assertEquals(2, counts.total());
+        assertEquals(1, counts.get(Facet.PLAYERS).get("1"));
+        assertEquals(2, counts.get(Facet.PLAYERS).get("4"));
+        assertEquals(0, counts.get(Facet.PLAYERS).get("7"));
+        assertEquals(2, counts.get(Facet.PLAY_TIME).get("up to 30"));
+        assertEquals(3, planner.count());
+    }
+
+    /**
+     * Tests finding similar games, with the filter pushed down.
+     */
+    @Test
+    public void testSimilar() {
+        List<String> similar = planner.similar("15 days", 5, "").map(BoardGame::getName).toList();
+        assertEquals(List.of("24/7: The Game", "13 Clues"), similar);
+
+        List<String> filtered = planner.similar("15 Days", 5, "maxPlayers>4").map(BoardGame::getName).toList();
+        assertEquals(List.of("13 Clues"), filtered);
+        assertEquals(3, planner.count());
+
+        assertThrows(IllegalArgumentException.class, () -> planner.similar("Catan", 5, ""));
+    }
+
+    /**
+     * Tests the skyline, on its own and combined with a filter.
+     */
+    @Test
+    public void testSkyline() {
+        List<String> skyline = planner.skyline("").map(BoardGame::getName).toList();
+        assertEquals(List.of("13 Clues", "15 Days"), skyline);
+
+        List<String> older = planner.skyline("year<2010").map(BoardGame::getName).toList();
+        assertEquals(List.of("24/7: The Game"), older);
+        assertEquals(3, planner.count());
+
+        planner.filter("maxPlayers==4");
+        skyline = planner.skyline("").map(BoardGame::getName).toList();
+        assertEquals(List.of("15 Days"), skyline);
+
+        assertThrows(IllegalArgumentException.class, () -> planner.skyline("rating>>6"));
+    }
+
+    /**
+     * Tests picking random games from the current filter.
+     */
+    @Test
+    public void testPickRandom() {
+        Random random = new Random(2);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(games.contains(planner.pickRandom(random).orElseThrow()));
+            assertTrue(games.contains(planner.pickRandom(GameData.RANK, random).orElseThrow()));
+        }
+        planner.filter("year>2015");
+        for (int i = 0; i < 20; i++) {
+            assertTrue(planner.pickRandom(GameData.RATING, random).orElseThrow().getYearPublished() > 2015);
+        }
+        planner.filter("year>2030");
+        assertTrue(planner.pickRandom(random).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> planner.pickRandom(GameData.NAME, random));
+    }
+
+    /**
+     * Tests running a batch of filters on top of the current filter, without changing it.
+     */
+    @Test
+    public void testFilterBatch() {
+        planner.filter("minPlayers>=2");
+        List<Stream<BoardGame>> results = planner.filterBatch(
+                List.of("", "year>2010", "rating>6.5,year>2010", "year>2030"), GameData.RATING, false);
+        assertEquals(List.of("13 Clues", "24/7: The Game"), results.get(0).map(BoardGame::getName).toList());
+        assertEquals(List.of("13 Clues"), results.get(1).map(BoardGame::getName).toList());
+        assertEquals(1, results.get(2).count());
+        assertEquals(0, results.get(3).count());
+        assertEquals(2, planner.count());
+        assertThrows(IllegalArgumentException.class, () -> planner.filterBatch(List.of("year>"), GameData.NAME, true));
+    }
+
+    /**
+     * Tests counting the current filter.
+     */
+    @Test
+    public void testCount() {
+        assertEquals(3, planner.count());
+        planner.filter("year>2010");
+        assertEquals(2, planner.count());
+    }
+
+    /**
+     * Tests that a cancelled or expired query stops and leaves the filter as it was.
+     */
+    @Test
+    public void testFilterWithContext() {
+        List<BoardGame> many = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            many.add(new BoardGame("Game " + i, i, 1 + i % 4, 4 + i % 4, 30, 60, 2.0, i + 1, 6.0, 2000 + i % 20));
+        }
+        Planner big = new Planner(new GameCatalog(many));
+        big.filter("year>2009");
+        assertEquals(10000, big.count());
+
+        QueryContext cancelled = QueryContext.cancellable();
+        cancelled.cancel();
+        QueryCancelledException e = assertThrows(QueryCancelledException.class,
+                () -> big.filter("name~=game 1", GameData.RATING, true, cancelled));
+        assertFalse(e.isTimedOut());
+        assertEquals(10000, big.count());
+
+        QueryContext expired = QueryContext.withTimeout(Duration.ZERO);
+        e = assertThrows(QueryCancelledException.class,
+                () -> big.filter("minPlayers>1", GameData.RATING, true, expired));
+        assertTrue(e.isTimedOut());
+        assertEquals(10000, big.count());
+
+        QueryContext ample = QueryContext.withTimeout(Duration.ofMinutes(1));
+        assertEquals(8000, big.filter("minPlayers>1", GameData.RATING, true, ample).count());
+    }
+
     /**
      * Tests filtering and resetting the planner.
      */
@@ -116,4 +323,15 @@ class PlannerTest {
         assertEquals(3, planner.getGames().size());
         assertTrue(planner.getGames().containsAll(games));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the warm-up queries are all valid and repeat the same work each round.
+     */
+    @Test
+    public void testWarmUp() {
+        GameCatalog catalog = planner.getCatalog();
+        long once = Planner.warmUp(catalog, 1);
+        assertTrue(once >= 3 * 2 * (GameData.values().length - 1));
+        assertEquals(2 * once, Planner.warmUp(catalog, 2));
+    }
+}
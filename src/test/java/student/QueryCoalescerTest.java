@@ -0,0 +1,262 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for sharing identical concurrent queries with QueryCoalescer.
+ */
+class QueryCoalescerTest {
+    /** The catalog of the test collection. */
+    private static final GameCatalog CATALOG = new GameCatalog(GamesLoader.loadGamesFile("/collection.csv"));
+
+    /**
+     * An evaluator that holds every evaluation until released, counting them.
+     */
+    private static final class HeldEvaluator implements QueryCoalescer.Evaluator {
+        /** Counted down when an evaluation starts. */
+        private final CountDownLatch started = new CountDownLatch(1);
+        /** Counted down to let evaluations finish. */
+        private final CountDownLatch release = new CountDownLatch(1);
+        /** The number of evaluations. */
+        private final AtomicInteger evaluations = new AtomicInteger();
+
+        /**
+         * Evaluates with Planner.query once released.
+         * @param catalog the catalog
+         * @param filter the filter string
+         * @param sortOn the game data field to sort on
+         * @param ascending true if the sort order is ascending, false if descending
+         * @param context the query's deadline and cancellation token
+         * @return the matching rows, in sorted order
+         */
+        @Override
+        public int[] evaluate(GameCatalog catalog, String filter, GameData sortOn, boolean ascending,
+                              QueryContext context) {
+            evaluations.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return Planner.query(catalog, filter, sortOn, ascending);
+        }
+    }
+
+    /**
+     * Tests that results match the planner's.
+     */
+    @Test
+    public void testQueryMatchesPlanner() {
+        QueryCoalescer coalescer = new QueryCoalescer(new CatalogRegistry(CATALOG));
+        QueryCoalescer.Result result = coalescer.query("minPlayers>2", GameData.RATING, false);
+        List<BoardGame> expected = new Planner(CATALOG).filter("minPlayers>2", GameData.RATING, false).toList();
+        assertEquals(expected, result.games().toList());
+        assertEquals(expected.size(), result.total());
+        assertEquals(expected.subList(1, 3), result.page(1, 2));
+        assertEquals(List.of(), result.page(100, 5));
+        assertEquals(1, result.version());
+        assertEquals(1, coalescer.getCalls());
+        assertEquals(0, coalescer.getSaved());
+    }
+
+    /**
+     * Tests that filters which match the same games normalize the same way.
+     */
+    @Test
+    public void testNormalize() {
+        assertEquals(FilterClause.normalize("minPlayers>2,rating>=7"),
+                FilterClause.normalize("rating >= 7.0, minplayers > 02, minPlayers>2"));
+        assertNotEquals(FilterClause.normalize("minPlayers>2"), FilterClause.normalize("minPlayers>3"));
+        assertEquals("", FilterClause.normalize(""));
+    }
+
+    /**
+     * Tests that identical queries arriving while one is running share its evaluation.
+     * @throws Exception if a query fails
+     */
+    @Test
+    public void testConcurrentQueriesShare() throws Exception {
+        HeldEvaluator evaluator = new HeldEvaluator();
+        QueryCoalescer coalescer = new QueryCoalescer(new CatalogRegistry(CATALOG), evaluator);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<QueryCoalescer.Result>> results = new ArrayList<>();
+            results.add(pool.submit(() -> coalescer.query("minPlayers>2,rating>7", GameData.NAME, true)));
+            assertTrue(evaluator.started.await(10, TimeUnit.SECONDS));
+            results.add(pool.submit(() -> coalescer.query("rating > 7, minplayers > 2", GameData.NAME, true)));
+            results.add(pool.submit(() -> coalescer.query("minPlayers>2,rating>7.0", GameData.NAME, true)));
+            while (coalescer.getSaved() < 2) {
+                Thread.sleep(1);
+            }
+            evaluator.release.countDown();
+            QueryCoalescer.Result first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<QueryCoalescer.Result> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, evaluator.evaluations.get());
+        assertEquals(3, coalescer.getCalls());
+        assertEquals(2, coalescer.getSaved());
+
+        // a different sort, or a query after the first finished, is evaluated again
+        coalescer.query("minPlayers>2,rating>7", GameData.RATING, true);
+        coalescer.query("minPlayers>2,rating>7", GameData.NAME, true);
+        assertEquals(3, evaluator.evaluations.get());
+    }
+
+    /**
+     * Tests that callers sharing a failed evaluation all get its exception.
+     * @throws Exception if the test is interrupted
+     */
+    @Test
+    public void testSharedFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CatalogRegistry registry = new CatalogRegistry(CATALOG);
+        QueryCoalescer coalescer = new QueryCoalescer(registry, (catalog, filter, sortOn, asc, context) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new IllegalArgumentException("bad query");
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> coalescer.query("rating>7", GameData.NAME, true));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<?> second = pool.submit(() -> coalescer.query("rating>7", GameData.NAME, true));
+            while (coalescer.getSaved() < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<?> result : List.of(first, second)) {
+                Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThrows(IllegalArgumentException.class, () -> coalescer.query("rating>", GameData.NAME, true));
+    }
+
+    /**
+     * Tests that an evaluation failing with an error is not left running, so the next
+     * identical query evaluates again instead of waiting forever.
+     */
+    @Test
+    public void testEvaluationError() {
+        AtomicInteger evaluations = new AtomicInteger();
+        QueryCoalescer coalescer = new QueryCoalescer(new CatalogRegistry(CATALOG),
+                (catalog, filter, sortOn, asc, context) -> {
+                    if (evaluations.incrementAndGet() == 1) {
+                        throw new StackOverflowError();
+                    }
+                    return Planner.query(catalog, filter, sortOn, asc);
+                });
+        assertThrows(StackOverflowError.class, () -> coalescer.query("rating>7", GameData.NAME, true));
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertTrue(coalescer.query("rating>7", GameData.NAME, true).total() > 0));
+        assertEquals(2, evaluations.get());
+    }
+
+    /**
+     * Tests that a caller sharing an evaluation stops waiting at its own deadline.
+     * @throws Exception if the query fails
+     */
+    @Test
+    public void testJoinedCallerDeadline() throws Exception {
+        HeldEvaluator evaluator = new HeldEvaluator();
+        QueryCoalescer coalescer = new QueryCoalescer(new CatalogRegistry(CATALOG), evaluator);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<QueryCoalescer.Result> first = pool.submit(() -> coalescer.query("rating>7", GameData.NAME, true));
+            assertTrue(evaluator.started.await(10, TimeUnit.SECONDS));
+            QueryContext context = QueryContext.withTimeout(Duration.ofMillis(30));
+            QueryCancelledException e = assertThrows(QueryCancelledException.class,
+                    () -> coalescer.query("rating>7", GameData.NAME, true, context));
+            assertTrue(e.isTimedOut());
+            evaluator.release.countDown();
+            assertTrue(first.get(10, TimeUnit.SECONDS).total() > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, evaluator.evaluations.get());
+    }
+
+    /**
+     * Tests that when the caller evaluating a shared query is cancelled, a caller sharing it
+     * runs the query again and still gets its result.
+     * @throws Exception if the query fails
+     */
+    @Test
+    public void testLeaderCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger evaluations = new AtomicInteger();
+        QueryCoalescer coalescer = new QueryCoalescer(new CatalogRegistry(CATALOG),
+                (catalog, filter, sortOn, asc, context) -> {
+                    if (evaluations.incrementAndGet() == 1) {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        context.check();
+                    }
+                    return Planner.query(catalog, filter, sortOn, asc);
+                });
+        QueryContext leader = QueryContext.cancellable();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<QueryCoalescer.Result> first = pool.submit(
+                    () -> coalescer.query("rating>7", GameData.NAME, true, leader));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<QueryCoalescer.Result> second = pool.submit(
+                    () -> coalescer.query("rating>7", GameData.NAME, true));
+            while (coalescer.getSaved() < 1) {
+                Thread.sleep(1);
+            }
+            leader.cancel();
+            release.countDown();
+            Exception e = assertThrows(Exception.class, () -> first.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(QueryCancelledException.class, e.getCause());
+            assertTrue(second.get(10, TimeUnit.SECONDS).total() > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2, evaluations.get());
+        assertEquals(0, coalescer.getSaved());
+    }
+
+    /**
+     * Tests that queries on different catalog versions are not shared.
+     */
+    @Test
+    public void testVersionInKey() {
+        CatalogRegistry registry = new CatalogRegistry(CATALOG);
+        QueryCoalescer coalescer = new QueryCoalescer(registry);
+        assertEquals(1, coalescer.query("", GameData.NAME, true).version());
+        registry.publish(new GameCatalog(CATALOG.allRows().stream().limit(3).mapToObj(CATALOG::game).toList()));
+        QueryCoalescer.Result result = coalescer.query("", GameData.NAME, true);
+        assertEquals(2, result.version());
+        assertEquals(3, result.total());
+    }
+}
@@ -0,0 +1,54 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for query deadlines and cancellation with QueryContext.
+ */
+class QueryContextTest {
+
+    /**
+     * Tests that a context without a deadline only stops once cancelled.
+     */
+    @Test
+    public void testCancel() {
+        QueryContext context = QueryContext.cancellable();
+        context.check();
+        assertEquals(Long.MAX_VALUE, context.remainingNanos());
+        context.cancel();
+        assertTrue(context.isCancelled());
+        QueryCancelledException e = assertThrows(QueryCancelledException.class, context::check);
+        assertFalse(e.isTimedOut());
+    }
+
+    /**
+     * Tests that a context stops once its deadline passes.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testDeadline() throws InterruptedException {
+        QueryContext context = QueryContext.withTimeout(Duration.ofMillis(20));
+        assertTrue(context.remainingNanos() > 0);
+        Thread.sleep(30);
+        assertEquals(0, context.remainingNanos());
+        QueryCancelledException e = assertThrows(QueryCancelledException.class, context::check);
+        assertTrue(e.isTimedOut());
+
+        QueryContext later = QueryContext.withTimeout(Duration.ofDays(365 * 1000));
+        later.check();
+    }
+
+    /**
+     * Tests that the shared context cannot be cancelled.
+     */
+    @Test
+    public void testNone() {
+        QueryContext.NONE.cancel();
+        assertFalse(QueryContext.NONE.isCancelled());
+        QueryContext.NONE.check();
+    }
+}
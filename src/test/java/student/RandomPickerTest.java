@@ -0,0 +1,86 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the RandomPicker class.
+ */
+class RandomPickerTest {
+
+    /**
+     * Tests that select finds the row of every rank, across empty words and word boundaries.
+     */
+    @Test
+    public void testSelectEveryRank() {
+        Random random = new Random(5);
+        BitSet rows = new BitSet();
+        for (int row = 0; row < 5000; row++) {
+            if (row < 200 || row > 1000 && random.nextInt(7) == 0) {
+                rows.set(row);
+            }
+        }
+        RandomPicker picker = new RandomPicker(rows);
+        int[] expected = rows.stream().toArray();
+        for (int rank = 0; rank < expected.length; rank++) {
+            assertEquals(expected[rank], picker.select(rank));
+        }
+    }
+
+    /**
+     * Tests that uniform draws only return rows in the set, and return all of them.
+     */
+    @Test
+    public void testUniformDraws() {
+        BitSet rows = new BitSet();
+        rows.set(3);
+        rows.set(64);
+        rows.set(700);
+        RandomPicker picker = new RandomPicker(rows);
+        Random random = new Random(1);
+        BitSet seen = new BitSet();
+        for (int i = 0; i < 300; i++) {
+            int row = picker.pick(random);
+            assertTrue(rows.get(row));
+            seen.set(row);
+        }
+        assertEquals(rows, seen);
+        assertEquals(-1, new RandomPicker(new BitSet()).pick(random));
+    }
+
+    /**
+     * Tests that weighted draws follow the weights: by rank, the chance falls off as 1 / rank,
+     * and unranked games are never drawn.
+     */
+    @Test
+    public void testWeightedDraws() {
+        List<BoardGame> games = new ArrayList<>();
+        games.add(new BoardGame("A", 1, 2, 4, 30, 60, 2.0, 1, 8.0, 2010));
+        games.add(new BoardGame("B", 2, 2, 4, 30, 60, 2.0, 2, 4.0, 2010));
+        games.add(new BoardGame("C", 3, 2, 4, 30, 60, 2.0, 4, 2.0, 2010));
+        games.add(new BoardGame("D", 4, 2, 4, 30, 60, 2.0, 0, 0.0, 2010));
+        GameCatalog catalog = new GameCatalog(games);
+        BitSet all = catalog.allRows();
+        Random random = new Random(9);
+        for (GameData weightOn : List.of(GameData.RANK, GameData.RATING)) {
+            RandomPicker picker = new RandomPicker(catalog, all, weightOn);
+            int[] counts = new int[catalog.size()];
+            int draws = 70000;
+            for (int i = 0; i < draws; i++) {
+                counts[picker.pick(random)]++;
+            }
+            // A, B and C have weights in the ratio 4 : 2 : 1 either way
+            assertEquals(draws * 4 / 7.0, counts[catalog.rowOf("A")], draws * 0.01);
+            assertEquals(draws * 2 / 7.0, counts[catalog.rowOf("B")], draws * 0.01);
+            assertEquals(draws / 7.0, counts[catalog.rowOf("C")], draws * 0.01);
+            assertEquals(0, counts[catalog.rowOf("D")]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RandomPicker(catalog, all, GameData.YEAR));
+    }
+}
@@ -0,0 +1,190 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the SessionManager class.
+ */
+class SessionManagerTest {
+    /** The catalog shared by the sessions. */
+    private GameCatalog catalog;
+    /** A clock the tests move by hand, in nanoseconds. */
+    private AtomicLong clock;
+
+    /**
+     * Builds a small catalog and resets the clock.
+     */
+    @BeforeEach
+    public void setUp() {
+        catalog = new GameCatalog(List.of(
+                new BoardGame("13 Clues", 208766, 2, 6, 30, 30, 1.8966, 3365, 6.60806, 2016),
+                new BoardGame("15 Days", 298619, 1, 4, 20, 20, 1.8235, 6461, 6.43977, 2020),
+                new BoardGame("24/7: The Game", 25182, 2, 4, 20, 20, 1.8889, 9188, 6.20901, 2006)));
+        clock = new AtomicLong();
+    }
+
+    /**
+     * Creates a manager using the test clock, with a one minute idle timeout.
+     * @param spillDir the spill directory, or null
+     * @return the manager
+     */
+    private SessionManager manager(Path spillDir) {
+        return new SessionManager(catalog, Duration.ofMinutes(1), spillDir, clock::get);
+    }
+
+    /**
+     * Tests that sessions keep their own progressive filters and sort settings.
+     */
+    @Test
+    public void testSessionsAreIndependent() {
+        SessionManager manager = manager(null);
+        String first = manager.open();
+        String second = manager.open();
+        assertEquals(2, manager.filter(first, "minPlayers>=2").count());
+        manager.sort(first, GameData.RATING, false);
+        assertEquals(List.of("13 Clues", "24/7: The Game"),
+                manager.filter(first, "").map(BoardGame::getName).toList());
+        assertEquals(1, manager.filter(first, "year>2010").count());
+        assertEquals(3, manager.filter(second, "").count());
+
+        manager.reset(first);
+        assertEquals(3, manager.filter(first, "").count());
+        assertThrows(IllegalArgumentException.class, () -> manager.filter(first, "rating>>6"));
+        assertThrows(IllegalArgumentException.class, () -> manager.sort(first, GameData.ID, true));
+        assertThrows(IllegalArgumentException.class, () -> manager.filter("no-such-session", ""));
+    }
+
+    /**
+     * Tests adding to and removing from a session's list, numbered by the session's sort order.
+     */
+    @Test
+    public void testLists() {
+        SessionManager manager = manager(null);
+        String id = manager.open();
+        manager.sort(id, GameData.RATING, true);
+        assertEquals(List.of("24/7: The Game"), manager.addToList(id, "1"));
+        assertEquals(List.of("15 Days", "24/7: The Game"), manager.addToList(id, "15 days"));
+        assertEquals(List.of("15 Days"), manager.removeFromList(id, "24/7: The Game"));
+        assertThrows(GameNotFoundException.class, () -> manager.addToList(id, "Catan"));
+        assertEquals(List.of("15 Days"), manager.listNames(id));
+    }
+
+    /**
+     * Tests that idle sessions are dropped when there is no spill directory.
+     */
+    @Test
+    public void testEvictionWithoutSpill() {
+        SessionManager manager = manager(null);
+        String idle = manager.open();
+        String busy = manager.open();
+        clock.addAndGet(Duration.ofSeconds(45).toNanos());
+        manager.filter(busy, "");
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(1, manager.evictIdle());
+        assertEquals(1, manager.size());
+        assertThrows(IllegalArgumentException.class, () -> manager.filter(idle, ""));
+        assertEquals(3, manager.filter(busy, "").count());
+    }
+
+    /**
+     * Tests that evicted sessions are spilled and read back with their state intact.
+     * @param dir the spill directory
+     * @throws Exception if the spill directory cannot be read
+     */
+    @Test
+    public void testEvictionWithSpill(@TempDir Path dir) throws Exception {
+        SessionManager manager = manager(dir);
+        String id = manager.open();
+        manager.filter(id, "minPlayers>=2");
+        manager.sort(id, GameData.YEAR, false);
+        manager.addToList(id, "13 clues");
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertEquals(1, manager.evictIdle());
+        assertEquals(0, manager.size());
+        assertTrue(Files.exists(dir.resolve(id + ".session")));
+
+        assertEquals(List.of("13 Clues", "24/7: The Game"),
+                manager.filter(id, "").map(BoardGame::getName).toList());
+        assertEquals(List.of("13 Clues"), manager.listNames(id));
+        assertEquals(1, manager.size());
+        assertFalse(Files.exists(dir.resolve(id + ".session")));
+
+        manager.close();
+        assertEquals(0, manager.size());
+        manager.end(id);
+        assertThrows(IllegalArgumentException.class, () -> manager.listNames(id));
+        assertThrows(IllegalArgumentException.class, () -> manager.listNames("../" + id));
+    }
+
+    /**
+     * Tests that many calls arriving together on a spilled session all see it, read back once.
+     * @param dir the spill directory
+     * @throws Exception if a call fails
+     */
+    @Test
+    public void testConcurrentRestore(@TempDir Path dir) throws Exception {
+        SessionManager manager = manager(dir);
+        String id = manager.open();
+        manager.addToList(id, "15 days");
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertEquals(1, manager.evictIdle());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return manager.listNames(id);
+                }));
+            }
+            start.countDown();
+            for (Future<List<String>> result : results) {
+                assertEquals(List.of("15 Days"), result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, manager.size());
+        assertFalse(Files.exists(dir.resolve(id + ".session")));
+    }
+
+    /**
+     * Tests that a session whose spill fails stays in memory and leaves no temporary file behind.
+     * @param dir the spill directory
+     * @throws Exception if the spill directory cannot be read
+     */
+    @Test
+    public void testFailedSpill(@TempDir Path dir) throws Exception {
+        SessionManager manager = manager(dir);
+        String id = manager.open();
+        manager.addToList(id, "15 days");
+        Files.createDirectories(dir.resolve(id + ".session").resolve("blocker"));
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertEquals(0, manager.evictIdle());
+        assertEquals(1, manager.size());
+        assertEquals(List.of("15 Days"), manager.listNames(id));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(dir.resolve(id + ".session")), files.toList());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the Skyline class.
+ */
+class SkylineTest {
+
+    /**
+     * Builds a catalog of random games, with coarse values so that ties are common.
+     * @param size the number of games
+     * @param seed the random seed
+     * @return the catalog
+     */
+    private static GameCatalog randomCatalog(int size, long seed) {
+        Random random = new Random(seed);
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int maxTime = 15 * (1 + random.nextInt(8));
+            games.add(new BoardGame("Game " + i, i, 1, 4, 10, maxTime, 1 + random.nextInt(8) / 2.0,
+                    i + 1, 5 + random.nextInt(9) / 2.0, 2000));
+        }
+        return new GameCatalog(games);
+    }
+
+    /**
+     * Checks whether one row dominates another, by comparing every dimension directly.
+     * @param catalog the catalog
+     * @param a the possibly dominating row
+     * @param b the possibly dominated row
+     * @return true if a is at least as good as b everywhere and better somewhere
+     */
+    private static boolean dominates(GameCatalog catalog, int a, int b) {
+        BoardGame x = catalog.game(a);
+        BoardGame y = catalog.game(b);
+        boolean noWorse = x.getRating() >= y.getRating() && x.getDifficulty() <= y.getDifficulty()
+                && x.getMaxPlayTime() <= y.getMaxPlayTime();
+        boolean better = x.getRating() > y.getRating() || x.getDifficulty() < y.getDifficulty()
+                || x.getMaxPlayTime() < y.getMaxPlayTime();
+        return noWorse && better;
+    }
+
+    /**
+     * Tests that the skyline matches comparing every pair of games, over all rows and a subset.
+     */
+    @Test
+    public void testMatchesPairwise() {
+        GameCatalog catalog = randomCatalog(500, 11);
+        BitSet all = new BitSet();
+        all.set(0, catalog.size());
+        BitSet half = new BitSet();
+        for (int row = 0; row < catalog.size(); row += 2) {
+            half.set(row);
+        }
+        for (BitSet rows : List.of(all, half)) {
+            BitSet expected = new BitSet();
+            for (int b = rows.nextSetBit(0); b >= 0; b = rows.nextSetBit(b + 1)) {
+                boolean dominated = false;
+                for (int a = rows.nextSetBit(0); a >= 0 && !dominated; a = rows.nextSetBit(a + 1)) {
+                    dominated = dominates(catalog, a, b);
+                }
+                if (!dominated) {
+                    expected.set(b);
+                }
+            }
+            BitSet actual = new BitSet();
+            for (int row : Skyline.compute(catalog, rows)) {
+                assertFalse(actual.get(row));
+                actual.set(row);
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Tests that games identical on every dimension are all kept, and the result is in
+     * order of rating.
+     */
+    @Test
+    public void testTiesAndOrder() {
+        GameCatalog catalog = new GameCatalog(List.of(
+                new BoardGame("A", 1, 2, 4, 30, 60, 2.0, 1, 8.0, 2010),
+                new BoardGame("B", 2, 2, 4, 30, 60, 2.0, 2, 8.0, 2011),
+                new BoardGame("C", 3, 2, 4, 30, 30, 3.0, 3, 7.0, 2012),
+                new BoardGame("D", 4, 2, 4, 30, 90, 1.0, 4, 6.0, 2013),
+                new BoardGame("E", 5, 2, 4, 30, 90, 2.5, 5, 6.5, 2014)));
+        BitSet all = new BitSet();
+        all.set(0, catalog.size());
+        List<String> names = new ArrayList<>();
+        for (int row : Skyline.compute(catalog, all)) {
+            names.add(catalog.game(row).getName());
+        }
+        assertEquals(List.of("A", "B", "C", "D"), names);
+        assertEquals(0, Skyline.compute(catalog, new BitSet()).length);
+    }
+}